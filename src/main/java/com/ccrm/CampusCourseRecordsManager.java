@@ -1,13 +1,35 @@
 package com.ccrm;
 
+import com.ccrm.core.BulkLoadReport;
 import com.ccrm.core.DataStore;
+import com.ccrm.core.EnrollmentHistory;
 import com.ccrm.model.*;
 import com.ccrm.enums.*;
 import com.ccrm.exceptions.*;
 import com.ccrm.builders.*;
+import com.ccrm.interfaces.Searchable.SearchOperator;
+import com.ccrm.query.Condition;
+import com.ccrm.query.Page;
+import com.ccrm.query.QueryCache;
+import com.ccrm.query.QueryPlan;
+import com.ccrm.services.AutoPersistenceService;
+import com.ccrm.services.CourseService;
+import com.ccrm.services.StudentService;
+import com.ccrm.services.TranscriptExportService;
+import com.ccrm.stats.CourseStats;
+import com.ccrm.stats.CourseStatsTable;
+import com.ccrm.stats.DepartmentSemesterRollup;
+import com.ccrm.stats.GpaHistogram;
+import com.ccrm.stats.GradeSketch;
+import com.ccrm.stats.RollupCell;
 import com.ccrm.utils.*;
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
 import java.util.*;
-import java.util.stream.Collectors;
+import java.util.function.Function;
+import java.util.function.Predicate;
 
 /**
  * Main application class for Campus Course & Records Manager.
@@ -17,7 +39,23 @@ public class CampusCourseRecordsManager {
     private static final Scanner scanner = new Scanner(System.in);
     private static final DataStore dataStore = DataStore.getInstance();
     private static final String DATA_DIR = "data";
+    private static final String ENROLLMENT_COLUMN_FILE = "enrollments.ccol";
     private static final String BACKUP_DIR = "backups";
+    private static final long FLUSH_INTERVAL_MILLIS = 5000;
+    private static final int FLUSH_THRESHOLD = 500;
+    private static final int COMPACTION_THRESHOLD = 16;
+    private static final boolean LAZY_ENROLLMENTS = Boolean.getBoolean("ccrm.lazyEnrollments");
+    private static final int HISTORY_CACHE_ROWS = Integer.getInteger("ccrm.historyCacheRows", 10000);
+    private static final int PAGE_SIZE = 20;
+    private static final int FUZZY_NAME_MAX_EDITS = 2;
+    private static final int FUZZY_NAME_LIMIT = 10;
+    private static final StudentService studentService = new StudentService();
+    private static final CourseService courseService = new CourseService();
+    // Created before data loads so they are filled incrementally rather than by a scan
+    private static final GpaHistogram gpaHistogram = GpaHistogram.getInstance();
+    private static final CourseStatsTable courseStats = CourseStatsTable.getInstance();
+    private static final AutoPersistenceService persistenceService =
+            new AutoPersistenceService(DATA_DIR, FLUSH_INTERVAL_MILLIS, FLUSH_THRESHOLD, COMPACTION_THRESHOLD);
 
     public static void main(String[] args) {
         System.out.println("=== Campus Course & Records Manager (CCRM) ===");
@@ -28,8 +66,21 @@ public class CampusCourseRecordsManager {
             FileUtils.createDirectoryIfNotExists(DATA_DIR);
             FileUtils.createDirectoryIfNotExists(BACKUP_DIR);
             
-            // Load existing data
+            // Load existing data, then replay changes saved since the last compaction
+            if (LAZY_ENROLLMENTS) {
+                persistenceService.keepArchive(ENROLLMENT_COLUMN_FILE);
+            }
+            persistenceService.recover();
             loadInitialData();
+            int replayed = persistenceService.start();
+            if (replayed > 0) {
+                System.out.println("Recovered " + replayed + " saved changes.");
+            }
+            if (persistenceService.getCompactionHold() != null) {
+                System.out.println("Warning: " + persistenceService.getCompactionHold() + ".");
+                System.out.println("Saved data files are left unchanged so those rows are not lost. Correct them and " +
+                                 "restart, or export from File Operations to rewrite the files without them.");
+            }
             
             // Main menu loop
             boolean running = true;
@@ -73,6 +124,19 @@ public class CampusCourseRecordsManager {
             System.err.println("An error occurred: " + e.getMessage());
             e.printStackTrace();
         } finally {
+            try {
+                persistenceService.shutdown();
+            } catch (Exception e) {
+                System.err.println("Failed to save pending changes: " + e.getMessage());
+            }
+            EnrollmentHistory history = dataStore.getEnrollmentHistory();
+            if (history != null) {
+                try {
+                    history.close();
+                } catch (Exception e) {
+                    System.err.println("Failed to close enrollment history: " + e.getMessage());
+                }
+            }
             scanner.close();
         }
     }
@@ -99,6 +163,9 @@ public class CampusCourseRecordsManager {
             System.out.println("4. Update Student");
             System.out.println("5. Deactivate Student");
             System.out.println("6. Generate Student Transcript");
+            System.out.println("7. Search Students by Name or Email");
+            System.out.println("8. Find Students by Approximate Name");
+            System.out.println("9. Export Transcripts (Batch)");
             System.out.println("0. Back to Main Menu");
             
             int choice = getIntInput("Enter your choice: ");
@@ -122,6 +189,15 @@ public class CampusCourseRecordsManager {
                 case 6:
                     generateStudentTranscript();
                     break;
+                case 7:
+                    searchStudentsByKeyword();
+                    break;
+                case 8:
+                    findStudentsByApproximateName();
+                    break;
+                case 9:
+                    exportTranscripts();
+                    break;
                 case 0:
                     backToMain = true;
                     break;
@@ -142,6 +218,8 @@ public class CampusCourseRecordsManager {
             System.out.println("5. Deactivate Course");
             System.out.println("6. Search Courses by Department");
             System.out.println("7. Search Courses by Semester");
+            System.out.println("8. Search Courses by Keyword");
+            System.out.println("9. Advanced Course Search");
             System.out.println("0. Back to Main Menu");
             
             int choice = getIntInput("Enter your choice: ");
@@ -168,6 +246,12 @@ public class CampusCourseRecordsManager {
                 case 7:
                     searchCoursesBySemester();
                     break;
+                case 8:
+                    searchCoursesByKeyword();
+                    break;
+                case 9:
+                    advancedCourseSearch();
+                    break;
                 case 0:
                     backToMain = true;
                     break;
@@ -229,6 +313,7 @@ public class CampusCourseRecordsManager {
             System.out.println("4. Import Students from CSV");
             System.out.println("5. Import Courses from CSV");
             System.out.println("6. Import Enrollments from CSV");
+            System.out.println("7. Export Enrollments to Columnar File");
             System.out.println("0. Back to Main Menu");
             
             int choice = getIntInput("Enter your choice: ");
@@ -252,6 +337,9 @@ public class CampusCourseRecordsManager {
                 case 6:
                     importEnrollmentsFromCSV();
                     break;
+                case 7:
+                    exportEnrollmentsToColumnFile();
+                    break;
                 case 0:
                     backToMain = true;
                     break;
@@ -269,28 +357,44 @@ public class CampusCourseRecordsManager {
             System.out.println("2. GPA Distribution Report");
             System.out.println("3. Course Enrollment Statistics");
             System.out.println("4. Department Statistics");
+            System.out.println("5. Course Grade Summary (Columnar)");
+            System.out.println("6. Course Grade Distribution");
+            System.out.println("7. Class Rank Report");
             System.out.println("0. Back to Main Menu");
             
             int choice = getIntInput("Enter your choice: ");
             
-            switch (choice) {
-                case 1:
-                    displaySystemStatistics();
-                    break;
-                case 2:
-                    displayGPADistribution();
-                    break;
-                case 3:
-                    displayCourseEnrollmentStats();
-                    break;
-                case 4:
-                    displayDepartmentStats();
-                    break;
-                case 0:
-                    backToMain = true;
-                    break;
-                default:
-                    System.out.println("Invalid choice. Please try again.");
+            try {
+                switch (choice) {
+                    case 1:
+                        displaySystemStatistics();
+                        break;
+                    case 2:
+                        displayGPADistribution();
+                        break;
+                    case 3:
+                        displayCourseEnrollmentStats();
+                        break;
+                    case 4:
+                        displayDepartmentStats();
+                        break;
+                    case 5:
+                        displayColumnarGradeSummary();
+                        break;
+                    case 6:
+                        displayGradeDistribution();
+                        break;
+                    case 7:
+                        displayClassRank();
+                        break;
+                    case 0:
+                        backToMain = true;
+                        break;
+                    default:
+                        System.out.println("Invalid choice. Please try again.");
+                }
+            } catch (QueryTimeoutException e) {
+                System.out.println("Report cancelled: " + e.getMessage());
             }
         }
     }
@@ -338,23 +442,25 @@ public class CampusCourseRecordsManager {
         String email = getStringInput("Enter Email: ");
         
         Student student = new Student(id, regNo, fullName, email);
-        dataStore.addStudent(student);
-        System.out.println("Student added successfully!");
+        try {
+            dataStore.addStudent(student);
+            System.out.println("Student added successfully!");
+        } catch (DuplicateKeyException e) {
+            System.out.println("Error: " + e.getMessage());
+        }
     }
 
     private static void viewAllStudents() {
         System.out.println("\n=== ALL STUDENTS ===");
-        List<Student> students = dataStore.getAllStudents();
-        if (students.isEmpty()) {
-            System.out.println("No students found.");
-        } else {
-            students.forEach(System.out::println);
-        }
+        printPaged(token -> studentService.searchPage(Condition.matchAll(), PAGE_SIZE, token), "No students found.");
     }
 
     private static void viewStudentDetails() {
-        String studentId = getStringInput("Enter Student ID: ");
-        Student student = dataStore.getStudent(studentId);
+        String key = getStringInput("Enter Student ID or Registration Number: ");
+        Student student = dataStore.getStudent(key);
+        if (student == null) {
+            student = studentService.findByRegistrationNumber(key);
+        }
         if (student == null) {
             System.out.println("Student not found.");
         } else {
@@ -377,12 +483,28 @@ public class CampusCourseRecordsManager {
         System.out.println("Enter new values (press Enter to keep current value):");
         
         String newName = getStringInput("Full Name [" + student.getFullName() + "]: ");
-        if (!newName.isEmpty()) student.setFullName(newName);
-        
         String newEmail = getStringInput("Email [" + student.getEmail() + "]: ");
-        if (!newEmail.isEmpty()) student.setEmail(newEmail);
+        if (!newEmail.isEmpty()) {
+            Student owner = studentService.findByEmail(newEmail);
+            if (owner != null && owner != student) {
+                System.out.println("Error: Email '" + newEmail + "' is already used by '" + owner.getId() + "'");
+                return;
+            }
+        }
         
-        System.out.println("Student updated successfully!");
+        // Apply only after validation so a rejected update leaves the stored student untouched
+        String oldName = student.getFullName();
+        String oldEmail = student.getEmail();
+        if (!newName.isEmpty()) student.setFullName(newName);
+        if (!newEmail.isEmpty()) student.setEmail(newEmail);
+        try {
+            dataStore.updateStudent(student);
+            System.out.println("Student updated successfully!");
+        } catch (DuplicateKeyException e) {
+            student.setFullName(oldName);
+            student.setEmail(oldEmail);
+            System.out.println("Error: " + e.getMessage());
+        }
     }
 
     private static void deactivateStudent() {
@@ -392,10 +514,36 @@ public class CampusCourseRecordsManager {
             System.out.println("Student not found.");
         } else {
             student.setActive(false);
+            dataStore.updateStudent(student);
             System.out.println("Student deactivated successfully!");
         }
     }
 
+    private static void searchStudentsByKeyword() {
+        String query = getStringInput("Enter name or email keywords: ");
+        boolean matchAll = getStringInput("Match all keywords? (y/n): ").equalsIgnoreCase("y");
+        
+        List<Student> students = studentService.searchByKeywords(query, matchAll);
+        System.out.println("\n=== MATCHING STUDENTS ===");
+        if (students.isEmpty()) {
+            System.out.println("No students match the keywords.");
+        } else {
+            students.forEach(System.out::println);
+        }
+    }
+
+    private static void findStudentsByApproximateName() {
+        String name = getStringInput("Enter student name (spelling need not be exact): ");
+        
+        List<Student> students = studentService.findByApproximateName(name, FUZZY_NAME_MAX_EDITS, FUZZY_NAME_LIMIT);
+        System.out.println("\n=== CLOSEST MATCHING STUDENTS ===");
+        if (students.isEmpty()) {
+            System.out.println("No student names are close to \"" + name + "\".");
+        } else {
+            students.forEach(System.out::println);
+        }
+    }
+
     private static void generateStudentTranscript() {
         String studentId = getStringInput("Enter Student ID: ");
         Student student = dataStore.getStudent(studentId);
@@ -406,14 +554,57 @@ public class CampusCourseRecordsManager {
         
         boolean includeInactive = getBooleanInput("Include inactive courses? (y/n): ");
         
-        TranscriptBuilder.Transcript transcript = new TranscriptBuilder()
-                .student(student)
-                .includeInactiveCourses(includeInactive)
-                .build();
+        String transcript = TranscriptCache.getInstance().get(student, includeInactive, true, true);
         
         System.out.println("\n" + transcript);
     }
 
+    private static void exportTranscripts() {
+        System.out.println("\n=== EXPORT TRANSCRIPTS ===");
+        System.out.println("1. All students");
+        System.out.println("2. Students of one department");
+        System.out.println("3. Active students only");
+        int selection = getIntInput("Select students: ");
+        Predicate<Student> filter;
+        switch (selection) {
+            case 1:
+                filter = student -> true;
+                break;
+            case 2:
+                for (Department dept : Department.values()) {
+                    System.out.println(dept.ordinal() + 1 + ". " + dept.getFullName());
+                }
+                Department department = Department.values()[getIntInput("Select Department: ") - 1];
+                filter = student -> student.getDepartment() == department;
+                break;
+            case 3:
+                filter = Student::isActive;
+                break;
+            default:
+                System.out.println("Invalid choice.");
+                return;
+        }
+        boolean zip = getBooleanInput("Write a single zip archive instead of one file per student? (y/n): ");
+        TranscriptExportService.Format format = zip ? TranscriptExportService.Format.ZIP 
+                                                    : TranscriptExportService.Format.FILES;
+        Path target = Paths.get(DATA_DIR, zip ? "transcripts.zip" : "transcripts");
+        
+        int[] lastPercent = {0};
+        try {
+            TranscriptExportService.ExportReport report = new TranscriptExportService().export(
+                    filter, target, format, false, (completed, total) -> {
+                        int percent = completed * 100 / total;
+                        if (percent >= lastPercent[0] + 10 || completed == total) {
+                            System.out.println("  " + completed + "/" + total + " (" + percent + "%)");
+                            lastPercent[0] = percent;
+                        }
+                    });
+            System.out.println(report);
+        } catch (Exception e) {
+            System.out.println("Transcript export failed: " + e.getMessage());
+        }
+    }
+
     // Course Management Methods
     private static void addCourse() {
         System.out.println("\n=== ADD NEW COURSE ===");
@@ -421,6 +612,7 @@ public class CampusCourseRecordsManager {
         String courseCode = getStringInput("Enter Course Code: ");
         String title = getStringInput("Enter Course Title: ");
         int creditHours = getIntInput("Enter Credit Hours: ");
+        int capacity = getIntInput("Enter Capacity (0 for no limit): ");
         String instructorId = getStringInput("Enter Instructor ID: ");
         
         System.out.println("Available Semesters:");
@@ -442,6 +634,7 @@ public class CampusCourseRecordsManager {
                 .courseCode(courseCode)
                 .title(title)
                 .creditHours(creditHours)
+                .capacity(capacity)
                 .instructorId(instructorId)
                 .semester(semester)
                 .department(department)
@@ -453,12 +646,7 @@ public class CampusCourseRecordsManager {
 
     private static void viewAllCourses() {
         System.out.println("\n=== ALL COURSES ===");
-        List<Course> courses = dataStore.getAllCourses();
-        if (courses.isEmpty()) {
-            System.out.println("No courses found.");
-        } else {
-            courses.forEach(System.out::println);
-        }
+        printPaged(token -> courseService.searchPage(Condition.matchAll(), PAGE_SIZE, token), "No courses found.");
     }
 
     private static void viewCourseDetails() {
@@ -490,6 +678,7 @@ public class CampusCourseRecordsManager {
         String newDescription = getStringInput("Description [" + course.getDescription() + "]: ");
         if (!newDescription.isEmpty()) course.setDescription(newDescription);
         
+        dataStore.updateCourse(course);
         System.out.println("Course updated successfully!");
     }
 
@@ -500,10 +689,59 @@ public class CampusCourseRecordsManager {
             System.out.println("Course not found.");
         } else {
             course.setActive(false);
+            dataStore.updateCourse(course);
             System.out.println("Course deactivated successfully!");
         }
     }
 
+    private static void searchCoursesByKeyword() {
+        String query = getStringInput("Enter keywords: ");
+        boolean matchAll = getStringInput("Match all keywords? (y/n): ").equalsIgnoreCase("y");
+        
+        List<Course> courses = courseService.searchByKeywords(query, matchAll);
+        System.out.println("\n=== MATCHING COURSES ===");
+        if (courses.isEmpty()) {
+            System.out.println("No courses match the keywords.");
+        } else {
+            courses.forEach(System.out::println);
+        }
+    }
+
+    private static void advancedCourseSearch() {
+        System.out.println("Leave a field blank to ignore it.");
+        List<Condition> conditions = new ArrayList<>();
+        String department = getStringInput("Department code (e.g. COMPUTER_SCIENCE): ");
+        if (!department.isEmpty()) {
+            conditions.add(Condition.where("department", SearchOperator.EQUALS, department));
+        }
+        String semester = getStringInput("Semester (e.g. FALL): ");
+        if (!semester.isEmpty()) {
+            conditions.add(Condition.where("semester", SearchOperator.EQUALS, semester));
+        }
+        String minCredits = getStringInput("More than this many credits: ");
+        if (!minCredits.isEmpty()) {
+            conditions.add(Condition.where("credits", SearchOperator.GREATER_THAN, minCredits));
+        }
+        String title = getStringInput("Title contains: ");
+        if (!title.isEmpty()) {
+            conditions.add(Condition.where("title", SearchOperator.CONTAINS, title));
+        }
+        if (conditions.isEmpty()) {
+            System.out.println("No search criteria entered.");
+            return;
+        }
+        
+        QueryPlan<Course> plan = courseService.explain(Condition.allOf(conditions.toArray(new Condition[0])));
+        System.out.println("Plan: " + plan);
+        List<Course> courses = plan.execute();
+        System.out.println("\n=== MATCHING COURSES ===");
+        if (courses.isEmpty()) {
+            System.out.println("No courses match the criteria.");
+        } else {
+            courses.forEach(System.out::println);
+        }
+    }
+
     private static void searchCoursesByDepartment() {
         System.out.println("Available Departments:");
         for (Department dept : Department.values()) {
@@ -512,7 +750,7 @@ public class CampusCourseRecordsManager {
         int choice = getIntInput("Select Department: ") - 1;
         Department department = Department.values()[choice];
         
-        List<Course> courses = dataStore.getCoursesByDepartment(department.name());
+        List<Course> courses = courseService.getCoursesByDepartment(department);
         System.out.println("\n=== COURSES IN " + department.getFullName() + " ===");
         if (courses.isEmpty()) {
             System.out.println("No courses found in this department.");
@@ -529,7 +767,7 @@ public class CampusCourseRecordsManager {
         int choice = getIntInput("Select Semester: ") - 1;
         Semester semester = Semester.values()[choice];
         
-        List<Course> courses = dataStore.getCoursesBySemester(semester.name());
+        List<Course> courses = courseService.getCoursesBySemester(semester);
         System.out.println("\n=== COURSES IN " + semester.getDisplayName() + " ===");
         if (courses.isEmpty()) {
             System.out.println("No courses found in this semester.");
@@ -551,6 +789,7 @@ public class CampusCourseRecordsManager {
             // Update student's enrolled courses
             Student student = dataStore.getStudent(studentId);
             student.enrollInCourse(courseId);
+            dataStore.updateStudent(student);
             
             System.out.println("Student enrolled successfully!");
         } else {
@@ -572,8 +811,10 @@ public class CampusCourseRecordsManager {
             System.out.println("Active enrollment not found.");
         } else {
             enrollment.withdraw();
+            dataStore.updateEnrollment(enrollment);
             Student student = dataStore.getStudent(studentId);
             student.unenrollFromCourse(courseId);
+            dataStore.updateStudent(student);
             System.out.println("Student unenrolled successfully!");
         }
     }
@@ -600,11 +841,13 @@ public class CampusCourseRecordsManager {
             }
             
             enrollment.recordGrade(grade);
+            dataStore.updateEnrollment(enrollment);
             
             // Update student's GPA
             Student student = dataStore.getStudent(studentId);
             double newGPA = dataStore.calculateStudentGPA(studentId);
             student.setCurrentGPA(newGPA);
+            dataStore.updateStudent(student);
             
             System.out.println("Grade recorded successfully!");
             System.out.println("Letter Grade: " + enrollment.getLetterGrade().getLetterGrade());
@@ -650,7 +893,11 @@ public class CampusCourseRecordsManager {
     private static void exportStudentsToCSV() {
         String filePath = DATA_DIR + "/students.csv";
         try {
-            CSVUtils.exportStudentsToCSV(dataStore.getAllStudents(), filePath);
+            // Data files are owned by the persistence service; a checkpoint rewrites them
+            if (!confirmRewriteOfHeldFiles()) {
+                return;
+            }
+            persistenceService.checkpoint();
             System.out.println("Students exported to " + filePath);
         } catch (Exception e) {
             System.out.println("Export failed: " + e.getMessage());
@@ -660,7 +907,11 @@ public class CampusCourseRecordsManager {
     private static void exportCoursesToCSV() {
         String filePath = DATA_DIR + "/courses.csv";
         try {
-            CSVUtils.exportCoursesToCSV(dataStore.getAllCourses(), filePath);
+            // Data files are owned by the persistence service; a checkpoint rewrites them
+            if (!confirmRewriteOfHeldFiles()) {
+                return;
+            }
+            persistenceService.checkpoint();
             System.out.println("Courses exported to " + filePath);
         } catch (Exception e) {
             System.out.println("Export failed: " + e.getMessage());
@@ -670,7 +921,30 @@ public class CampusCourseRecordsManager {
     private static void exportEnrollmentsToCSV() {
         String filePath = DATA_DIR + "/enrollments.csv";
         try {
-            CSVUtils.exportEnrollmentsToCSV(dataStore.getAllEnrollments(), filePath);
+            // Data files are owned by the persistence service; a checkpoint rewrites them
+            if (!confirmRewriteOfHeldFiles()) {
+                return;
+            }
+            persistenceService.checkpoint();
+            System.out.println("Enrollments exported to " + filePath);
+        } catch (Exception e) {
+            System.out.println("Export failed: " + e.getMessage());
+        }
+    }
+
+    private static void exportEnrollmentsToColumnFile() {
+        String filePath = DATA_DIR + "/" + ENROLLMENT_COLUMN_FILE;
+        try {
+            if (LAZY_ENROLLMENTS) {
+                // The attached history maps this file; the persistence service
+                // rewrites it with the base files and moves the history over
+                if (!confirmRewriteOfHeldFiles()) {
+                    return;
+                }
+                persistenceService.checkpoint();
+            } else {
+                EnrollmentColumnFile.write(dataStore.getEnrollmentsWithHistory(), filePath);
+            }
             System.out.println("Enrollments exported to " + filePath);
         } catch (Exception e) {
             System.out.println("Export failed: " + e.getMessage());
@@ -679,12 +953,10 @@ public class CampusCourseRecordsManager {
 
     private static void importStudentsFromCSV() {
         String filePath = getStringInput("Enter CSV file path: ");
+        DuplicatePolicy policy = selectDuplicatePolicy();
         try {
             List<Student> students = CSVUtils.importStudentsFromCSV(filePath);
-            for (Student student : students) {
-                dataStore.addStudent(student);
-            }
-            System.out.println("Imported " + students.size() + " students successfully!");
+            printBulkLoadReport(dataStore.bulkLoadStudents(students, policy));
         } catch (Exception e) {
             System.out.println("Import failed: " + e.getMessage());
         }
@@ -692,12 +964,10 @@ public class CampusCourseRecordsManager {
 
     private static void importCoursesFromCSV() {
         String filePath = getStringInput("Enter CSV file path: ");
+        DuplicatePolicy policy = selectDuplicatePolicy();
         try {
             List<Course> courses = CSVUtils.importCoursesFromCSV(filePath);
-            for (Course course : courses) {
-                dataStore.addCourse(course);
-            }
-            System.out.println("Imported " + courses.size() + " courses successfully!");
+            printBulkLoadReport(dataStore.bulkLoadCourses(courses, policy));
         } catch (Exception e) {
             System.out.println("Import failed: " + e.getMessage());
         }
@@ -705,18 +975,59 @@ public class CampusCourseRecordsManager {
 
     private static void importEnrollmentsFromCSV() {
         String filePath = getStringInput("Enter CSV file path: ");
+        DuplicatePolicy policy = selectDuplicatePolicy();
         try {
             List<Enrollment> enrollments = CSVUtils.importEnrollmentsFromCSV(filePath);
-            for (Enrollment enrollment : enrollments) {
-                dataStore.addEnrollment(enrollment);
-            }
-            System.out.println("Imported " + enrollments.size() + " enrollments successfully!");
+            printBulkLoadReport(dataStore.bulkLoadEnrollments(enrollments, policy));
         } catch (Exception e) {
             System.out.println("Import failed: " + e.getMessage());
         }
     }
 
     // System Reports Methods
+    private static DuplicatePolicy selectDuplicatePolicy() {
+        System.out.println("Duplicate Handling:");
+        for (DuplicatePolicy policy : DuplicatePolicy.values()) {
+            System.out.println(policy.ordinal() + 1 + ". " + policy.name() + " - " + policy.getDescription());
+        }
+        int choice = getIntInput("Select Duplicate Handling: ") - 1;
+        return choice >= 0 && choice < DuplicatePolicy.values().length 
+            ? DuplicatePolicy.values()[choice] : DuplicatePolicy.UPSERT;
+    }
+
+    /**
+     * Asks before an export rewrites data files that hold rows which could
+     * not be loaded, since the rewrite drops them.
+     * @return true if the export may go ahead
+     */
+    private static boolean confirmRewriteOfHeldFiles() {
+        String hold = persistenceService.getCompactionHold();
+        if (hold == null) {
+            return true;
+        }
+        System.out.println("Saved data files were left unchanged: " + hold + ".");
+        if (!getBooleanInput("Rewrite them from current data, dropping those rows? (y/n): ")) {
+            System.out.println("Export cancelled.");
+            return false;
+        }
+        persistenceService.releaseCompaction();
+        return true;
+    }
+
+    private static void printBulkLoadReport(BulkLoadReport report) {
+        System.out.println("Import complete. " + report);
+        printRejections(report);
+    }
+
+    private static void printRejections(BulkLoadReport report) {
+        for (BulkLoadReport.Rejection rejection : report.getRejections()) {
+            System.out.println("  " + rejection);
+        }
+        if (report.getRejectedCount() > report.getRejections().size()) {
+            System.out.println("  ... and " + (report.getRejectedCount() - report.getRejections().size()) + " more");
+        }
+    }
+
     private static void displaySystemStatistics() {
         System.out.println("\n=== SYSTEM STATISTICS ===");
         Map<String, Integer> counts = dataStore.getDataCounts();
@@ -724,56 +1035,225 @@ public class CampusCourseRecordsManager {
             System.out.println(key.substring(0, 1).toUpperCase() + key.substring(1) + ": " + value));
         
         System.out.println("Max Credits per Semester: " + DataStore.getMaxCreditsPerSemester());
+        System.out.println("Pending Unsaved Changes: " + persistenceService.getPendingChangeCount());
+        EnrollmentHistory history = dataStore.getEnrollmentHistory();
+        if (history != null) {
+            System.out.println("Archived Enrollments: " + history.getArchivedCount() + 
+                             " (" + history.getCachedRowCount() + " cached)");
+        }
+        QueryCache queryCache = QueryCache.getInstance();
+        System.out.println("Query Cache: " + queryCache.size() + "/" + queryCache.getCapacity() + " entries, " +
+                         queryCache.getHits() + " hits, " + queryCache.getMisses() + " misses, " +
+                         queryCache.getEvictions() + " evictions, " + queryCache.getInvalidations() + " invalidated" +
+                         String.format(" (%.1f%% hit ratio)", queryCache.getHitRatio() * 100));
+        TranscriptCache transcriptCache = TranscriptCache.getInstance();
+        System.out.println("Transcript Cache: " + transcriptCache.size() + "/" + transcriptCache.getCapacity() + 
+                         " entries, " + transcriptCache.getHits() + " hits, " + transcriptCache.getMisses() + 
+                         " misses, " + transcriptCache.getInvalidations() + " invalidated");
     }
 
     private static void displayGPADistribution() {
         System.out.println("\n=== GPA DISTRIBUTION ===");
-        List<Student> students = dataStore.getAllStudents();
+        long[] bands = gpaHistogram.getBandCounts();
+        System.out.println("A (3.7-4.0): " + bands[4] + " students");
+        System.out.println("B (3.0-3.6): " + bands[3] + " students");
+        System.out.println("C (2.0-2.9): " + bands[2] + " students");
+        System.out.println("D (1.0-1.9): " + bands[1] + " students");
+        System.out.println("F (0.0-0.9): " + bands[0] + " students");
         
-        Map<String, Long> gpaDistribution = students.stream()
-                .collect(Collectors.groupingBy(
-                    student -> {
-                        double gpa = student.getCurrentGPA();
-                        if (gpa >= 3.7) return "A (3.7-4.0)";
-                        else if (gpa >= 3.0) return "B (3.0-3.6)";
-                        else if (gpa >= 2.0) return "C (2.0-2.9)";
-                        else if (gpa >= 1.0) return "D (1.0-1.9)";
-                        else return "F (0.0-0.9)";
-                    },
-                    Collectors.counting()
-                ));
+        System.out.println("\nDetailed (" + gpaHistogram.getBinCount() + " bins):");
+        printGpaBins(gpaHistogram.getCounts());
         
-        gpaDistribution.forEach((range, count) -> 
-            System.out.println(range + ": " + count + " students"));
+        if (getBooleanInput("Show by department? (y/n): ")) {
+            for (Department department : Department.values()) {
+                System.out.println("\n" + department.getFullName() + ":");
+                printGpaBins(gpaHistogram.getCounts(department));
+            }
+            System.out.println("\nNo department recorded:");
+            printGpaBins(gpaHistogram.getCounts(null));
+        }
+    }
+
+    private static void printGpaBins(long[] counts) {
+        boolean any = false;
+        for (int bin = 0; bin < counts.length; bin++) {
+            if (counts[bin] > 0) {
+                double low = gpaHistogram.getBinLowerBound(bin);
+                System.out.printf("  %.2f-%.2f: %d students%n", low, low + gpaHistogram.getBinWidth(), counts[bin]);
+                any = true;
+            }
+        }
+        if (!any) {
+            System.out.println("  No students.");
+        }
     }
 
     private static void displayCourseEnrollmentStats() {
         System.out.println("\n=== COURSE ENROLLMENT STATISTICS ===");
-        List<Course> courses = dataStore.getAllCourses();
-        
-        courses.forEach(course -> {
-            int enrollmentCount = dataStore.getEnrollmentsByCourse(course.getCourseId()).size();
-            System.out.println(course.getCourseCode() + " - " + course.getTitle() + 
-                             ": " + enrollmentCount + " students");
+        printArchiveNote();
+        for (Course course : dataStore.getCoursesView()) {
+            CourseStats stats = courseStats.getStats(course.getCourseId());
+            StringBuilder line = new StringBuilder()
+                    .append(course.getCourseCode()).append(" - ").append(course.getTitle())
+                    .append(": ").append(stats.getEnrollmentCount()).append(" students (")
+                    .append(stats.getActiveCount()).append(" active, ")
+                    .append(stats.getWithdrawnCount()).append(" withdrawn, ")
+                    .append(stats.getCompletedCount()).append(" completed)");
+            if (stats.getGradedCount() > 0) {
+                line.append(String.format(", average %.2f", stats.getAverageGrade()));
+            }
+            if (stats.getCapacity() > 0) {
+                line.append(String.format(", %.0f%% of %d seats filled", stats.getFillRatio() * 100, stats.getCapacity()));
+            }
+            System.out.println(line);
+        }
+    }
+
+    private static void displayColumnarGradeSummary() {
+        System.out.println("\n=== COURSE GRADE SUMMARY ===");
+        String filePath = DATA_DIR + "/" + ENROLLMENT_COLUMN_FILE;
+        if (!FileUtils.fileExists(filePath)) {
+            System.out.println("No columnar file found. Export enrollments to a columnar file first.");
+            return;
+        }
+        try (EnrollmentColumnFile columns = EnrollmentColumnFile.open(filePath)) {
+            for (EnrollmentColumnFile.CourseSummary summary : columns.summarizeCourses()) {
+                Course course = dataStore.getCourse(summary.getCourseId());
+                String label = course != null ? course.getCourseCode() + " - " + course.getTitle() : summary.getCourseId();
+                System.out.printf("%s: %d enrolled, %d graded, average %.2f%n", label,
+                        summary.getEnrollmentCount(), summary.getGradedCount(), summary.getAverageGrade());
+            }
+        } catch (Exception e) {
+            System.out.println("Report failed: " + e.getMessage());
+        }
+    }
+
+    private static void displayGradeDistribution() {
+        System.out.println("\n=== COURSE GRADE DISTRIBUTION ===");
+        printArchiveNote();
+        boolean any = false;
+        for (Course course : dataStore.getCoursesView()) {
+            GradeSketch sketch = courseStats.getGradeSketch(course.getCourseId());
+            if (sketch.getCount() > 0) {
+                printGradeSketch(course.getCourseCode() + " - " + course.getTitle(), sketch);
+                any = true;
+            }
+        }
+        if (!any) {
+            System.out.println("No graded enrollments.");
+            return;
+        }
+        if (getBooleanInput("Show distribution by department and semester? (y/n): ")) {
+            DepartmentSemesterRollup rollup = courseStats.getRollup();
+            for (Department department : Department.values()) {
+                GradeSketch sketch = rollup.getGradeSketch(department);
+                if (sketch.getCount() > 0) {
+                    printGradeSketch(department.getFullName(), sketch);
+                }
+            }
+            for (Semester semester : Semester.values()) {
+                GradeSketch sketch = rollup.getGradeSketch(semester);
+                if (sketch.getCount() > 0) {
+                    printGradeSketch(semester.getDisplayName(), sketch);
+                }
+            }
+        }
+    }
+
+    /**
+     * Notes that a report leaves out archived enrollments, which are only
+     * loaded on demand for a single student or course.
+     */
+    private static void printArchiveNote() {
+        EnrollmentHistory history = dataStore.getEnrollmentHistory();
+        if (history != null) {
+            System.out.println("Note: current enrollments only; " + history.getArchivedCount() + 
+                             " archived enrollments are not counted. Student and course enrollment lists include them.");
+        }
+    }
+
+    private static void printGradeSketch(String label, GradeSketch sketch) {
+        System.out.printf("%s: %d graded, mean %.2f, std dev %.2f, p10 %.1f, median %.1f, p90 %.1f%n",
+                label, sketch.getCount(), sketch.getMean(), sketch.getStandardDeviation(),
+                sketch.getQuantile(0.1), sketch.getMedian(), sketch.getQuantile(0.9));
+        StringBuilder letters = new StringBuilder("  ");
+        sketch.getLetterCounts().forEach((grade, count) -> {
+            if (count > 0) {
+                letters.append(grade.name()).append('=').append(count).append(' ');
+            }
         });
+        System.out.println(letters.toString().replaceAll("\\s+$", ""));
+    }
+
+    private static void displayClassRank() {
+        System.out.println("\n=== CLASS RANK REPORT ===");
+        int ranked = studentService.getRankedStudentCount();
+        System.out.println("Active students ranked by GPA: " + ranked);
+        if (ranked == 0) {
+            return;
+        }
+        int from = getIntInput("From position (1 for the top): ");
+        int to = getIntInput("To position: ");
+        for (Student student : studentService.getStudentsByRank(from, to)) {
+            try {
+                System.out.printf("#%-5d %-12s %-30s GPA %.2f (%.1f percentile)%n",
+                        studentService.getClassRank(student.getId()), student.getRegistrationNumber(),
+                        student.getFullName(), student.getCurrentGPA(), studentService.getGpaPercentile(student.getId()));
+            } catch (StudentNotFoundException e) {
+                // Removed while listing
+            }
+        }
+        String key = getStringInput("Look up a student's rank by ID or registration number (blank to skip): ");
+        if (key.isEmpty()) {
+            return;
+        }
+        Student student = dataStore.getStudent(key);
+        if (student == null) {
+            student = studentService.findByRegistrationNumber(key);
+        }
+        if (student == null) {
+            System.out.println("Student not found: " + key);
+            return;
+        }
+        try {
+            int rank = studentService.getClassRank(student.getId());
+            if (rank < 0) {
+                System.out.println(student.getFullName() + " is inactive and not ranked.");
+            } else {
+                System.out.printf("%s: rank %d of %d, %.1f percentile%n", student.getFullName(), rank, ranked,
+                        studentService.getGpaPercentile(student.getId()));
+            }
+        } catch (StudentNotFoundException e) {
+            System.out.println("Error: " + e.getMessage());
+        }
     }
 
     private static void displayDepartmentStats() {
         System.out.println("\n=== DEPARTMENT STATISTICS ===");
-        Map<String, Long> deptStats = dataStore.getAllCourses().stream()
-                .collect(Collectors.groupingBy(
-                    course -> course.getDepartment().getFullName(),
-                    Collectors.counting()
-                ));
-        
-        deptStats.forEach((dept, count) -> 
-            System.out.println(dept + ": " + count + " courses"));
+        printArchiveNote();
+        DepartmentSemesterRollup rollup = courseStats.getRollup();
+        for (Map.Entry<Department, Map<Semester, RollupCell>> row : rollup.getAll().entrySet()) {
+            RollupCell total = rollup.get(row.getKey());
+            if (total.getCourseCount() == 0) {
+                continue;
+            }
+            System.out.println(row.getKey().getFullName() + ": " + total.getCourseCount() + " courses");
+            row.getValue().forEach((semester, cell) -> {
+                if (cell.getCourseCount() > 0) {
+                    System.out.printf("  %-6s %d courses, %d active enrollments, %d credit hours, GPA %.2f%n",
+                            semester.getDisplayName(), cell.getCourseCount(), cell.getActiveEnrollments(),
+                            cell.getCreditHours(), cell.getGpa());
+                }
+            });
+        }
     }
 
     // Backup Operations Methods
     private static void createBackup() {
+        boolean compress = getBooleanInput("Compress backup files with gzip? (y/n): ");
         try {
-            String backupDir = BackupUtils.createBackup(DATA_DIR, BACKUP_DIR);
+            String backupDir = BackupUtils.createBackup(DATA_DIR, BACKUP_DIR,
+                    compress ? CompressionUtils.GZIP : CompressionUtils.NONE);
             System.out.println("Backup created successfully at: " + backupDir);
         } catch (Exception e) {
             System.out.println("Backup creation failed: " + e.getMessage());
@@ -815,28 +1295,90 @@ public class CampusCourseRecordsManager {
     }
 
     // Utility Methods
+    /**
+     * Loads only current-term enrollments and attaches the rest as history
+     * paged in from the columnar archive, rebuilding it if the CSV is newer.
+     */
+    private static void loadEnrollmentsLazily(String csvPath) throws Exception {
+        String archivePath = DATA_DIR + "/" + ENROLLMENT_COLUMN_FILE;
+        if (!FileUtils.fileExists(archivePath) || Files.getLastModifiedTime(Paths.get(archivePath))
+                .compareTo(Files.getLastModifiedTime(Paths.get(csvPath))) < 0) {
+            EnrollmentColumnFile.writeFromCSV(csvPath, archivePath);
+        }
+        
+        EnrollmentColumnFile archive = EnrollmentColumnFile.open(archivePath);
+        ByteBuffer flags = archive.getFlags();
+        int loaded = 0;
+        for (int row = 0; row < archive.getRowCount(); row++) {
+            byte rowFlags = flags.get(row);
+            if (EnrollmentColumnFile.isActive(rowFlags) && !EnrollmentColumnFile.isCompleted(rowFlags)) {
+                dataStore.addEnrollment(archive.readEnrollment(row));
+                loaded++;
+            }
+        }
+        dataStore.setEnrollmentHistory(new EnrollmentHistory(archive, HISTORY_CACHE_ROWS));
+        System.out.println("Loaded " + loaded + " current enrollments; " + 
+                         (archive.getRowCount() - loaded) + " historical enrollments load on demand " +
+                         "and are left out of enrollment searches and statistics.");
+    }
+
     private static void loadInitialData() {
         try {
             // Try to load existing data files
             if (FileUtils.fileExists(DATA_DIR + "/students.csv")) {
                 List<Student> students = CSVUtils.importStudentsFromCSV(DATA_DIR + "/students.csv");
-                students.forEach(dataStore::addStudent);
-                System.out.println("Loaded " + students.size() + " students from file.");
+                reportInitialLoad("students.csv", dataStore.bulkLoadStudents(students, DuplicatePolicy.UPSERT));
             }
             
             if (FileUtils.fileExists(DATA_DIR + "/courses.csv")) {
                 List<Course> courses = CSVUtils.importCoursesFromCSV(DATA_DIR + "/courses.csv");
-                courses.forEach(dataStore::addCourse);
-                System.out.println("Loaded " + courses.size() + " courses from file.");
+                reportInitialLoad("courses.csv", dataStore.bulkLoadCourses(courses, DuplicatePolicy.UPSERT));
             }
             
-            if (FileUtils.fileExists(DATA_DIR + "/enrollments.csv")) {
+            if (FileUtils.fileExists(DATA_DIR + "/enrollments.csv") && LAZY_ENROLLMENTS) {
+                loadEnrollmentsLazily(DATA_DIR + "/enrollments.csv");
+            } else if (FileUtils.fileExists(DATA_DIR + "/enrollments.csv")) {
                 List<Enrollment> enrollments = CSVUtils.importEnrollmentsFromCSV(DATA_DIR + "/enrollments.csv");
-                enrollments.forEach(dataStore::addEnrollment);
-                System.out.println("Loaded " + enrollments.size() + " enrollments from file.");
+                reportInitialLoad("enrollments.csv", dataStore.bulkLoadEnrollments(enrollments, DuplicatePolicy.UPSERT));
             }
         } catch (Exception e) {
             System.out.println("Note: Could not load existing data files. Starting with empty system.");
+            // Rewriting the files from an empty store would erase them
+            persistenceService.holdCompaction("existing data files could not be read (" + e.getMessage() + ")");
+        }
+    }
+
+    /**
+     * Prints the outcome of loading a data file at startup. Rejected rows
+     * are listed, and the files are protected from being rewritten without them.
+     */
+    private static void reportInitialLoad(String fileName, BulkLoadReport report) {
+        System.out.println("Loaded " + report.getLoadedCount() + " " + report.getEntityName().toLowerCase() + " from file.");
+        if (report.getRejectedCount() > 0) {
+            System.out.println("Warning: " + report.getRejectedCount() + " rows of " + fileName + " could not be loaded:");
+            printRejections(report);
+            persistenceService.holdCompaction(report.getRejectedCount() + " rows of " + fileName + " could not be loaded");
+        }
+    }
+
+    /**
+     * Prints results one page at a time, fetching each page only when asked.
+     * @param fetch Fetches the page after a token, or the first page for null
+     * @param emptyMessage Printed when there are no results
+     */
+    private static <T> void printPaged(Function<String, Page<T>> fetch, String emptyMessage) {
+        Page<T> page = fetch.apply(null);
+        if (page.getItems().isEmpty()) {
+            System.out.println(emptyMessage);
+            return;
+        }
+        while (true) {
+            page.getItems().forEach(System.out::println);
+            if (!page.hasNextPage()
+                    || getStringInput("Press Enter for more, or q to stop: ").equalsIgnoreCase("q")) {
+                return;
+            }
+            page = fetch.apply(page.getNextPageToken());
         }
     }
 
@@ -17,6 +17,7 @@ public class CourseBuilder {
     private Semester semester;
     private Department department;
     private String description;
+    private int capacity;
 
     public CourseBuilder() {
         // Initialize with default values
@@ -65,12 +66,23 @@ public class CourseBuilder {
         return this;
     }
 
+    /**
+     * Sets the maximum number of active enrollments.
+     * @param capacity The capacity, or 0 for no limit
+     * @return This builder
+     */
+    public CourseBuilder capacity(int capacity) {
+        this.capacity = capacity;
+        return this;
+    }
+
     public Course build() {
         validateRequiredFields();
         
         Course course = new Course(courseId, courseCode, title, creditHours, 
                                  instructorId, semester, department);
         course.setDescription(description);
+        course.setCapacity(capacity);
         
         return course;
     }
@@ -91,5 +103,8 @@ public class CourseBuilder {
         if (instructorId == null || instructorId.trim().isEmpty()) {
             throw new IllegalArgumentException("Instructor ID is required");
         }
+        if (capacity < 0) {
+            throw new IllegalArgumentException("Capacity must not be negative");
+        }
     }
 }
@@ -4,8 +4,12 @@ import com.ccrm.model.Student;
 import com.ccrm.model.Enrollment;
 import com.ccrm.model.Course;
 import com.ccrm.core.DataStore;
+import java.math.BigDecimal;
+import java.math.RoundingMode;
 import java.util.List;
 import java.util.ArrayList;
+import java.util.Set;
+import java.util.LinkedHashSet;
 import java.util.stream.Collectors;
 
 /**
@@ -52,7 +56,8 @@ public class TranscriptBuilder {
         DataStore dataStore = DataStore.getInstance();
         
         // Get all enrollments for the student
-        List<Enrollment> studentEnrollments = dataStore.getEnrollmentsByStudent(student.getId());
+        List<Enrollment> allEnrollments = dataStore.getEnrollmentsByStudent(student.getId());
+        List<Enrollment> studentEnrollments = allEnrollments;
         
         // Filter based on preferences
         if (!includeInactiveCourses) {
@@ -63,7 +68,7 @@ public class TranscriptBuilder {
         
         this.enrollments = studentEnrollments;
         
-        return new Transcript(student, enrollments, includeGPA, includeSummary);
+        return new Transcript(student, enrollments, allEnrollments, includeGPA, includeSummary);
     }
 
     private void validateRequiredFields() {
@@ -76,15 +81,36 @@ public class TranscriptBuilder {
      * Transcript class representing a student's academic record.
      */
     public static class Transcript {
+        // Render buffers larger than this are not kept for reuse
+        private static final int MAX_RETAINED_BUFFER = 64 * 1024;
+        private static final ThreadLocal<StringBuilder> RENDER_BUFFER = 
+                ThreadLocal.withInitial(() -> new StringBuilder(1024));
+
         private final Student student;
         private final List<Enrollment> enrollments;
+        private final List<Enrollment> gpaEnrollments;
         private final boolean includeGPA;
         private final boolean includeSummary;
 
         public Transcript(Student student, List<Enrollment> enrollments, 
                          boolean includeGPA, boolean includeSummary) {
+            this(student, enrollments, null, includeGPA, includeSummary);
+        }
+
+        /**
+         * Creates a transcript that computes the GPA from the given enrollments.
+         * @param student The student
+         * @param enrollments Enrollments to list
+         * @param gpaEnrollments All of the student's enrollments, or null to
+         *                       compute the GPA through the DataStore
+         * @param includeGPA Whether to print the GPA
+         * @param includeSummary Whether to print the summary
+         */
+        public Transcript(Student student, List<Enrollment> enrollments, List<Enrollment> gpaEnrollments,
+                         boolean includeGPA, boolean includeSummary) {
             this.student = student;
             this.enrollments = enrollments;
+            this.gpaEnrollments = gpaEnrollments;
             this.includeGPA = includeGPA;
             this.includeSummary = includeSummary;
         }
@@ -105,9 +131,29 @@ public class TranscriptBuilder {
             return includeSummary;
         }
 
-        @Override
-        public String toString() {
-            StringBuilder sb = new StringBuilder();
+        /**
+         * Gets the IDs of every course the rendered text depends on.
+         * @return Course IDs of listed enrollments and of those counted in the GPA
+         */
+        public Set<String> getReferencedCourseIds() {
+            Set<String> courseIds = new LinkedHashSet<>();
+            for (Enrollment enrollment : enrollments) {
+                courseIds.add(enrollment.getCourseId());
+            }
+            if (includeGPA && gpaEnrollments != null) {
+                for (Enrollment enrollment : gpaEnrollments) {
+                    courseIds.add(enrollment.getCourseId());
+                }
+            }
+            return courseIds;
+        }
+
+        /**
+         * Appends the rendered transcript to a buffer.
+         * @param sb The buffer to append to
+         * @return The buffer
+         */
+        public StringBuilder renderTo(StringBuilder sb) {
             sb.append("=== ACADEMIC TRANSCRIPT ===\n");
             sb.append("Student: ").append(student.getFullName()).append("\n");
             sb.append("Registration Number: ").append(student.getRegistrationNumber()).append("\n");
@@ -115,14 +161,16 @@ public class TranscriptBuilder {
             sb.append("Enrollment Date: ").append(student.getEnrollmentDate()).append("\n\n");
 
             if (includeSummary) {
+                int completed = 0;
+                int active = 0;
+                for (Enrollment enrollment : enrollments) {
+                    if (enrollment.isCompleted()) completed++;
+                    if (enrollment.isActive()) active++;
+                }
                 sb.append("=== SUMMARY ===\n");
                 sb.append("Total Courses: ").append(enrollments.size()).append("\n");
-                sb.append("Completed Courses: ").append(
-                    enrollments.stream().filter(Enrollment::isCompleted).count()
-                ).append("\n");
-                sb.append("Active Enrollments: ").append(
-                    enrollments.stream().filter(Enrollment::isActive).count()
-                ).append("\n\n");
+                sb.append("Completed Courses: ").append(completed).append("\n");
+                sb.append("Active Enrollments: ").append(active).append("\n\n");
             }
 
             sb.append("=== COURSE RECORD ===\n");
@@ -131,24 +179,67 @@ public class TranscriptBuilder {
             for (Enrollment enrollment : enrollments) {
                 Course course = dataStore.getCourse(enrollment.getCourseId());
                 if (course != null) {
-                    sb.append(String.format("%s - %s (%d credits)\n", 
-                        course.getCourseCode(), course.getTitle(), course.getCreditHours()));
-                    sb.append(String.format("  Grade: %s (%.1f)\n", 
-                        enrollment.getLetterGrade() != null ? enrollment.getLetterGrade().getLetterGrade() : "N/A",
-                        enrollment.getNumericGrade()));
-                    sb.append(String.format("  Status: %s\n", 
-                        enrollment.isCompleted() ? "Completed" : "In Progress"));
-                    sb.append(String.format("  Enrollment Date: %s\n\n", enrollment.getEnrollmentDate()));
+                    sb.append(course.getCourseCode()).append(" - ").append(course.getTitle())
+                      .append(" (").append(course.getCreditHours()).append(" credits)\n");
+                    sb.append("  Grade: ")
+                      .append(enrollment.getLetterGrade() != null ? enrollment.getLetterGrade().getLetterGrade() : "N/A")
+                      .append(" (");
+                    appendFixed(sb, enrollment.getNumericGrade(), 1).append(")\n");
+                    sb.append("  Status: ").append(enrollment.isCompleted() ? "Completed" : "In Progress").append("\n");
+                    sb.append("  Enrollment Date: ").append(enrollment.getEnrollmentDate()).append("\n\n");
                 }
             }
 
             if (includeGPA) {
-                double gpa = dataStore.calculateStudentGPA(student.getId());
+                double gpa = gpaEnrollments != null ? calculateGPA(dataStore, gpaEnrollments) 
+                                                    : dataStore.calculateStudentGPA(student.getId());
                 sb.append("=== GPA ===\n");
-                sb.append(String.format("Current GPA: %.2f\n", gpa));
+                sb.append("Current GPA: ");
+                appendFixed(sb, gpa, 2).append("\n");
+            }
+
+            return sb;
+        }
+
+        /**
+         * Computes a credit-weighted GPA the same way as the DataStore,
+         * without fetching the enrollments again.
+         */
+        private static double calculateGPA(DataStore dataStore, List<Enrollment> allEnrollments) {
+            double totalGradePoints = 0.0;
+            int totalCredits = 0;
+            for (Enrollment enrollment : allEnrollments) {
+                if (!enrollment.isCompleted()) {
+                    continue;
+                }
+                Course course = dataStore.getCourse(enrollment.getCourseId());
+                if (course != null) {
+                    totalGradePoints += enrollment.getLetterGrade().getGradePoints() * course.getCreditHours();
+                    totalCredits += course.getCreditHours();
+                }
             }
+            return totalCredits > 0 ? totalGradePoints / totalCredits : 0.0;
+        }
+
+        /**
+         * Appends a number with fixed decimals, rounding like {@code String.format("%.nf")}.
+         */
+        private static StringBuilder appendFixed(StringBuilder sb, double value, int decimals) {
+            if (Double.isNaN(value) || Double.isInfinite(value)) {
+                return sb.append(String.format("%." + decimals + "f", value));
+            }
+            return sb.append(BigDecimal.valueOf(value).setScale(decimals, RoundingMode.HALF_UP).toPlainString());
+        }
 
-            return sb.toString();
+        @Override
+        public String toString() {
+            StringBuilder sb = RENDER_BUFFER.get();
+            sb.setLength(0);
+            String text = renderTo(sb).toString();
+            if (sb.capacity() > MAX_RETAINED_BUFFER) {
+                RENDER_BUFFER.remove();
+            }
+            return text;
         }
     }
 }
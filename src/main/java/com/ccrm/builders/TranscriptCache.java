@@ -0,0 +1,213 @@
+package com.ccrm.builders;
+
+import com.ccrm.core.DataStore;
+import com.ccrm.core.EnrollmentHistory;
+import com.ccrm.enums.ChangeType;
+import com.ccrm.interfaces.DataChangeListener;
+import com.ccrm.model.Course;
+import com.ccrm.model.Enrollment;
+import com.ccrm.model.Student;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Singleton LRU cache of rendered transcripts. Each student has a version
+ * that advances when the student or any of their enrollments changes, and
+ * each course remembers the students whose cached transcripts reference it,
+ * so a course change advances only those students' versions. An entry is
+ * served while its student's version is unchanged.
+ * Demonstrates memoization with dependency-based invalidation.
+ */
+public class TranscriptCache implements DataChangeListener {
+    private static volatile TranscriptCache instance;
+    private static final Object lock = new Object();
+
+    private static final int DEFAULT_CAPACITY = Integer.getInteger("ccrm.transcriptCacheEntries", 1024);
+
+    private final DataStore dataStore;
+    private final int capacity;
+    private final Map<String, AtomicLong> versionByStudent;
+    private final Map<String, Set<String>> studentsByCourse;
+    private final LinkedHashMap<String, Entry> entries;
+    // Advanced when all data is cleared, since versions are not reset
+    private volatile long generation;
+    private long hits;
+    private long misses;
+    private long evictions;
+    private long invalidations;
+
+    private TranscriptCache(int capacity) {
+        this.dataStore = DataStore.getInstance();
+        this.capacity = capacity;
+        this.versionByStudent = new ConcurrentHashMap<>();
+        this.studentsByCourse = new ConcurrentHashMap<>();
+        this.entries = new LinkedHashMap<>(16, 0.75f, true);
+    }
+
+    /**
+     * Gets the cache, sized by the {@code ccrm.transcriptCacheEntries} system property.
+     * @return The singleton TranscriptCache instance
+     */
+    public static TranscriptCache getInstance() {
+        if (instance == null) {
+            synchronized (lock) {
+                if (instance == null) {
+                    TranscriptCache cache = new TranscriptCache(DEFAULT_CAPACITY);
+                    DataStore.getInstance().addChangeListener(cache);
+                    instance = cache;
+                }
+            }
+        }
+        return instance;
+    }
+
+    /**
+     * Gets a student's rendered transcript, rendering and caching it on a miss.
+     * @param student The student
+     * @param includeInactiveCourses Whether to list withdrawn enrollments
+     * @param includeGPA Whether to print the GPA
+     * @param includeSummary Whether to print the summary
+     * @return The transcript text
+     */
+    public String get(Student student, boolean includeInactiveCourses, boolean includeGPA, boolean includeSummary) {
+        String studentId = student.getId();
+        String key = studentId + '|' + (includeInactiveCourses ? 'I' : '-') 
+                   + (includeGPA ? 'G' : '-') + (includeSummary ? 'S' : '-');
+        // Read the version before building, so a concurrent change invalidates the result
+        long version = versionOf(studentId).get();
+        long currentGeneration = generation;
+        EnrollmentHistory history = dataStore.getEnrollmentHistory();
+        synchronized (this) {
+            Entry entry = entries.get(key);
+            if (entry != null && entry.version == version && entry.generation == currentGeneration 
+                    && entry.history == history) {
+                hits++;
+                return entry.text;
+            }
+            if (entry != null) {
+                entries.remove(key);
+                invalidations++;
+            }
+            misses++;
+        }
+
+        TranscriptBuilder.Transcript transcript = new TranscriptBuilder()
+                .student(student)
+                .includeInactiveCourses(includeInactiveCourses)
+                .includeGPA(includeGPA)
+                .includeSummary(includeSummary)
+                .build();
+        // Register before rendering reads the courses, so a course change from here on invalidates
+        for (String courseId : transcript.getReferencedCourseIds()) {
+            studentsByCourse.computeIfAbsent(courseId, k -> ConcurrentHashMap.newKeySet()).add(studentId);
+        }
+        String text = transcript.toString();
+
+        synchronized (this) {
+            if (capacity > 0) {
+                entries.put(key, new Entry(version, currentGeneration, history, text));
+                evict();
+            }
+        }
+        return text;
+    }
+
+    private AtomicLong versionOf(String studentId) {
+        return versionByStudent.computeIfAbsent(studentId, k -> new AtomicLong());
+    }
+
+    private void invalidate(String studentId) {
+        versionOf(studentId).incrementAndGet();
+    }
+
+    private void evict() {
+        Iterator<Map.Entry<String, Entry>> it = entries.entrySet().iterator();
+        while (entries.size() > capacity && it.hasNext()) {
+            it.next();
+            it.remove();
+            evictions++;
+        }
+    }
+
+    @Override
+    public void onStudentChanged(Student student, ChangeType changeType) {
+        invalidate(student.getId());
+    }
+
+    @Override
+    public void onEnrollmentChanged(Enrollment enrollment, ChangeType changeType) {
+        invalidate(enrollment.getStudentId());
+    }
+
+    @Override
+    public void onCourseChanged(Course course, ChangeType changeType) {
+        Set<String> dependents = studentsByCourse.remove(course.getCourseId());
+        if (dependents != null) {
+            for (String studentId : dependents) {
+                invalidate(studentId);
+            }
+        }
+    }
+
+    @Override
+    public void onDataCleared() {
+        synchronized (this) {
+            generation++;
+            entries.clear();
+        }
+        studentsByCourse.clear();
+    }
+
+    /**
+     * Removes all cached transcripts. Counters are kept.
+     */
+    public synchronized void clear() {
+        entries.clear();
+    }
+
+    public synchronized int size() {
+        return entries.size();
+    }
+
+    public int getCapacity() {
+        return capacity;
+    }
+
+    public synchronized long getHits() {
+        return hits;
+    }
+
+    public synchronized long getMisses() {
+        return misses;
+    }
+
+    public synchronized long getEvictions() {
+        return evictions;
+    }
+
+    /**
+     * Gets the number of entries found stale because their data changed.
+     * @return The invalidation count
+     */
+    public synchronized long getInvalidations() {
+        return invalidations;
+    }
+
+    private static final class Entry {
+        private final long version;
+        private final long generation;
+        private final EnrollmentHistory history;
+        private final String text;
+
+        private Entry(long version, long generation, EnrollmentHistory history, String text) {
+            this.version = version;
+            this.generation = generation;
+            this.history = history;
+            this.text = text;
+        }
+    }
+}
@@ -0,0 +1,103 @@
+package com.ccrm.core;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Outcome of a DataStore bulk load: per-row counts plus the reasons rows
+ * were rejected. Only the first rejections are kept in detail.
+ */
+public class BulkLoadReport {
+    private static final int MAX_RECORDED_REJECTIONS = 100;
+
+    private final String entityName;
+    private final List<Rejection> rejections;
+    private int inserted;
+    private int updated;
+    private int skipped;
+    private int rejected;
+
+    BulkLoadReport(String entityName) {
+        this.entityName = entityName;
+        this.rejections = new ArrayList<>();
+    }
+
+    void recordInserted() {
+        inserted++;
+    }
+
+    void recordUpdated() {
+        updated++;
+    }
+
+    void recordSkipped() {
+        skipped++;
+    }
+
+    void recordRejected(int row, String key, String reason) {
+        rejected++;
+        if (rejections.size() < MAX_RECORDED_REJECTIONS) {
+            rejections.add(new Rejection(row, key, reason));
+        }
+    }
+
+    /**
+     * Turns a row counted as loaded into a rejection, for checks that can
+     * only run once the whole batch is staged.
+     * @param updated true if the row was counted as an update, false for an insert
+     */
+    void revokeLoaded(int row, String key, String reason, boolean updated) {
+        if (updated) {
+            this.updated--;
+        } else {
+            inserted--;
+        }
+        recordRejected(row, key, reason);
+    }
+
+    public String getEntityName() { return entityName; }
+    public int getInsertedCount() { return inserted; }
+    public int getUpdatedCount() { return updated; }
+    public int getSkippedCount() { return skipped; }
+    public int getRejectedCount() { return rejected; }
+    public int getLoadedCount() { return inserted + updated; }
+
+    /**
+     * Gets details of rejected rows, capped at the first rejections.
+     * @return Unmodifiable list of rejections in row order
+     */
+    public List<Rejection> getRejections() {
+        return Collections.unmodifiableList(rejections);
+    }
+
+    @Override
+    public String toString() {
+        return String.format("%s: %d inserted, %d updated, %d skipped, %d rejected",
+                           entityName, inserted, updated, skipped, rejected);
+    }
+
+    /**
+     * A row that was not loaded, with its 1-based position in the batch.
+     */
+    public static class Rejection {
+        private final int row;
+        private final String key;
+        private final String reason;
+
+        public Rejection(int row, String key, String reason) {
+            this.row = row;
+            this.key = key;
+            this.reason = reason;
+        }
+
+        public int getRow() { return row; }
+        public String getKey() { return key; }
+        public String getReason() { return reason; }
+
+        @Override
+        public String toString() {
+            return String.format("Row %d (%s): %s", row, key, reason);
+        }
+    }
+}
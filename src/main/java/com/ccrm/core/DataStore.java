@@ -1,8 +1,17 @@
 package com.ccrm.core;
 
+import com.ccrm.enums.ChangeType;
+import com.ccrm.enums.DuplicatePolicy;
+import com.ccrm.enums.EntityType;
+import com.ccrm.exceptions.DuplicateKeyException;
+import com.ccrm.interfaces.DataChangeListener;
 import com.ccrm.model.*;
+import java.io.IOException;
 import java.util.*;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.function.Function;
 import java.util.stream.Collectors;
 
 /**
@@ -19,6 +28,24 @@ public class DataStore {
     private final Map<String, Course> courses;
     private final Map<String, Enrollment> enrollments;
 
+    // Secondary indexes from student/course ID to resident enrollment IDs
+    private final Map<String, Set<String>> enrollmentIdsByStudent;
+    private final Map<String, Set<String>> enrollmentIdsByCourse;
+
+    // Unique student keys; a student is stored only after both are reserved
+    private final UniqueKeyIndex studentsByRegistrationNumber;
+    private final UniqueKeyIndex studentsByEmail;
+
+    // Archived enrollments paged in on demand; null when everything is resident
+    private volatile EnrollmentHistory enrollmentHistory;
+    private final Object historyLock;
+
+    // Observers notified after every mutation
+    private final List<DataChangeListener> listeners;
+
+    // Per entity type counters, advanced after every mutation and its notifications
+    private final AtomicLongArray epochs;
+
     // Configuration constants
     private static final int MAX_CREDITS_PER_SEMESTER = 18;
 
@@ -27,6 +54,13 @@ public class DataStore {
         this.instructors = new ConcurrentHashMap<>();
         this.courses = new ConcurrentHashMap<>();
         this.enrollments = new ConcurrentHashMap<>();
+        this.enrollmentIdsByStudent = new ConcurrentHashMap<>();
+        this.enrollmentIdsByCourse = new ConcurrentHashMap<>();
+        this.studentsByRegistrationNumber = new UniqueKeyIndex("Registration number");
+        this.studentsByEmail = new UniqueKeyIndex("Email");
+        this.listeners = new CopyOnWriteArrayList<>();
+        this.historyLock = new Object();
+        this.epochs = new AtomicLongArray(EntityType.values().length);
     }
 
     /**
@@ -44,19 +78,135 @@ public class DataStore {
         return instance;
     }
 
+    // Change notification methods
+    public void addChangeListener(DataChangeListener listener) {
+        listeners.add(listener);
+    }
+
+    public void removeChangeListener(DataChangeListener listener) {
+        listeners.remove(listener);
+    }
+
+    /**
+     * Gets the mutation epoch of an entity type. The epoch advances after
+     * every change to that type has been applied and listeners notified, so
+     * a result computed after reading an epoch is current while the epoch
+     * is unchanged.
+     * @param type The entity type
+     * @return The current epoch
+     */
+    public long getEpoch(EntityType type) {
+        return epochs.get(type.ordinal());
+    }
+
+    private void advanceEpoch(EntityType type) {
+        epochs.incrementAndGet(type.ordinal());
+    }
+
+    private static ChangeType changeTypeFor(Object previous) {
+        return previous == null ? ChangeType.ADDED : ChangeType.UPDATED;
+    }
+
     // Student management methods
+
+    /**
+     * Adds or replaces a student. Registration number and email must not
+     * belong to another student, ignoring case.
+     * @param student The student
+     * @throws DuplicateKeyException if another student has the registration number or email
+     */
     public void addStudent(Student student) {
-        students.put(student.getId(), student);
+        reserveUniqueKeys(student);
+        Student previous = students.put(student.getId(), student);
+        commitUniqueKeys(student);
+        for (DataChangeListener listener : listeners) {
+            listener.onStudentChanged(student, changeTypeFor(previous));
+        }
+        advanceEpoch(EntityType.STUDENT);
+    }
+
+    /**
+     * Notifies the store that a student was modified in place.
+     * Must be called after mutating a stored student through its setters.
+     * @param student The modified student
+     * @throws DuplicateKeyException if the new registration number or email
+     *         belongs to another student; check first with the lookups below,
+     *         since the in-place change itself cannot be undone here
+     */
+    public void updateStudent(Student student) {
+        addStudent(student);
     }
 
     public Student getStudent(String studentId) {
         return students.get(studentId);
     }
 
+    /**
+     * Looks up a student by registration number, ignoring case.
+     * @param registrationNumber The registration number
+     * @return The student, or null if none has it
+     */
+    public Student getStudentByRegistrationNumber(String registrationNumber) {
+        Student student = ownedStudent(studentsByRegistrationNumber, registrationNumber);
+        return student != null && sameKey(student.getRegistrationNumber(), registrationNumber) ? student : null;
+    }
+
+    /**
+     * Looks up a student by email, ignoring case.
+     * @param email The email address
+     * @return The student, or null if none has it
+     */
+    public Student getStudentByEmail(String email) {
+        Student student = ownedStudent(studentsByEmail, email);
+        return student != null && sameKey(student.getEmail(), email) ? student : null;
+    }
+
+    private Student ownedStudent(UniqueKeyIndex index, String value) {
+        String owner = index.ownerOf(value);
+        return owner != null ? students.get(owner) : null;
+    }
+
+    // Guards against a stored student changed in place but not yet updated
+    private static boolean sameKey(String stored, String value) {
+        return stored != null && value != null && stored.trim().equalsIgnoreCase(value.trim());
+    }
+
+    /**
+     * Reserves a student's unique keys, releasing any partial reservation
+     * before failing.
+     * @throws DuplicateKeyException if another student owns either key
+     */
+    private void reserveUniqueKeys(Student student) {
+        String id = student.getId();
+        String owner = studentsByRegistrationNumber.reserve(id, student.getRegistrationNumber());
+        if (owner != null) {
+            throw new DuplicateKeyException(studentsByRegistrationNumber.getField(), 
+                                            student.getRegistrationNumber(), owner);
+        }
+        owner = studentsByEmail.reserve(id, student.getEmail());
+        if (owner != null) {
+            studentsByRegistrationNumber.rollback(id, student.getRegistrationNumber());
+            throw new DuplicateKeyException(studentsByEmail.getField(), student.getEmail(), owner);
+        }
+    }
+
+    private void commitUniqueKeys(Student student) {
+        studentsByRegistrationNumber.commit(student.getId(), student.getRegistrationNumber());
+        studentsByEmail.commit(student.getId(), student.getEmail());
+    }
+
     public List<Student> getAllStudents() {
         return new ArrayList<>(students.values());
     }
 
+    /**
+     * Read-only live view of all students, for streaming without copying.
+     * @return Unmodifiable view backed by the store
+     */
+    public Collection<Student> getStudentsView() {
+        return Collections.unmodifiableCollection(students.values());
+    }
+
     public List<Student> getActiveStudents() {
         return students.values().stream()
                 .filter(Student::isActive)
@@ -64,12 +214,32 @@ public class DataStore {
     }
 
     public void removeStudent(String studentId) {
-        students.remove(studentId);
+        Student removed = students.remove(studentId);
+        if (removed != null) {
+            studentsByRegistrationNumber.release(studentId);
+            studentsByEmail.release(studentId);
+            for (DataChangeListener listener : listeners) {
+                listener.onStudentChanged(removed, ChangeType.REMOVED);
+            }
+            advanceEpoch(EntityType.STUDENT);
+        }
     }
 
     // Instructor management methods
     public void addInstructor(Instructor instructor) {
-        instructors.put(instructor.getId(), instructor);
+        Instructor previous = instructors.put(instructor.getId(), instructor);
+        for (DataChangeListener listener : listeners) {
+            listener.onInstructorChanged(instructor, changeTypeFor(previous));
+        }
+        advanceEpoch(EntityType.INSTRUCTOR);
+    }
+
+    /**
+     * Notifies the store that an instructor was modified in place.
+     * @param instructor The modified instructor
+     */
+    public void updateInstructor(Instructor instructor) {
+        addInstructor(instructor);
     }
 
     public Instructor getInstructor(String instructorId) {
@@ -87,12 +257,30 @@ public class DataStore {
     }
 
     public void removeInstructor(String instructorId) {
-        instructors.remove(instructorId);
+        Instructor removed = instructors.remove(instructorId);
+        if (removed != null) {
+            for (DataChangeListener listener : listeners) {
+                listener.onInstructorChanged(removed, ChangeType.REMOVED);
+            }
+            advanceEpoch(EntityType.INSTRUCTOR);
+        }
     }
 
     // Course management methods
     public void addCourse(Course course) {
-        courses.put(course.getCourseId(), course);
+        Course previous = courses.put(course.getCourseId(), course);
+        for (DataChangeListener listener : listeners) {
+            listener.onCourseChanged(course, changeTypeFor(previous));
+        }
+        advanceEpoch(EntityType.COURSE);
+    }
+
+    /**
+     * Notifies the store that a course was modified in place.
+     * @param course The modified course
+     */
+    public void updateCourse(Course course) {
+        addCourse(course);
     }
 
     public Course getCourse(String courseId) {
@@ -103,6 +291,14 @@ public class DataStore {
         return new ArrayList<>(courses.values());
     }
 
+    /**
+     * Read-only live view of all courses, for streaming without copying.
+     * @return Unmodifiable view backed by the store
+     */
+    public Collection<Course> getCoursesView() {
+        return Collections.unmodifiableCollection(courses.values());
+    }
+
     public List<Course> getActiveCourses() {
         return courses.values().stream()
                 .filter(Course::isActive)
@@ -122,12 +318,36 @@ public class DataStore {
     }
 
     public void removeCourse(String courseId) {
-        courses.remove(courseId);
+        Course removed = courses.remove(courseId);
+        if (removed != null) {
+            for (DataChangeListener listener : listeners) {
+                listener.onCourseChanged(removed, ChangeType.REMOVED);
+            }
+            advanceEpoch(EntityType.COURSE);
+        }
     }
 
     // Enrollment management methods
     public void addEnrollment(Enrollment enrollment) {
-        enrollments.put(enrollment.getEnrollmentId(), enrollment);
+        Enrollment previous = enrollments.put(enrollment.getEnrollmentId(), enrollment);
+        if (previous != null && previous != enrollment) {
+            unindexEnrollment(previous);
+        }
+        indexEnrollment(enrollment);
+        for (DataChangeListener listener : listeners) {
+            listener.onEnrollmentChanged(enrollment, changeTypeFor(previous));
+        }
+        advanceEpoch(EntityType.ENROLLMENT);
+    }
+
+    /**
+     * Notifies the store that an enrollment was modified in place,
+     * e.g. after recording a grade or withdrawing. An archived enrollment
+     * passed here becomes resident.
+     * @param enrollment The modified enrollment
+     */
+    public void updateEnrollment(Enrollment enrollment) {
+        addEnrollment(enrollment);
     }
 
     public Enrollment getEnrollment(String enrollmentId) {
@@ -138,16 +358,178 @@ public class DataStore {
         return new ArrayList<>(enrollments.values());
     }
 
+    /**
+     * Read-only live view of all enrollments, for streaming without copying.
+     * @return Unmodifiable view backed by the store
+     */
+    public Collection<Enrollment> getEnrollmentsView() {
+        return Collections.unmodifiableCollection(enrollments.values());
+    }
+
+    /**
+     * Iterates over every enrollment, including archived history that is not
+     * resident. Archived rows are materialized one at a time and not cached.
+     * @return Resident enrollments followed by the remaining archived ones
+     */
+    public Iterable<Enrollment> getEnrollmentsWithHistory() {
+        EnrollmentHistory history = enrollmentHistory;
+        if (history == null) {
+            return getEnrollmentsView();
+        }
+        return () -> new Iterator<Enrollment>() {
+            private final Iterator<Enrollment> resident = getEnrollmentsView().iterator();
+            private final Iterator<Enrollment> archived = history.iterator(enrollments::containsKey);
+
+            @Override
+            public boolean hasNext() {
+                return resident.hasNext() || archived.hasNext();
+            }
+
+            @Override
+            public Enrollment next() {
+                return resident.hasNext() ? resident.next() : archived.next();
+            }
+        };
+    }
+
+    /**
+     * Gets all enrollments of a student, paging in archived history if needed.
+     * @param studentId The student ID
+     * @return List of enrollments
+     */
     public List<Enrollment> getEnrollmentsByStudent(String studentId) {
-        return enrollments.values().stream()
-                .filter(enrollment -> enrollment.getStudentId().equals(studentId))
-                .collect(Collectors.toList());
+        List<Enrollment> result = residentEnrollments(enrollmentIdsByStudent.get(studentId));
+        result.removeIf(enrollment -> !enrollment.getStudentId().equals(studentId));
+        EnrollmentHistory history = enrollmentHistory;
+        if (history != null) {
+            appendArchived(result, history.getByStudent(studentId));
+        }
+        return result;
     }
 
+    /**
+     * Gets all enrollments of a course, paging in archived history if needed.
+     * @param courseId The course ID
+     * @return List of enrollments
+     */
     public List<Enrollment> getEnrollmentsByCourse(String courseId) {
-        return enrollments.values().stream()
-                .filter(enrollment -> enrollment.getCourseId().equals(courseId))
-                .collect(Collectors.toList());
+        List<Enrollment> result = residentEnrollments(enrollmentIdsByCourse.get(courseId));
+        result.removeIf(enrollment -> !enrollment.getCourseId().equals(courseId));
+        EnrollmentHistory history = enrollmentHistory;
+        if (history != null) {
+            appendArchived(result, history.getByCourse(courseId));
+        }
+        return result;
+    }
+
+    private boolean hasActiveEnrollment(String studentId, String courseId) {
+        for (Enrollment enrollment : residentEnrollments(enrollmentIdsByStudent.get(studentId))) {
+            if (enrollment.isActive() && enrollment.getStudentId().equals(studentId)
+                    && enrollment.getCourseId().equals(courseId)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private List<Enrollment> residentEnrollments(Set<String> enrollmentIds) {
+        List<Enrollment> result = new ArrayList<>();
+        if (enrollmentIds != null) {
+            for (String enrollmentId : enrollmentIds) {
+                Enrollment enrollment = enrollments.get(enrollmentId);
+                if (enrollment != null) {
+                    result.add(enrollment);
+                }
+            }
+        }
+        return result;
+    }
+
+    private void appendArchived(List<Enrollment> result, List<Enrollment> archived) {
+        for (Enrollment enrollment : archived) {
+            // Resident copies are newer than the archive
+            if (!enrollments.containsKey(enrollment.getEnrollmentId())) {
+                result.add(enrollment);
+            }
+        }
+    }
+
+    private void indexEnrollment(Enrollment enrollment) {
+        addToIndex(enrollmentIdsByStudent, enrollment.getStudentId(), enrollment.getEnrollmentId());
+        addToIndex(enrollmentIdsByCourse, enrollment.getCourseId(), enrollment.getEnrollmentId());
+    }
+
+    private void unindexEnrollment(Enrollment enrollment) {
+        removeFromIndex(enrollmentIdsByStudent, enrollment.getStudentId(), enrollment.getEnrollmentId());
+        removeFromIndex(enrollmentIdsByCourse, enrollment.getCourseId(), enrollment.getEnrollmentId());
+    }
+
+    private static void addToIndex(Map<String, Set<String>> index, String key, String enrollmentId) {
+        index.compute(key, (k, ids) -> {
+            Set<String> result = ids != null ? ids : ConcurrentHashMap.newKeySet();
+            result.add(enrollmentId);
+            return result;
+        });
+    }
+
+    private static void removeFromIndex(Map<String, Set<String>> index, String key, String enrollmentId) {
+        index.computeIfPresent(key, (k, ids) -> {
+            ids.remove(enrollmentId);
+            return ids.isEmpty() ? null : ids;
+        });
+    }
+
+    /**
+     * Attaches archived enrollment history for lazy loading. A history that
+     * was attached before is closed. Archived enrollments are reached through
+     * {@link #getEnrollmentsByStudent}, {@link #getEnrollmentsByCourse} and
+     * {@link #getEnrollmentsWithHistory}; the enrollment views, listeners and
+     * everything derived from them see resident enrollments only.
+     * @param history The history, or null to detach
+     */
+    public void setEnrollmentHistory(EnrollmentHistory history) {
+        EnrollmentHistory previous;
+        synchronized (historyLock) {
+            previous = enrollmentHistory;
+            this.enrollmentHistory = history;
+        }
+        if (previous != history) {
+            closeHistory(previous);
+        }
+        advanceEpoch(EntityType.ENROLLMENT);
+    }
+
+    /**
+     * Swaps the attached history for one over a rewritten archive, unless
+     * it was detached or replaced in the meantime. The old history is closed.
+     * @param expected The history the replacement was made from
+     * @param replacement The new history
+     * @return true if the replacement was attached
+     */
+    public boolean replaceEnrollmentHistory(EnrollmentHistory expected, EnrollmentHistory replacement) {
+        synchronized (historyLock) {
+            if (enrollmentHistory != expected) {
+                return false;
+            }
+            enrollmentHistory = replacement;
+        }
+        closeHistory(expected);
+        advanceEpoch(EntityType.ENROLLMENT);
+        return true;
+    }
+
+    private static void closeHistory(EnrollmentHistory history) {
+        if (history != null) {
+            try {
+                history.close();
+            } catch (IOException e) {
+                System.err.println("Failed to close enrollment history: " + e.getMessage());
+            }
+        }
+    }
+
+    public EnrollmentHistory getEnrollmentHistory() {
+        return enrollmentHistory;
     }
 
     public List<Enrollment> getActiveEnrollments() {
@@ -157,13 +539,271 @@ public class DataStore {
     }
 
     public void removeEnrollment(String enrollmentId) {
-        enrollments.remove(enrollmentId);
+        EnrollmentHistory history = enrollmentHistory;
+        if (history != null) {
+            history.markRemoved(enrollmentId);
+        }
+        Enrollment removed = enrollments.remove(enrollmentId);
+        if (removed != null) {
+            unindexEnrollment(removed);
+            for (DataChangeListener listener : listeners) {
+                listener.onEnrollmentChanged(removed, ChangeType.REMOVED);
+            }
+            advanceEpoch(EntityType.ENROLLMENT);
+        }
+    }
+
+    // Bulk load methods
+
+    /**
+     * Loads many students in one pass. Rows are staged in a presized map,
+     * deduplicated under the policy, then published with a single putAll.
+     * Registration numbers and emails are checked against the batch as a
+     * whole, so rows may swap or hand on keys in any order. Rows whose key
+     * belongs to a student outside the batch, or to an earlier row, are
+     * rejected; a rejected row leaves its stored student, and that student's
+     * keys, in place.
+     * @param rows Students to load
+     * @param policy How to treat IDs that already exist
+     * @return Report of loaded, skipped and rejected rows
+     */
+    public BulkLoadReport bulkLoadStudents(Iterable<Student> rows, DuplicatePolicy policy) {
+        BulkLoadReport report = new BulkLoadReport("Students");
+        Map<String, Student> previous = new HashMap<>();
+        Map<Student, Integer> rowOf = new IdentityHashMap<>();
+        Map<String, Student> staged = stage(rows, policy, students, Student::getId, student -> null,
+                                            previous, rowOf, report);
+        // Each rejection keeps a stored student whose keys may block other rows
+        Map<String, String> conflicts;
+        while (!(conflicts = findKeyConflicts(staged, rowOf)).isEmpty()) {
+            for (Map.Entry<String, String> conflict : conflicts.entrySet()) {
+                Student student = staged.remove(conflict.getKey());
+                report.revokeLoaded(rowOf.get(student), student.getId(), conflict.getValue(),
+                                    previous.remove(student.getId()) != null);
+            }
+        }
+
+        // Free replaced keys first so a key handed on within the batch can be taken
+        for (String id : previous.keySet()) {
+            studentsByRegistrationNumber.release(id);
+            studentsByEmail.release(id);
+        }
+        for (Iterator<Student> it = staged.values().iterator(); it.hasNext(); ) {
+            Student student = it.next();
+            try {
+                reserveUniqueKeys(student);
+            } catch (DuplicateKeyException e) {
+                // Only a concurrent single-row write can take a key checked above
+                it.remove();
+                Student replaced = previous.remove(student.getId());
+                if (replaced != null) {
+                    commitUniqueKeys(replaced);
+                }
+                report.revokeLoaded(rowOf.get(student), student.getId(), e.getMessage(), replaced != null);
+            }
+        }
+        students.putAll(staged);
+        for (Student student : staged.values()) {
+            commitUniqueKeys(student);
+        }
+        for (Student student : staged.values()) {
+            ChangeType changeType = changeTypeFor(previous.get(student.getId()));
+            for (DataChangeListener listener : listeners) {
+                listener.onStudentChanged(student, changeType);
+            }
+        }
+        advanceEpoch(EntityType.STUDENT);
+        return report;
+    }
+
+    /**
+     * Finds staged students whose registration number or email the final
+     * state would give to two students.
+     * @return Messages keyed by the ID of each row to reject
+     */
+    private Map<String, String> findKeyConflicts(Map<String, Student> staged, Map<Student, Integer> rowOf) {
+        List<Student> ordered = new ArrayList<>(staged.values());
+        ordered.sort(Comparator.comparing(rowOf::get));
+        Map<String, String> conflicts = new HashMap<>();
+        findKeyConflicts(studentsByRegistrationNumber, Student::getRegistrationNumber, ordered, staged, conflicts);
+        findKeyConflicts(studentsByEmail, Student::getEmail, ordered, staged, conflicts);
+        return conflicts;
+    }
+
+    private void findKeyConflicts(UniqueKeyIndex index, Function<Student, String> keyOf, List<Student> ordered,
+                                  Map<String, Student> staged, Map<String, String> conflicts) {
+        Map<String, String> claims = new HashMap<>();
+        // Rows keeping their stored key hold it against earlier rows wanting it
+        for (Student student : ordered) {
+            String key = UniqueKeyIndex.normalize(keyOf.apply(student));
+            if (key != null && student.getId().equals(index.ownerOf(key))) {
+                claims.put(key, student.getId());
+            }
+        }
+        for (Student student : ordered) {
+            String value = keyOf.apply(student);
+            String key = UniqueKeyIndex.normalize(value);
+            if (key == null) {
+                continue;
+            }
+            String claimant = claims.putIfAbsent(key, student.getId());
+            String owner = claimant != null ? claimant : index.ownerOf(key);
+            // An owner outside the batch keeps the key; one inside gives it up or claims it above
+            if (owner != null && !owner.equals(student.getId()) && (claimant != null || !staged.containsKey(owner))) {
+                conflicts.putIfAbsent(student.getId(), 
+                        new DuplicateKeyException(index.getField(), value, owner).getMessage());
+            }
+        }
+    }
+
+    /**
+     * Loads many courses in one pass.
+     * @param rows Courses to load
+     * @param policy How to treat IDs that already exist
+     * @return Report of loaded, skipped and rejected rows
+     */
+    public BulkLoadReport bulkLoadCourses(Iterable<Course> rows, DuplicatePolicy policy) {
+        BulkLoadReport report = new BulkLoadReport("Courses");
+        Map<String, Course> previous = new HashMap<>();
+        Map<String, Course> staged = stage(rows, policy, courses, Course::getCourseId, course -> null, previous, null, report);
+        courses.putAll(staged);
+        for (Course course : staged.values()) {
+            ChangeType changeType = changeTypeFor(previous.get(course.getCourseId()));
+            for (DataChangeListener listener : listeners) {
+                listener.onCourseChanged(course, changeType);
+            }
+        }
+        advanceEpoch(EntityType.COURSE);
+        return report;
+    }
+
+    /**
+     * Loads many enrollments in one pass. Rows whose student or course does
+     * not exist are rejected. The by-student and by-course indexes and the
+     * students' enrolled course lists are updated once, after all rows are staged.
+     * @param rows Enrollments to load
+     * @param policy How to treat IDs that already exist
+     * @return Report of loaded, skipped and rejected rows
+     */
+    public BulkLoadReport bulkLoadEnrollments(Iterable<Enrollment> rows, DuplicatePolicy policy) {
+        BulkLoadReport report = new BulkLoadReport("Enrollments");
+        Map<String, Enrollment> previous = new HashMap<>();
+        Map<String, Enrollment> staged = stage(rows, policy, enrollments, Enrollment::getEnrollmentId, enrollment -> {
+            if (!students.containsKey(enrollment.getStudentId())) {
+                return "Unknown student " + enrollment.getStudentId();
+            }
+            if (!courses.containsKey(enrollment.getCourseId())) {
+                return "Unknown course " + enrollment.getCourseId();
+            }
+            return null;
+        }, previous, null, report);
+        enrollments.putAll(staged);
+
+        for (Enrollment replaced : previous.values()) {
+            unindexEnrollment(replaced);
+        }
+        Map<String, List<String>> byStudent = new HashMap<>();
+        Map<String, List<String>> byCourse = new HashMap<>();
+        for (Enrollment enrollment : staged.values()) {
+            byStudent.computeIfAbsent(enrollment.getStudentId(), k -> new ArrayList<>()).add(enrollment.getEnrollmentId());
+            byCourse.computeIfAbsent(enrollment.getCourseId(), k -> new ArrayList<>()).add(enrollment.getEnrollmentId());
+            if (enrollment.isActive()) {
+                students.get(enrollment.getStudentId()).enrollInCourse(enrollment.getCourseId());
+            }
+        }
+        addAllToIndex(enrollmentIdsByStudent, byStudent);
+        addAllToIndex(enrollmentIdsByCourse, byCourse);
+        // A replaced row that is no longer active leaves the course, as unenrolling
+        // does, unless the student holds another active enrollment in it
+        for (Enrollment replaced : previous.values()) {
+            Student student = students.get(replaced.getStudentId());
+            if (student != null && !hasActiveEnrollment(replaced.getStudentId(), replaced.getCourseId())) {
+                student.unenrollFromCourse(replaced.getCourseId());
+            }
+        }
+
+        for (Enrollment enrollment : staged.values()) {
+            ChangeType changeType = changeTypeFor(previous.get(enrollment.getEnrollmentId()));
+            for (DataChangeListener listener : listeners) {
+                listener.onEnrollmentChanged(enrollment, changeType);
+            }
+        }
+        // Enrolled course lists of students were updated in place as well
+        advanceEpoch(EntityType.STUDENT);
+        advanceEpoch(EntityType.ENROLLMENT);
+        return report;
+    }
+
+    /**
+     * Validates and deduplicates a batch into a staging map. A key counts as a
+     * duplicate if it exists in the store or earlier in the batch.
+     * @param previous Receives the stored values that the batch replaces
+     * @param rowOf Receives the row number of each staged value, or null
+     * @return Rows to publish, keyed by ID
+     */
+    private static <T> Map<String, T> stage(Iterable<T> rows, DuplicatePolicy policy, Map<String, T> target,
+            Function<T, String> keyOf, Function<T, String> validator, Map<String, T> previous,
+            Map<T, Integer> rowOf, BulkLoadReport report) {
+        int expected = rows instanceof Collection ? ((Collection<?>) rows).size() : 16;
+        Map<String, T> staged = new HashMap<>((int) (expected / 0.75f) + 1);
+        int row = 0;
+        for (T item : rows) {
+            row++;
+            String key = keyOf.apply(item);
+            if (key == null || key.isEmpty()) {
+                report.recordRejected(row, "", "Missing ID");
+                continue;
+            }
+            String problem = validator.apply(item);
+            if (problem != null) {
+                report.recordRejected(row, key, problem);
+                continue;
+            }
+            boolean inBatch = staged.containsKey(key);
+            T existing = inBatch ? staged.get(key) : target.get(key);
+            if (existing == null) {
+                staged.put(key, item);
+                if (rowOf != null) {
+                    rowOf.put(item, row);
+                }
+                report.recordInserted();
+                continue;
+            }
+            switch (policy) {
+                case UPSERT:
+                    if (!inBatch) {
+                        previous.put(key, existing);
+                    }
+                    staged.put(key, item);
+                    if (rowOf != null) {
+                        rowOf.put(item, row);
+                    }
+                    report.recordUpdated();
+                    break;
+                case SKIP:
+                    report.recordSkipped();
+                    break;
+                default:
+                    report.recordRejected(row, key, "Duplicate ID");
+                    break;
+            }
+        }
+        return staged;
+    }
+
+    private static void addAllToIndex(Map<String, Set<String>> index, Map<String, List<String>> additions) {
+        for (Map.Entry<String, List<String>> entry : additions.entrySet()) {
+            index.compute(entry.getKey(), (k, ids) -> {
+                Set<String> result = ids != null ? ids : ConcurrentHashMap.newKeySet(entry.getValue().size());
+                result.addAll(entry.getValue());
+                return result;
+            });
+        }
     }
 
     // Business logic methods
     public int calculateStudentCredits(String studentId) {
-        return enrollments.values().stream()
-                .filter(enrollment -> enrollment.getStudentId().equals(studentId))
+        return getEnrollmentsByStudent(studentId).stream()
                 .filter(Enrollment::isActive)
                 .mapToInt(enrollment -> {
                     Course course = courses.get(enrollment.getCourseId());
@@ -173,8 +813,7 @@ public class DataStore {
     }
 
     public double calculateStudentGPA(String studentId) {
-        List<Enrollment> completedEnrollments = enrollments.values().stream()
-                .filter(enrollment -> enrollment.getStudentId().equals(studentId))
+        List<Enrollment> completedEnrollments = getEnrollmentsByStudent(studentId).stream()
                 .filter(Enrollment::isCompleted)
                 .collect(Collectors.toList());
 
@@ -205,9 +844,8 @@ public class DataStore {
         }
 
         // Check if already enrolled
-        boolean alreadyEnrolled = enrollments.values().stream()
-                .anyMatch(enrollment -> enrollment.getStudentId().equals(studentId) 
-                                     && enrollment.getCourseId().equals(courseId) 
+        boolean alreadyEnrolled = getEnrollmentsByStudent(studentId).stream()
+                .anyMatch(enrollment -> enrollment.getCourseId().equals(courseId) 
                                      && enrollment.isActive());
 
         if (alreadyEnrolled) {
@@ -225,6 +863,23 @@ public class DataStore {
         instructors.clear();
         courses.clear();
         enrollments.clear();
+        enrollmentIdsByStudent.clear();
+        enrollmentIdsByCourse.clear();
+        studentsByRegistrationNumber.clear();
+        studentsByEmail.clear();
+        // Cleared data must not resurface from the archive
+        EnrollmentHistory history;
+        synchronized (historyLock) {
+            history = enrollmentHistory;
+            enrollmentHistory = null;
+        }
+        closeHistory(history);
+        for (DataChangeListener listener : listeners) {
+            listener.onDataCleared();
+        }
+        for (EntityType type : EntityType.values()) {
+            advanceEpoch(type);
+        }
     }
 
     public Map<String, Integer> getDataCounts() {
@@ -0,0 +1,201 @@
+package com.ccrm.core;
+
+import com.ccrm.model.Enrollment;
+import com.ccrm.utils.EnrollmentColumnFile;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Predicate;
+
+/**
+ * On-demand access to archived enrollments kept in a columnar file.
+ * Enrollments of one student or course are paged in on first access and
+ * kept in an LRU cache bounded by the total number of cached rows.
+ * Demonstrates lazy loading and bounded caching.
+ */
+public class EnrollmentHistory implements AutoCloseable {
+    private static final String STUDENT_KEY_PREFIX = "S:";
+    private static final String COURSE_KEY_PREFIX = "C:";
+
+    private final EnrollmentColumnFile archive;
+    private final int maxCachedRows;
+    private final LinkedHashMap<String, List<Enrollment>> pages;
+    private final Set<String> removedIds;
+    private int cachedRows;
+
+    /**
+     * Creates a history over an opened archive.
+     * @param archive The columnar enrollment archive; closed with this history
+     * @param maxCachedRows Upper bound on enrollments held in the page cache
+     */
+    public EnrollmentHistory(EnrollmentColumnFile archive, int maxCachedRows) {
+        this(archive, maxCachedRows, ConcurrentHashMap.newKeySet());
+    }
+
+    private EnrollmentHistory(EnrollmentColumnFile archive, int maxCachedRows, Set<String> removedIds) {
+        this.archive = archive;
+        this.maxCachedRows = maxCachedRows;
+        this.pages = new LinkedHashMap<>(16, 0.75f, true);
+        this.removedIds = removedIds;
+    }
+
+    /**
+     * Creates a history over a rewritten archive with the same cache bound.
+     * The two histories share their removed IDs, so an enrollment deleted
+     * through either one stays hidden in the other.
+     * @param rewritten The new archive; closed with the returned history
+     * @return The new history; this history stays open
+     */
+    public EnrollmentHistory reopen(EnrollmentColumnFile rewritten) {
+        return new EnrollmentHistory(rewritten, maxCachedRows, removedIds);
+    }
+
+    /**
+     * Gets the archived enrollments of a student, paging them in if needed.
+     * @param studentId The student ID
+     * @return Unmodifiable list of archived enrollments
+     */
+    public List<Enrollment> getByStudent(String studentId) {
+        return page(STUDENT_KEY_PREFIX + studentId, () -> archive.getStudentRows(studentId));
+    }
+
+    /**
+     * Gets the archived enrollments of a course, paging them in if needed.
+     * @param courseId The course ID
+     * @return Unmodifiable list of archived enrollments
+     */
+    public List<Enrollment> getByCourse(String courseId) {
+        return page(COURSE_KEY_PREFIX + courseId, () -> archive.getCourseRows(courseId));
+    }
+
+    /**
+     * Hides an archived enrollment that was deleted from the store.
+     * @param enrollmentId The enrollment ID
+     */
+    public void markRemoved(String enrollmentId) {
+        removedIds.add(enrollmentId);
+    }
+
+    public boolean isRemoved(String enrollmentId) {
+        return removedIds.contains(enrollmentId);
+    }
+
+    public int getArchivedCount() {
+        return archive.getRowCount();
+    }
+
+    public synchronized int getCachedRowCount() {
+        return cachedRows;
+    }
+
+    /**
+     * Iterates over all archived enrollments without caching them.
+     * @param skip Predicate on enrollment IDs; matching rows are not materialized
+     * @return Iterator over the remaining archived enrollments
+     */
+    public Iterator<Enrollment> iterator(Predicate<String> skip) {
+        return new Iterator<Enrollment>() {
+            private int row = -1;
+            private boolean advanced;
+
+            @Override
+            public boolean hasNext() {
+                if (!advanced) {
+                    try {
+                        do {
+                            row++;
+                        } while (row < archive.getRowCount() && isHidden(archive.getEnrollmentId(row), skip));
+                    } catch (IOException e) {
+                        throw new UncheckedIOException(e);
+                    }
+                    advanced = true;
+                }
+                return row < archive.getRowCount();
+            }
+
+            @Override
+            public Enrollment next() {
+                if (!hasNext()) {
+                    throw new NoSuchElementException();
+                }
+                advanced = false;
+                try {
+                    return archive.readEnrollment(row);
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            }
+        };
+    }
+
+    private boolean isHidden(String enrollmentId, Predicate<String> skip) {
+        return removedIds.contains(enrollmentId) || skip.test(enrollmentId);
+    }
+
+    private synchronized List<Enrollment> page(String key, RowLookup lookup) {
+        List<Enrollment> page = pages.get(key);
+        if (page == null) {
+            page = load(lookup);
+            pages.put(key, page);
+            cachedRows += page.size();
+            evict(key);
+        }
+        if (removedIds.isEmpty()) {
+            return page;
+        }
+        List<Enrollment> visible = new ArrayList<>(page.size());
+        for (Enrollment enrollment : page) {
+            if (!removedIds.contains(enrollment.getEnrollmentId())) {
+                visible.add(enrollment);
+            }
+        }
+        return Collections.unmodifiableList(visible);
+    }
+
+    private List<Enrollment> load(RowLookup lookup) {
+        try {
+            int[] rows = lookup.rows();
+            List<Enrollment> page = new ArrayList<>(rows.length);
+            for (int row : rows) {
+                page.add(archive.readEnrollment(row));
+            }
+            return Collections.unmodifiableList(page);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private void evict(String newestKey) {
+        Iterator<Map.Entry<String, List<Enrollment>>> it = pages.entrySet().iterator();
+        while (cachedRows > maxCachedRows && it.hasNext()) {
+            Map.Entry<String, List<Enrollment>> eldest = it.next();
+            if (eldest.getKey().equals(newestKey)) {
+                // Always keep the page just requested, even if it alone exceeds the bound
+                continue;
+            }
+            cachedRows -= eldest.getValue().size();
+            it.remove();
+        }
+    }
+
+    @Override
+    public void close() throws IOException {
+        synchronized (this) {
+            pages.clear();
+            cachedRows = 0;
+        }
+        archive.close();
+    }
+
+    private interface RowLookup {
+        int[] rows() throws IOException;
+    }
+}
@@ -0,0 +1,101 @@
+package com.ccrm.core;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Unique, case-insensitive index from a field value to the ID that owns it.
+ * A new value is first reserved with an atomic putIfAbsent, then either
+ * committed, which releases the owner's previous value, or rolled back.
+ * Blank values are not indexed and never conflict.
+ */
+class UniqueKeyIndex {
+    private final String field;
+    private final Map<String, String> ownerByKey;
+    private final Map<String, String> keyById;
+
+    UniqueKeyIndex(String field) {
+        this.field = field;
+        this.ownerByKey = new ConcurrentHashMap<>();
+        this.keyById = new ConcurrentHashMap<>();
+    }
+
+    String getField() {
+        return field;
+    }
+
+    /**
+     * Gets the ID owning a value.
+     * @param value The field value, any case
+     * @return The owner's ID, or null if the value is free
+     */
+    String ownerOf(String value) {
+        String key = normalize(value);
+        return key != null ? ownerByKey.get(key) : null;
+    }
+
+    /**
+     * Reserves a value for an ID.
+     * @return The ID already owning the value, or null if it is now reserved
+     */
+    String reserve(String id, String value) {
+        String key = normalize(value);
+        if (key == null) {
+            return null;
+        }
+        String owner = ownerByKey.putIfAbsent(key, id);
+        return owner == null || owner.equals(id) ? null : owner;
+    }
+
+    /**
+     * Makes a reserved value the ID's current one and frees its previous value.
+     */
+    void commit(String id, String value) {
+        String key = normalize(value);
+        String previous = key != null ? keyById.put(id, key) : keyById.remove(id);
+        if (key != null) {
+            ownerByKey.putIfAbsent(key, id);
+        }
+        if (previous != null && !previous.equals(key)) {
+            ownerByKey.remove(previous, id);
+        }
+    }
+
+    /**
+     * Undoes a reservation that will not be committed. The ID's current
+     * value stays owned.
+     */
+    void rollback(String id, String value) {
+        String key = normalize(value);
+        if (key != null && !key.equals(keyById.get(id))) {
+            ownerByKey.remove(key, id);
+        }
+    }
+
+    /**
+     * Frees the value currently owned by an ID.
+     */
+    void release(String id) {
+        String previous = keyById.remove(id);
+        if (previous != null) {
+            ownerByKey.remove(previous, id);
+        }
+    }
+
+    void clear() {
+        ownerByKey.clear();
+        keyById.clear();
+    }
+
+    /**
+     * Gets the form a value is indexed under.
+     * @return The trimmed, lower-case value, or null if it is blank
+     */
+    static String normalize(String value) {
+        if (value == null) {
+            return null;
+        }
+        String key = value.trim().toLowerCase();
+        return key.isEmpty() ? null : key;
+    }
+}
@@ -0,0 +1,11 @@
+package com.ccrm.enums;
+
+/**
+ * Enum representing the kind of change applied to a stored entity.
+ * Used by DataStore change notifications.
+ */
+public enum ChangeType {
+    ADDED,
+    UPDATED,
+    REMOVED
+}
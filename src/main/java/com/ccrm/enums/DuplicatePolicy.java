@@ -0,0 +1,21 @@
+package com.ccrm.enums;
+
+/**
+ * Enum representing how a bulk load treats rows whose key already exists,
+ * either in the store or earlier in the same batch.
+ */
+public enum DuplicatePolicy {
+    UPSERT("Replace the existing row"),
+    SKIP("Keep the existing row"),
+    REJECT("Report the row as rejected");
+
+    private final String description;
+
+    DuplicatePolicy(String description) {
+        this.description = description;
+    }
+
+    public String getDescription() {
+        return description;
+    }
+}
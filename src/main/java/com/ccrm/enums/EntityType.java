@@ -0,0 +1,12 @@
+package com.ccrm.enums;
+
+/**
+ * Enum representing the entity types held by the DataStore.
+ * Demonstrates enum usage for dispatching per entity kind.
+ */
+public enum EntityType {
+    STUDENT,
+    INSTRUCTOR,
+    COURSE,
+    ENROLLMENT
+}
@@ -0,0 +1,31 @@
+package com.ccrm.exceptions;
+
+/**
+ * Custom unchecked exception for when a value of a unique field is already
+ * taken by another record.
+ * Demonstrates custom exception handling.
+ */
+public class DuplicateKeyException extends RuntimeException {
+    private final String field;
+    private final String value;
+    private final String existingId;
+
+    public DuplicateKeyException(String field, String value, String existingId) {
+        super(String.format("%s '%s' is already used by '%s'", field, value, existingId));
+        this.field = field;
+        this.value = value;
+        this.existingId = existingId;
+    }
+
+    public String getField() {
+        return field;
+    }
+
+    public String getValue() {
+        return value;
+    }
+
+    public String getExistingId() {
+        return existingId;
+    }
+}
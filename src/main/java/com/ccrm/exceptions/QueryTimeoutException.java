@@ -0,0 +1,18 @@
+package com.ccrm.exceptions;
+
+/**
+ * Custom unchecked exception for when a scan runs longer than its time limit.
+ * Demonstrates custom exception handling.
+ */
+public class QueryTimeoutException extends RuntimeException {
+    private final long timeoutMillis;
+
+    public QueryTimeoutException(long timeoutMillis) {
+        super(String.format("Query cancelled after exceeding its time limit of %d ms", timeoutMillis));
+        this.timeoutMillis = timeoutMillis;
+    }
+
+    public long getTimeoutMillis() {
+        return timeoutMillis;
+    }
+}
@@ -0,0 +1,279 @@
+package com.ccrm.index;
+
+import com.ccrm.interfaces.FieldIndex;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.Set;
+import java.util.function.Function;
+
+/**
+ * BK-tree over the normalized values of a field for approximate lookup by
+ * Levenshtein distance. Each distinct value is one node; the triangle
+ * inequality lets a search skip every subtree whose edge distance lies
+ * outside the query's budget, so only a small part of the tree is compared.
+ * Removed values stay in the tree as tombstones until they outnumber the
+ * live values, at which point the tree is rebuilt.
+ * @param <T> The type of entities being indexed
+ */
+public class BKTreeIndex<T> implements FieldIndex<T> {
+    private static final int MIN_TOMBSTONES_FOR_REBUILD = 64;
+
+    private final String field;
+    private final Function<T, String> extractor;
+    private final Map<String, Node> nodesByKey;
+    private final Map<String, String> keyById;
+    private Node root;
+    private int tombstones;
+
+    /**
+     * Creates a BK-tree index.
+     * @param field Canonical field name
+     * @param extractor Reads the field's value; may return null
+     */
+    public BKTreeIndex(String field, Function<T, String> extractor) {
+        this.field = field;
+        this.extractor = extractor;
+        this.nodesByKey = new HashMap<>();
+        this.keyById = new HashMap<>();
+    }
+
+    @Override
+    public String getField() {
+        return field;
+    }
+
+    @Override
+    public synchronized void index(String id, T entity) {
+        String key = normalize(extractor.apply(entity));
+        String previous = keyById.get(id);
+        if (key.equals(previous)) {
+            return;
+        }
+        if (previous != null) {
+            remove(id);
+        }
+        if (key.isEmpty()) {
+            return;
+        }
+        keyById.put(id, key);
+        Node node = nodesByKey.get(key);
+        if (node == null) {
+            node = new Node(key);
+            nodesByKey.put(key, node);
+            insert(node);
+        } else if (node.ids.isEmpty()) {
+            tombstones--;
+        }
+        node.ids.add(id);
+    }
+
+    @Override
+    public synchronized void remove(String id) {
+        String key = keyById.remove(id);
+        if (key == null) {
+            return;
+        }
+        Node node = nodesByKey.get(key);
+        node.ids.remove(id);
+        if (node.ids.isEmpty()) {
+            tombstones++;
+            if (tombstones >= MIN_TOMBSTONES_FOR_REBUILD && tombstones > nodesByKey.size() - tombstones) {
+                rebuild();
+            }
+        }
+    }
+
+    @Override
+    public synchronized void clear() {
+        nodesByKey.clear();
+        keyById.clear();
+        root = null;
+        tombstones = 0;
+    }
+
+    private void insert(Node node) {
+        if (root == null) {
+            root = node;
+            return;
+        }
+        Node current = root;
+        while (true) {
+            int distance = distance(node.key, current.key, Integer.MAX_VALUE);
+            Node child = current.children.get(distance);
+            if (child == null) {
+                current.children.put(distance, node);
+                current.maxEdge = Math.max(current.maxEdge, distance);
+                return;
+            }
+            current = child;
+        }
+    }
+
+    private void rebuild() {
+        List<Node> live = new ArrayList<>();
+        for (Node node : nodesByKey.values()) {
+            if (!node.ids.isEmpty()) {
+                node.children.clear();
+                node.maxEdge = 0;
+                live.add(node);
+            }
+        }
+        nodesByKey.clear();
+        root = null;
+        tombstones = 0;
+        for (Node node : live) {
+            nodesByKey.put(node.key, node);
+            insert(node);
+        }
+    }
+
+    /**
+     * Finds the values closest to a query within an edit-distance budget.
+     * @param query The value to look up; normalized like indexed values
+     * @param maxDistance Largest number of single-character edits allowed
+     * @param limit Maximum number of matches to return
+     * @return Matches ordered by distance, then by value
+     */
+    public synchronized List<Match> search(String query, int maxDistance, int limit) {
+        String key = normalize(query);
+        Comparator<Match> closest = Comparator.comparingInt(Match::getDistance).thenComparing(Match::getValue);
+        // Worst kept match at the head, so it is the one to displace
+        PriorityQueue<Match> best = new PriorityQueue<>(closest.reversed());
+        int budget = maxDistance;
+        Deque<Node> pending = new ArrayDeque<>();
+        if (root != null && limit > 0 && !key.isEmpty()) {
+            pending.push(root);
+        }
+        while (!pending.isEmpty()) {
+            Node node = pending.pop();
+            // Beyond this bound neither the node nor any of its children can qualify
+            int distance = distance(key, node.key, budget + node.maxEdge);
+            if (distance <= budget && !node.ids.isEmpty()) {
+                for (String id : node.ids) {
+                    best.add(new Match(id, node.key, distance));
+                    if (best.size() > limit) {
+                        best.poll();
+                    }
+                }
+                if (best.size() == limit) {
+                    // Once the result is full, only strictly closer values can enter it
+                    budget = Math.min(budget, best.peek().getDistance());
+                }
+            }
+            for (Map.Entry<Integer, Node> child : node.children.entrySet()) {
+                if (Math.abs(child.getKey() - distance) <= budget) {
+                    pending.push(child.getValue());
+                }
+            }
+        }
+        List<Match> result = new ArrayList<>(best);
+        result.sort(closest);
+        return result;
+    }
+
+    public synchronized int getValueCount() {
+        return nodesByKey.size() - tombstones;
+    }
+
+    /**
+     * Normalizes a value for comparison: lowercase with single spaces.
+     * @param value The value, may be null
+     * @return The normalized value
+     */
+    static String normalize(String value) {
+        if (value == null) {
+            return "";
+        }
+        return value.trim().toLowerCase().replaceAll("\\s+", " ");
+    }
+
+    /**
+     * Computes the Levenshtein distance between two strings, giving up once
+     * it must exceed a limit.
+     * @param limit Distance beyond which the exact value does not matter
+     * @return The distance, or a value above limit
+     */
+    static int distance(String a, String b, int limit) {
+        if (a.length() > b.length()) {
+            String swap = a;
+            a = b;
+            b = swap;
+        }
+        if (b.length() - a.length() > limit) {
+            return b.length() - a.length();
+        }
+        int[] previous = new int[a.length() + 1];
+        int[] current = new int[a.length() + 1];
+        for (int i = 0; i <= a.length(); i++) {
+            previous[i] = i;
+        }
+        for (int j = 1; j <= b.length(); j++) {
+            current[0] = j;
+            int rowMin = current[0];
+            char bc = b.charAt(j - 1);
+            for (int i = 1; i <= a.length(); i++) {
+                int cost = a.charAt(i - 1) == bc ? 0 : 1;
+                current[i] = Math.min(Math.min(current[i - 1] + 1, previous[i] + 1), previous[i - 1] + cost);
+                rowMin = Math.min(rowMin, current[i]);
+            }
+            if (rowMin > limit) {
+                return rowMin;
+            }
+            int[] swap = previous;
+            previous = current;
+            current = swap;
+        }
+        return previous[a.length()];
+    }
+
+    /**
+     * One approximate match: an entity ID, the indexed value and its distance.
+     */
+    public static final class Match {
+        private final String id;
+        private final String value;
+        private final int distance;
+
+        Match(String id, String value, int distance) {
+            this.id = id;
+            this.value = value;
+            this.distance = distance;
+        }
+
+        public String getId() {
+            return id;
+        }
+
+        /**
+         * Gets the normalized indexed value that matched.
+         * @return The value
+         */
+        public String getValue() {
+            return value;
+        }
+
+        public int getDistance() {
+            return distance;
+        }
+    }
+
+    private static final class Node {
+        private final String key;
+        private final Set<String> ids;
+        private final Map<Integer, Node> children;
+        private int maxEdge;
+
+        private Node(String key) {
+            this.key = key;
+            this.ids = new LinkedHashSet<>(2);
+            this.children = new HashMap<>(4);
+        }
+    }
+}
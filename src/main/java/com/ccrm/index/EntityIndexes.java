@@ -0,0 +1,364 @@
+package com.ccrm.index;
+
+import com.ccrm.interfaces.FieldIndex;
+import com.ccrm.interfaces.Searchable.SearchOperator;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.function.Function;
+import java.util.function.IntUnaryOperator;
+import java.util.function.Supplier;
+import java.util.function.ToDoubleFunction;
+
+/**
+ * The secondary indexes of one entity type, kept in step as a group.
+ * @param <T> The type of entities being indexed
+ */
+public class EntityIndexes<T> {
+    private final Function<T, String> idOf;
+    private final List<FieldIndex<T>> indexes;
+    private final Map<String, TokenIndex<T>> tokenIndexes;
+    private final Map<String, TrigramIndex<T>> trigramIndexes;
+    private final Map<String, SortedKeyIndex<T>> sortedIndexes;
+    private final Map<String, RangeIndex<T>> rangeIndexes;
+    private final Map<String, ValueIndex<T>> valueIndexes;
+    private final Map<String, BKTreeIndex<T>> fuzzyIndexes;
+
+    public EntityIndexes(Function<T, String> idOf) {
+        this.idOf = idOf;
+        this.indexes = new CopyOnWriteArrayList<>();
+        this.tokenIndexes = new ConcurrentHashMap<>();
+        this.trigramIndexes = new ConcurrentHashMap<>();
+        this.sortedIndexes = new ConcurrentHashMap<>();
+        this.rangeIndexes = new ConcurrentHashMap<>();
+        this.valueIndexes = new ConcurrentHashMap<>();
+        this.fuzzyIndexes = new ConcurrentHashMap<>();
+    }
+
+    /**
+     * Adds a full-text token index on a field.
+     * @param field Canonical field name
+     * @param extractor Reads the field's text
+     * @return This group
+     */
+    public EntityIndexes<T> addTokenIndex(String field, Function<T, String> extractor) {
+        TokenIndex<T> index = new TokenIndex<>(field, extractor);
+        tokenIndexes.put(field, index);
+        indexes.add(index);
+        return this;
+    }
+
+    /**
+     * Gets the token index on a field.
+     * @param field Canonical field name
+     * @return The index, or null if the field has none
+     */
+    public TokenIndex<T> getTokenIndex(String field) {
+        return tokenIndexes.get(field);
+    }
+
+    /**
+     * Adds a trigram index for substring search on an identifier-like field.
+     * @param field Canonical field name
+     * @param extractor Reads the field's value
+     * @return This group
+     */
+    public EntityIndexes<T> addTrigramIndex(String field, Function<T, String> extractor) {
+        TrigramIndex<T> index = new TrigramIndex<>(field, extractor);
+        trigramIndexes.put(field, index);
+        indexes.add(index);
+        return this;
+    }
+
+    /**
+     * Gets the trigram index on a field.
+     * @param field Canonical field name
+     * @return The index, or null if the field has none
+     */
+    public TrigramIndex<T> getTrigramIndex(String field) {
+        return trigramIndexes.get(field);
+    }
+
+    /**
+     * Adds a sorted key index for equality, prefix and suffix search on a field.
+     * @param field Canonical field name
+     * @param extractor Reads the field's value
+     * @return This group
+     */
+    public EntityIndexes<T> addSortedIndex(String field, Function<T, String> extractor) {
+        SortedKeyIndex<T> index = new SortedKeyIndex<>(field, extractor);
+        sortedIndexes.put(field, index);
+        indexes.add(index);
+        return this;
+    }
+
+    /**
+     * Gets the sorted key index on a field.
+     * @param field Canonical field name
+     * @return The index, or null if the field has none
+     */
+    public SortedKeyIndex<T> getSortedIndex(String field) {
+        return sortedIndexes.get(field);
+    }
+
+    /**
+     * Adds a range index for numeric comparisons on a field.
+     * @param field Canonical field name
+     * @param extractor Reads the field's value
+     * @return This group
+     */
+    public EntityIndexes<T> addRangeIndex(String field, ToDoubleFunction<T> extractor) {
+        RangeIndex<T> index = new RangeIndex<>(field, extractor);
+        rangeIndexes.put(field, index);
+        indexes.add(index);
+        return this;
+    }
+
+    /**
+     * Gets the range index on a field.
+     * @param field Canonical field name
+     * @return The index, or null if the field has none
+     */
+    public RangeIndex<T> getRangeIndex(String field) {
+        return rangeIndexes.get(field);
+    }
+
+    /**
+     * Adds a hash index for equality search on a low-cardinality field.
+     * @param field Canonical field name
+     * @param extractor Reads the field's value
+     * @return This group
+     */
+    public EntityIndexes<T> addValueIndex(String field, Function<T, String> extractor) {
+        ValueIndex<T> index = new ValueIndex<>(field, extractor);
+        valueIndexes.put(field, index);
+        indexes.add(index);
+        return this;
+    }
+
+    /**
+     * Gets the value index on a field.
+     * @param field Canonical field name
+     * @return The index, or null if the field has none
+     */
+    public ValueIndex<T> getValueIndex(String field) {
+        return valueIndexes.get(field);
+    }
+
+    /**
+     * Adds a BK-tree index for approximate, edit-distance search on a field.
+     * @param field Canonical field name
+     * @param extractor Reads the field's value
+     * @return This group
+     */
+    public EntityIndexes<T> addFuzzyIndex(String field, Function<T, String> extractor) {
+        BKTreeIndex<T> index = new BKTreeIndex<>(field, extractor);
+        fuzzyIndexes.put(field, index);
+        indexes.add(index);
+        return this;
+    }
+
+    /**
+     * Gets the fuzzy index on a field.
+     * @param field Canonical field name
+     * @return The index, or null if the field has none
+     */
+    public BKTreeIndex<T> getFuzzyIndex(String field) {
+        return fuzzyIndexes.get(field);
+    }
+
+    /**
+     * Narrows a search criterion to candidates using the field's indexes.
+     * @param field Canonical field name, or null
+     * @param operator The search operator
+     * @param value The search value
+     * @return Candidate IDs to verify, or null if no index applies and the caller must scan
+     */
+    public Set<String> candidates(String field, SearchOperator operator, String value) {
+        Lookup lookup = lookup(field, operator, value);
+        return lookup != null ? lookup.fetch.get() : null;
+    }
+
+    /**
+     * Estimates how many candidates {@link #candidates} would return, without
+     * collecting them. Counting stops at the cap, so estimating a criterion
+     * that is less selective than one already found costs little.
+     * @param field Canonical field name, or null
+     * @param operator The search operator
+     * @param value The search value
+     * @param cap Estimate at which to stop counting
+     * @return Estimated candidates, at most cap, or -1 if no index applies
+     */
+    public int estimate(String field, SearchOperator operator, String value, int cap) {
+        Lookup lookup = lookup(field, operator, value);
+        return lookup != null ? Math.min(lookup.estimate.applyAsInt(cap), cap) : -1;
+    }
+
+    /**
+     * Chooses the index that answers a criterion on a field.
+     * @return The index lookup, or null if no index applies
+     */
+    private Lookup lookup(String field, SearchOperator operator, String value) {
+        if (field == null || value == null) {
+            return null;
+        }
+        if (operator == SearchOperator.CONTAINS) {
+            return substringLookup(field, value);
+        }
+        ValueIndex<T> values = valueIndexes.get(field);
+        if (values != null && operator == SearchOperator.EQUALS) {
+            return new Lookup(cap -> values.count(value), () -> values.equalTo(value));
+        }
+        RangeIndex<T> range = rangeIndexes.get(field);
+        if (range != null && operator != SearchOperator.STARTS_WITH && operator != SearchOperator.ENDS_WITH) {
+            return rangeLookup(range, operator, value);
+        }
+        SortedKeyIndex<T> sorted = sortedIndexes.get(field);
+        // An empty prefix or suffix matches everything; scanning is cheaper
+        if (sorted == null || (value.isEmpty() && operator != SearchOperator.EQUALS)) {
+            return null;
+        }
+        switch (operator) {
+            case EQUALS:
+                return new Lookup(cap -> sorted.countEqualTo(value), () -> sorted.equalTo(value));
+            case STARTS_WITH:
+                return new Lookup(cap -> sorted.countWithPrefix(value, cap), () -> sorted.withPrefix(value));
+            case ENDS_WITH:
+                return new Lookup(cap -> sorted.countWithSuffix(value, cap), () -> sorted.withSuffix(value));
+            default:
+                return null;
+        }
+    }
+
+    private static <T> Lookup rangeLookup(RangeIndex<T> range, SearchOperator operator, String value) {
+        double bound;
+        try {
+            bound = Double.parseDouble(value);
+        } catch (NumberFormatException e) {
+            // A non-numeric bound never compares; equality still falls back to text
+            return operator == SearchOperator.EQUALS ? null : new Lookup(cap -> 0, HashSet::new);
+        }
+        switch (operator) {
+            case EQUALS:
+                return new Lookup(cap -> range.countEqualTo(bound), () -> range.equalTo(bound));
+            case GREATER_THAN:
+                return new Lookup(cap -> range.countGreaterThan(bound, cap), () -> range.greaterThan(bound));
+            case LESS_THAN:
+                return new Lookup(cap -> range.countLessThan(bound, cap), () -> range.lessThan(bound));
+            default:
+                return null;
+        }
+    }
+
+    private Lookup substringLookup(String field, String value) {
+        TrigramIndex<T> trigrams = trigramIndexes.get(field);
+        if (trigrams != null && value.length() >= TrigramIndex.GRAM_LENGTH) {
+            return new Lookup(cap -> trigrams.estimate(value), () -> trigrams.candidates(value));
+        }
+        TokenIndex<T> tokens = tokenIndexes.get(field);
+        Set<String> ids = tokens != null ? tokens.candidatesForSubstring(value) : null;
+        if (ids == null) {
+            return null;
+        }
+        // Token candidates are cheap to collect and have no cheaper estimate
+        return new Lookup(cap -> ids.size(), () -> ids);
+    }
+
+    /**
+     * Narrows a case-insensitive substring query on a field to candidates,
+     * using the field's trigram index, or its token index for patterns too
+     * short for trigrams.
+     * @param field Canonical field name, or null
+     * @param value The substring to find
+     * @return Candidate IDs to verify, or null if no index applies and the caller must scan
+     */
+    public Set<String> substringCandidates(String field, String value) {
+        Lookup lookup = field != null && value != null ? substringLookup(field, value) : null;
+        return lookup != null ? lookup.fetch.get() : null;
+    }
+
+    /**
+     * Finds entities whose indexed words match keyword terms. A term matches
+     * when any of the given fields has a word starting with it.
+     * @param query Whitespace- or punctuation-separated terms
+     * @param matchAll true to require every term (AND), false for any term (OR)
+     * @param fields Canonical names of token-indexed fields to search
+     * @return Matching IDs; empty if the query has no terms
+     */
+    public Set<String> searchKeywords(String query, boolean matchAll, String... fields) {
+        Set<String> result = null;
+        for (String term : TokenIndex.tokenize(query)) {
+            Set<String> termIds = new HashSet<>();
+            for (String field : fields) {
+                termIds.addAll(tokenIndexes.get(field).withPrefix(term));
+            }
+            if (result == null) {
+                result = termIds;
+            } else if (matchAll) {
+                result = TokenIndex.intersect(result, termIds);
+            } else {
+                result.addAll(termIds);
+            }
+            if (matchAll && result.isEmpty()) {
+                break;
+            }
+        }
+        return result != null ? result : new HashSet<>();
+    }
+
+    /**
+     * Gets the ID of an entity.
+     * @param entity The entity
+     * @return The entity ID
+     */
+    public String idOf(T entity) {
+        return idOf.apply(entity);
+    }
+
+    public void index(T entity) {
+        String id = idOf.apply(entity);
+        for (FieldIndex<T> index : indexes) {
+            index.index(id, entity);
+        }
+    }
+
+    public void remove(T entity) {
+        String id = idOf.apply(entity);
+        for (FieldIndex<T> index : indexes) {
+            index.remove(id);
+        }
+    }
+
+    public void clear() {
+        for (FieldIndex<T> index : indexes) {
+            index.clear();
+        }
+    }
+
+    /**
+     * Clears and refills every index from the given entities.
+     * @param entities All current entities
+     */
+    public void rebuild(Iterable<T> entities) {
+        clear();
+        for (T entity : entities) {
+            index(entity);
+        }
+    }
+
+    /**
+     * How one index answers one criterion: a cheap estimate and the candidates.
+     */
+    private static final class Lookup {
+        private final IntUnaryOperator estimate;
+        private final Supplier<Set<String>> fetch;
+
+        private Lookup(IntUnaryOperator estimate, Supplier<Set<String>> fetch) {
+            this.estimate = estimate;
+            this.fetch = fetch;
+        }
+    }
+}
@@ -0,0 +1,141 @@
+package com.ccrm.index;
+
+import com.ccrm.core.DataStore;
+import com.ccrm.enums.ChangeType;
+import com.ccrm.interfaces.DataChangeListener;
+import com.ccrm.model.Course;
+import com.ccrm.model.Enrollment;
+import com.ccrm.model.Student;
+
+/**
+ * Singleton holding the secondary search indexes of all entity types.
+ * Registers itself as a DataStore listener, so indexes follow every add,
+ * update and remove. Enrollment indexes cover resident enrollments only,
+ * not archived history that is loaded on demand. Demonstrates the
+ * Observer pattern for derived data.
+ */
+public class IndexRegistry implements DataChangeListener {
+    private static volatile IndexRegistry instance;
+    private static final Object lock = new Object();
+
+    private final EntityIndexes<Student> studentIndexes;
+    private final EntityIndexes<Course> courseIndexes;
+    private final EntityIndexes<Enrollment> enrollmentIndexes;
+
+    private IndexRegistry() {
+        this.studentIndexes = new EntityIndexes<Student>(Student::getId)
+                .addTokenIndex("name", Student::getFullName)
+                .addTokenIndex("email", Student::getEmail)
+                .addTrigramIndex("id", Student::getId)
+                .addTrigramIndex("regno", Student::getRegistrationNumber)
+                .addTrigramIndex("email", Student::getEmail)
+                .addSortedIndex("id", Student::getId)
+                .addSortedIndex("regno", Student::getRegistrationNumber)
+                .addSortedIndex("name", Student::getFullName)
+                .addSortedIndex("email", Student::getEmail)
+                .addRangeIndex("gpa", Student::getCurrentGPA)
+                .addValueIndex("active", student -> String.valueOf(student.isActive()))
+                .addValueIndex("department", student -> 
+                        student.getDepartment() != null ? student.getDepartment().name() : null)
+                .addFuzzyIndex("name", Student::getFullName);
+        this.courseIndexes = new EntityIndexes<Course>(Course::getCourseId)
+                .addTokenIndex("title", Course::getTitle)
+                .addTokenIndex("description", Course::getDescription)
+                .addTrigramIndex("id", Course::getCourseId)
+                .addTrigramIndex("code", Course::getCourseCode)
+                .addTrigramIndex("instructor", Course::getInstructorId)
+                .addSortedIndex("id", Course::getCourseId)
+                .addSortedIndex("code", Course::getCourseCode)
+                .addSortedIndex("title", Course::getTitle)
+                .addSortedIndex("description", Course::getDescription)
+                .addSortedIndex("instructor", Course::getInstructorId)
+                .addSortedIndex("department", course -> course.getDepartment().name())
+                .addSortedIndex("semester", course -> course.getSemester().name())
+                .addRangeIndex("credits", Course::getCreditHours)
+                .addValueIndex("department", course -> course.getDepartment().name())
+                .addValueIndex("semester", course -> course.getSemester().name())
+                .addValueIndex("active", course -> String.valueOf(course.isActive()));
+        this.enrollmentIndexes = new EntityIndexes<Enrollment>(Enrollment::getEnrollmentId)
+                .addTrigramIndex("id", Enrollment::getEnrollmentId)
+                .addTrigramIndex("student", Enrollment::getStudentId)
+                .addTrigramIndex("course", Enrollment::getCourseId)
+                .addSortedIndex("id", Enrollment::getEnrollmentId)
+                .addSortedIndex("student", Enrollment::getStudentId)
+                .addSortedIndex("course", Enrollment::getCourseId)
+                .addSortedIndex("grade", enrollment -> 
+                        enrollment.getLetterGrade() != null ? enrollment.getLetterGrade().name() : null)
+                .addRangeIndex("numericgrade", Enrollment::getNumericGrade)
+                .addValueIndex("grade", enrollment -> 
+                        enrollment.getLetterGrade() != null ? enrollment.getLetterGrade().name() : null)
+                .addValueIndex("active", enrollment -> String.valueOf(enrollment.isActive()))
+                .addValueIndex("completed", enrollment -> String.valueOf(enrollment.isCompleted()));
+    }
+
+    /**
+     * Gets the registry, building the indexes from the store on first use.
+     * @return The singleton IndexRegistry instance
+     */
+    public static IndexRegistry getInstance() {
+        if (instance == null) {
+            synchronized (lock) {
+                if (instance == null) {
+                    IndexRegistry registry = new IndexRegistry();
+                    DataStore dataStore = DataStore.getInstance();
+                    // Listen first so no change is missed while rebuilding; indexing is idempotent
+                    dataStore.addChangeListener(registry);
+                    registry.studentIndexes.rebuild(dataStore.getStudentsView());
+                    registry.courseIndexes.rebuild(dataStore.getCoursesView());
+                    registry.enrollmentIndexes.rebuild(dataStore.getEnrollmentsView());
+                    instance = registry;
+                }
+            }
+        }
+        return instance;
+    }
+
+    public EntityIndexes<Student> getStudentIndexes() {
+        return studentIndexes;
+    }
+
+    public EntityIndexes<Course> getCourseIndexes() {
+        return courseIndexes;
+    }
+
+    public EntityIndexes<Enrollment> getEnrollmentIndexes() {
+        return enrollmentIndexes;
+    }
+
+    @Override
+    public void onStudentChanged(Student student, ChangeType changeType) {
+        if (changeType == ChangeType.REMOVED) {
+            studentIndexes.remove(student);
+        } else {
+            studentIndexes.index(student);
+        }
+    }
+
+    @Override
+    public void onCourseChanged(Course course, ChangeType changeType) {
+        if (changeType == ChangeType.REMOVED) {
+            courseIndexes.remove(course);
+        } else {
+            courseIndexes.index(course);
+        }
+    }
+
+    @Override
+    public void onEnrollmentChanged(Enrollment enrollment, ChangeType changeType) {
+        if (changeType == ChangeType.REMOVED) {
+            enrollmentIndexes.remove(enrollment);
+        } else {
+            enrollmentIndexes.index(enrollment);
+        }
+    }
+
+    @Override
+    public void onDataCleared() {
+        studentIndexes.clear();
+        courseIndexes.clear();
+        enrollmentIndexes.clear();
+    }
+}
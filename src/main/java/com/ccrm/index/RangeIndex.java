@@ -0,0 +1,170 @@
+package com.ccrm.index;
+
+import com.ccrm.interfaces.FieldIndex;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.function.ToDoubleFunction;
+
+/**
+ * Sorted index of a numeric field for range queries.
+ * Values are kept as doubles in a skip list, so each query costs
+ * O(log n + k) for k matching entities and never formats or parses strings.
+ * @param <T> The type of entities being indexed
+ */
+public class RangeIndex<T> implements FieldIndex<T> {
+    private final String field;
+    private final ToDoubleFunction<T> extractor;
+    private final ConcurrentSkipListMap<Double, Set<String>> byValue;
+    private final Map<String, Double> valueById;
+
+    /**
+     * Creates a range index.
+     * @param field Canonical field name
+     * @param extractor Reads the field's value
+     */
+    public RangeIndex(String field, ToDoubleFunction<T> extractor) {
+        this.field = field;
+        this.extractor = extractor;
+        this.byValue = new ConcurrentSkipListMap<>();
+        this.valueById = new ConcurrentHashMap<>();
+    }
+
+    @Override
+    public String getField() {
+        return field;
+    }
+
+    @Override
+    public void index(String id, T entity) {
+        Double value = extractor.applyAsDouble(entity);
+        Double previous = valueById.put(id, value);
+        if (value.equals(previous)) {
+            return;
+        }
+        if (previous != null) {
+            removeEntry(previous, id);
+        }
+        byValue.compute(value, (k, ids) -> {
+            Set<String> result = ids != null ? ids : ConcurrentHashMap.newKeySet();
+            result.add(id);
+            return result;
+        });
+    }
+
+    @Override
+    public void remove(String id) {
+        Double previous = valueById.remove(id);
+        if (previous != null) {
+            removeEntry(previous, id);
+        }
+    }
+
+    @Override
+    public void clear() {
+        byValue.clear();
+        valueById.clear();
+    }
+
+    private void removeEntry(Double value, String id) {
+        byValue.computeIfPresent(value, (k, ids) -> {
+            ids.remove(id);
+            return ids.isEmpty() ? null : ids;
+        });
+    }
+
+    /**
+     * Gets the IDs of entities whose value equals a value.
+     * @param value The value
+     * @return Matching IDs
+     */
+    public Set<String> equalTo(double value) {
+        Set<String> ids = byValue.get(value);
+        return ids != null ? new HashSet<>(ids) : new HashSet<>();
+    }
+
+    /**
+     * Gets the IDs of entities whose value is strictly greater than a bound.
+     * @param bound The lower bound, exclusive
+     * @return Matching IDs
+     */
+    public Set<String> greaterThan(double bound) {
+        return Double.isNaN(bound) ? new HashSet<>() : collect(byValue.tailMap(bound, false));
+    }
+
+    /**
+     * Gets the IDs of entities whose value is strictly less than a bound.
+     * @param bound The upper bound, exclusive
+     * @return Matching IDs
+     */
+    public Set<String> lessThan(double bound) {
+        return Double.isNaN(bound) ? new HashSet<>() : collect(byValue.headMap(bound, false));
+    }
+
+    /**
+     * Gets the IDs of entities whose value lies within a range.
+     * @param low The lower bound
+     * @param lowInclusive Whether the lower bound matches
+     * @param high The upper bound
+     * @param highInclusive Whether the upper bound matches
+     * @return Matching IDs
+     */
+    public Set<String> between(double low, boolean lowInclusive, double high, boolean highInclusive) {
+        if (Double.isNaN(low) || Double.isNaN(high) || low > high) {
+            return new HashSet<>();
+        }
+        return collect(byValue.subMap(low, lowInclusive, high, highInclusive));
+    }
+
+    /**
+     * Counts entities whose value equals a value.
+     * @param value The value
+     * @return Number of matching entities
+     */
+    public int countEqualTo(double value) {
+        Set<String> ids = byValue.get(value);
+        return ids != null ? ids.size() : 0;
+    }
+
+    /**
+     * Counts entities whose value is strictly greater than a bound, stopping at a cap.
+     * @param bound The lower bound, exclusive
+     * @param cap Count at which to stop
+     * @return Number of matching entities, at most cap
+     */
+    public int countGreaterThan(double bound, int cap) {
+        return Double.isNaN(bound) ? 0 : count(byValue.tailMap(bound, false), cap);
+    }
+
+    /**
+     * Counts entities whose value is strictly less than a bound, stopping at a cap.
+     * @param bound The upper bound, exclusive
+     * @param cap Count at which to stop
+     * @return Number of matching entities, at most cap
+     */
+    public int countLessThan(double bound, int cap) {
+        return Double.isNaN(bound) ? 0 : count(byValue.headMap(bound, false), cap);
+    }
+
+    private static int count(NavigableMap<Double, Set<String>> range, int cap) {
+        int count = 0;
+        for (Set<String> ids : range.values()) {
+            if (count >= cap) {
+                break;
+            }
+            count += ids.size();
+        }
+        return Math.min(count, cap);
+    }
+
+    private static Set<String> collect(NavigableMap<Double, Set<String>> range) {
+        Set<String> result = new HashSet<>();
+        for (Set<String> ids : range.values()) {
+            result.addAll(ids);
+        }
+        return result;
+    }
+}
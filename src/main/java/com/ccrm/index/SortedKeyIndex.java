@@ -0,0 +1,197 @@
+package com.ccrm.index;
+
+import com.ccrm.interfaces.FieldIndex;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentNavigableMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.function.Function;
+
+/**
+ * Case-folded sorted index of a string field, kept twice: by key for
+ * equality and prefix lookups, and by reversed key for suffix lookups.
+ * Each lookup costs O(log n + k) for k matching keys.
+ * Missing values are indexed as the empty string, as search treats them.
+ * @param <T> The type of entities being indexed
+ */
+public class SortedKeyIndex<T> implements FieldIndex<T> {
+    private final String field;
+    private final Function<T, String> extractor;
+    private final ConcurrentSkipListMap<String, Set<String>> byKey;
+    private final ConcurrentSkipListMap<String, Set<String>> byReversedKey;
+    private final Map<String, String> keyById;
+
+    /**
+     * Creates a sorted key index.
+     * @param field Canonical field name
+     * @param extractor Reads the field's value; may return null
+     */
+    public SortedKeyIndex(String field, Function<T, String> extractor) {
+        this.field = field;
+        this.extractor = extractor;
+        this.byKey = new ConcurrentSkipListMap<>();
+        this.byReversedKey = new ConcurrentSkipListMap<>();
+        this.keyById = new ConcurrentHashMap<>();
+    }
+
+    @Override
+    public String getField() {
+        return field;
+    }
+
+    @Override
+    public void index(String id, T entity) {
+        String key = fold(extractor.apply(entity));
+        String previous = keyById.put(id, key);
+        if (key.equals(previous)) {
+            return;
+        }
+        if (previous != null) {
+            removeEntry(previous, id);
+        }
+        addEntry(byKey, key, id);
+        addEntry(byReversedKey, reverse(key), id);
+    }
+
+    @Override
+    public void remove(String id) {
+        String previous = keyById.remove(id);
+        if (previous != null) {
+            removeEntry(previous, id);
+        }
+    }
+
+    @Override
+    public void clear() {
+        byKey.clear();
+        byReversedKey.clear();
+        keyById.clear();
+    }
+
+    private void removeEntry(String key, String id) {
+        removeEntry(byKey, key, id);
+        removeEntry(byReversedKey, reverse(key), id);
+    }
+
+    private static void addEntry(Map<String, Set<String>> map, String key, String id) {
+        map.compute(key, (k, ids) -> {
+            Set<String> result = ids != null ? ids : ConcurrentHashMap.newKeySet();
+            result.add(id);
+            return result;
+        });
+    }
+
+    private static void removeEntry(Map<String, Set<String>> map, String key, String id) {
+        map.computeIfPresent(key, (k, ids) -> {
+            ids.remove(id);
+            return ids.isEmpty() ? null : ids;
+        });
+    }
+
+    /**
+     * Gets the IDs of entities whose value equals a value, ignoring case.
+     * @param value The value
+     * @return Matching IDs
+     */
+    public Set<String> equalTo(String value) {
+        Set<String> ids = byKey.get(fold(value));
+        return ids != null ? new HashSet<>(ids) : new HashSet<>();
+    }
+
+    /**
+     * Gets the IDs of entities whose value starts with a prefix, ignoring case.
+     * @param prefix The prefix
+     * @return Matching IDs
+     */
+    public Set<String> withPrefix(String prefix) {
+        return withPrefix(prefix, Integer.MAX_VALUE);
+    }
+
+    /**
+     * Gets the first IDs, in key order, of entities whose value starts with a prefix.
+     * @param prefix The prefix
+     * @param limit Maximum number of IDs to return
+     * @return Matching IDs in key order
+     */
+    public Set<String> withPrefix(String prefix, int limit) {
+        return collect(byKey, fold(prefix), limit);
+    }
+
+    /**
+     * Gets the IDs of entities whose value ends with a suffix, ignoring case.
+     * @param suffix The suffix
+     * @return Matching IDs
+     */
+    public Set<String> withSuffix(String suffix) {
+        return collect(byReversedKey, reverse(fold(suffix)), Integer.MAX_VALUE);
+    }
+
+    /**
+     * Counts entities whose value equals a value, ignoring case.
+     * @param value The value
+     * @return Number of matching entities
+     */
+    public int countEqualTo(String value) {
+        Set<String> ids = byKey.get(fold(value));
+        return ids != null ? ids.size() : 0;
+    }
+
+    /**
+     * Counts entities whose value starts with a prefix, stopping at a cap.
+     * @param prefix The prefix
+     * @param cap Count at which to stop
+     * @return Number of matching entities, at most cap
+     */
+    public int countWithPrefix(String prefix, int cap) {
+        return count(byKey, fold(prefix), cap);
+    }
+
+    /**
+     * Counts entities whose value ends with a suffix, stopping at a cap.
+     * @param suffix The suffix
+     * @param cap Count at which to stop
+     * @return Number of matching entities, at most cap
+     */
+    public int countWithSuffix(String suffix, int cap) {
+        return count(byReversedKey, reverse(fold(suffix)), cap);
+    }
+
+    private static int count(ConcurrentSkipListMap<String, Set<String>> map, String prefix, int cap) {
+        int count = 0;
+        for (Map.Entry<String, Set<String>> entry : map.tailMap(prefix, true).entrySet()) {
+            if (count >= cap || !entry.getKey().startsWith(prefix)) {
+                break;
+            }
+            count += entry.getValue().size();
+        }
+        return Math.min(count, cap);
+    }
+
+    private static Set<String> collect(ConcurrentSkipListMap<String, Set<String>> map, String prefix, int limit) {
+        Set<String> result = new LinkedHashSet<>();
+        ConcurrentNavigableMap<String, Set<String>> tail = map.tailMap(prefix, true);
+        for (Map.Entry<String, Set<String>> entry : tail.entrySet()) {
+            if (!entry.getKey().startsWith(prefix)) {
+                break;
+            }
+            for (String id : entry.getValue()) {
+                if (result.size() >= limit) {
+                    return result;
+                }
+                result.add(id);
+            }
+        }
+        return result;
+    }
+
+    private static String fold(String value) {
+        return value != null ? value.toLowerCase() : "";
+    }
+
+    private static String reverse(String key) {
+        return new StringBuilder(key).reverse().toString();
+    }
+}
@@ -0,0 +1,252 @@
+package com.ccrm.index;
+
+import com.ccrm.interfaces.FieldIndex;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableSet;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListSet;
+import java.util.function.Function;
+
+/**
+ * Inverted index from lowercase word tokens of a text field to entity IDs.
+ * A sorted token dictionary lets query terms match by prefix as well as exactly.
+ * Demonstrates inverted indexing for full-text search.
+ * @param <T> The type of entities being indexed
+ */
+public class TokenIndex<T> implements FieldIndex<T> {
+    private final String field;
+    private final Function<T, String> extractor;
+    private final Map<String, Set<String>> postings;
+    private final Map<String, String[]> tokensById;
+    private final NavigableSet<String> dictionary;
+
+    /**
+     * Creates a token index.
+     * @param field Canonical field name
+     * @param extractor Reads the field's text; may return null
+     */
+    public TokenIndex(String field, Function<T, String> extractor) {
+        this.field = field;
+        this.extractor = extractor;
+        this.postings = new ConcurrentHashMap<>();
+        this.tokensById = new ConcurrentHashMap<>();
+        this.dictionary = new ConcurrentSkipListSet<>();
+    }
+
+    @Override
+    public String getField() {
+        return field;
+    }
+
+    @Override
+    public void index(String id, T entity) {
+        String[] tokens = tokenize(extractor.apply(entity));
+        String[] previous = tokensById.put(id, tokens);
+        if (previous != null) {
+            Set<String> current = new HashSet<>();
+            Collections.addAll(current, tokens);
+            for (String token : previous) {
+                if (!current.contains(token)) {
+                    removePosting(token, id);
+                }
+            }
+        }
+        for (String token : tokens) {
+            addPosting(token, id);
+        }
+    }
+
+    @Override
+    public void remove(String id) {
+        String[] previous = tokensById.remove(id);
+        if (previous != null) {
+            for (String token : previous) {
+                removePosting(token, id);
+            }
+        }
+    }
+
+    @Override
+    public void clear() {
+        postings.clear();
+        tokensById.clear();
+        dictionary.clear();
+    }
+
+    private void addPosting(String token, String id) {
+        postings.compute(token, (k, ids) -> {
+            Set<String> result = ids;
+            if (result == null) {
+                result = ConcurrentHashMap.newKeySet();
+                dictionary.add(token);
+            }
+            result.add(id);
+            return result;
+        });
+    }
+
+    private void removePosting(String token, String id) {
+        postings.computeIfPresent(token, (k, ids) -> {
+            ids.remove(id);
+            if (ids.isEmpty()) {
+                dictionary.remove(token);
+                return null;
+            }
+            return ids;
+        });
+    }
+
+    /**
+     * Gets the IDs of entities containing a token exactly.
+     * @param token Lowercase token
+     * @return Matching IDs
+     */
+    public Set<String> exact(String token) {
+        Set<String> ids = postings.get(token);
+        return ids != null ? new HashSet<>(ids) : new HashSet<>();
+    }
+
+    /**
+     * Gets the IDs of entities with a token starting with a prefix.
+     * @param prefix Lowercase prefix
+     * @return Matching IDs
+     */
+    public Set<String> withPrefix(String prefix) {
+        return union(dictionary.subSet(prefix, true, prefix + Character.MAX_VALUE, false));
+    }
+
+    /**
+     * Gets the IDs of entities with a token ending with a suffix.
+     * @param suffix Lowercase suffix
+     * @return Matching IDs
+     */
+    public Set<String> withSuffix(String suffix) {
+        List<String> tokens = new ArrayList<>();
+        for (String token : dictionary) {
+            if (token.endsWith(suffix)) {
+                tokens.add(token);
+            }
+        }
+        return union(tokens);
+    }
+
+    /**
+     * Gets the IDs of entities with a token containing a fragment.
+     * Scans the token dictionary, which is far smaller than the entity set.
+     * @param fragment Lowercase fragment
+     * @return Matching IDs
+     */
+    public Set<String> withInfix(String fragment) {
+        List<String> tokens = new ArrayList<>();
+        for (String token : dictionary) {
+            if (token.contains(fragment)) {
+                tokens.add(token);
+            }
+        }
+        return union(tokens);
+    }
+
+    private Set<String> union(Iterable<String> tokens) {
+        Set<String> result = new HashSet<>();
+        for (String token : tokens) {
+            Set<String> ids = postings.get(token);
+            if (ids != null) {
+                result.addAll(ids);
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Narrows a case-insensitive substring query on the field to candidates.
+     * Inner query words must be whole tokens; the first may end a token and
+     * the last may start one. Callers verify candidates against the field.
+     * @param query The substring to find
+     * @return Candidate IDs, a superset of the matches, or null if the query
+     *         has no word characters and cannot use the index
+     */
+    public Set<String> candidatesForSubstring(String query) {
+        List<String> terms = terms(query);
+        if (terms.isEmpty()) {
+            return null;
+        }
+        boolean startsInWord = Character.isLetterOrDigit(query.charAt(0));
+        boolean endsInWord = Character.isLetterOrDigit(query.charAt(query.length() - 1));
+        Set<String> candidates = null;
+        for (int i = 0; i < terms.size(); i++) {
+            boolean leftOpen = i == 0 && startsInWord;
+            boolean rightOpen = i == terms.size() - 1 && endsInWord;
+            String term = terms.get(i);
+            Set<String> ids;
+            if (leftOpen && rightOpen) {
+                ids = withInfix(term);
+            } else if (leftOpen) {
+                ids = withSuffix(term);
+            } else if (rightOpen) {
+                ids = withPrefix(term);
+            } else {
+                ids = exact(term);
+            }
+            candidates = intersect(candidates, ids);
+            if (candidates.isEmpty()) {
+                break;
+            }
+        }
+        return candidates;
+    }
+
+    /**
+     * Intersects a running candidate set with another set; null means "all".
+     * @param candidates The running set, or null
+     * @param ids The set to intersect with
+     * @return The intersection
+     */
+    static Set<String> intersect(Set<String> candidates, Set<String> ids) {
+        if (candidates == null) {
+            return ids;
+        }
+        Set<String> smaller = candidates.size() <= ids.size() ? candidates : ids;
+        Set<String> larger = smaller == candidates ? ids : candidates;
+        smaller.retainAll(larger);
+        return smaller;
+    }
+
+    /**
+     * Splits text into distinct lowercase tokens of letters and digits.
+     * @param text The text, may be null
+     * @return The tokens
+     */
+    public static String[] tokenize(String text) {
+        return new LinkedHashSet<>(terms(text)).toArray(new String[0]);
+    }
+
+    /**
+     * Splits text into lowercase tokens of letters and digits, in order.
+     * @param text The text, may be null
+     * @return The tokens, possibly repeated
+     */
+    public static List<String> terms(String text) {
+        List<String> terms = new ArrayList<>();
+        if (text == null) {
+            return terms;
+        }
+        String lower = text.toLowerCase();
+        int start = -1;
+        for (int i = 0; i <= lower.length(); i++) {
+            boolean wordChar = i < lower.length() && Character.isLetterOrDigit(lower.charAt(i));
+            if (wordChar && start < 0) {
+                start = i;
+            } else if (!wordChar && start >= 0) {
+                terms.add(lower.substring(start, i));
+                start = -1;
+            }
+        }
+        return terms;
+    }
+}
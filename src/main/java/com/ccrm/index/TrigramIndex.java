@@ -0,0 +1,157 @@
+package com.ccrm.index;
+
+import com.ccrm.interfaces.FieldIndex;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Function;
+
+/**
+ * Index from every three-character substring of a field to entity IDs.
+ * Any substring of three or more characters occurs only in values that
+ * contain all of its trigrams, so intersecting their postings gives a small
+ * candidate set for CONTAINS queries on identifier-like fields.
+ * @param <T> The type of entities being indexed
+ */
+public class TrigramIndex<T> implements FieldIndex<T> {
+    public static final int GRAM_LENGTH = 3;
+
+    private final String field;
+    private final Function<T, String> extractor;
+    private final Map<String, Set<String>> postings;
+    private final Map<String, String[]> gramsById;
+
+    /**
+     * Creates a trigram index.
+     * @param field Canonical field name
+     * @param extractor Reads the field's value; may return null
+     */
+    public TrigramIndex(String field, Function<T, String> extractor) {
+        this.field = field;
+        this.extractor = extractor;
+        this.postings = new ConcurrentHashMap<>();
+        this.gramsById = new ConcurrentHashMap<>();
+    }
+
+    @Override
+    public String getField() {
+        return field;
+    }
+
+    @Override
+    public void index(String id, T entity) {
+        String[] grams = grams(extractor.apply(entity));
+        String[] previous = gramsById.put(id, grams);
+        if (previous != null) {
+            Set<String> current = new HashSet<>();
+            Collections.addAll(current, grams);
+            for (String gram : previous) {
+                if (!current.contains(gram)) {
+                    removePosting(gram, id);
+                }
+            }
+        }
+        for (String gram : grams) {
+            addPosting(gram, id);
+        }
+    }
+
+    @Override
+    public void remove(String id) {
+        String[] previous = gramsById.remove(id);
+        if (previous != null) {
+            for (String gram : previous) {
+                removePosting(gram, id);
+            }
+        }
+    }
+
+    @Override
+    public void clear() {
+        postings.clear();
+        gramsById.clear();
+    }
+
+    private void addPosting(String gram, String id) {
+        // Add inside the atomic section so a concurrent remove cannot unmap the set first
+        postings.compute(gram, (k, ids) -> {
+            Set<String> result = ids != null ? ids : ConcurrentHashMap.newKeySet();
+            result.add(id);
+            return result;
+        });
+    }
+
+    private void removePosting(String gram, String id) {
+        postings.computeIfPresent(gram, (k, ids) -> {
+            ids.remove(id);
+            return ids.isEmpty() ? null : ids;
+        });
+    }
+
+    /**
+     * Narrows a case-insensitive CONTAINS query to candidates by intersecting
+     * the postings of the pattern's trigrams, smallest first.
+     * @param pattern The substring to find
+     * @return Candidate IDs, a superset of the matches, or null if the pattern
+     *         is shorter than a trigram and the caller must scan
+     */
+    public Set<String> candidates(String pattern) {
+        if (pattern == null || pattern.length() < GRAM_LENGTH) {
+            return null;
+        }
+        List<Set<String>> lists = new ArrayList<>();
+        for (String gram : grams(pattern)) {
+            Set<String> ids = postings.get(gram);
+            if (ids == null) {
+                return new HashSet<>();
+            }
+            lists.add(ids);
+        }
+        lists.sort((a, b) -> Integer.compare(a.size(), b.size()));
+        Set<String> result = new HashSet<>(lists.get(0));
+        for (int i = 1; i < lists.size() && !result.isEmpty(); i++) {
+            result.retainAll(lists.get(i));
+        }
+        return result;
+    }
+
+    /**
+     * Estimates the number of candidates for a CONTAINS query as the size of
+     * the shortest posting list among the pattern's trigrams.
+     * @param pattern The substring to find
+     * @return Upper bound on the candidates, or -1 if the pattern is shorter than a trigram
+     */
+    public int estimate(String pattern) {
+        if (pattern == null || pattern.length() < GRAM_LENGTH) {
+            return -1;
+        }
+        int smallest = Integer.MAX_VALUE;
+        for (String gram : grams(pattern)) {
+            Set<String> ids = postings.get(gram);
+            smallest = Math.min(smallest, ids != null ? ids.size() : 0);
+        }
+        return smallest;
+    }
+
+    /**
+     * Gets the distinct lowercase trigrams of a value.
+     * @param value The value, may be null
+     * @return The trigrams; empty for values shorter than three characters
+     */
+    static String[] grams(String value) {
+        if (value == null || value.length() < GRAM_LENGTH) {
+            return new String[0];
+        }
+        String lower = value.toLowerCase();
+        Set<String> grams = new LinkedHashSet<>();
+        for (int i = 0; i + GRAM_LENGTH <= lower.length(); i++) {
+            grams.add(lower.substring(i, i + GRAM_LENGTH));
+        }
+        return grams.toArray(new String[0]);
+    }
+}
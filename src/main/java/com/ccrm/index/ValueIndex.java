@@ -0,0 +1,99 @@
+package com.ccrm.index;
+
+import com.ccrm.interfaces.FieldIndex;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Function;
+
+/**
+ * Hash index of a low-cardinality field such as an enum or a flag.
+ * Values are case-folded; equality lookups and counts cost O(1).
+ * @param <T> The type of entities being indexed
+ */
+public class ValueIndex<T> implements FieldIndex<T> {
+    private final String field;
+    private final Function<T, String> extractor;
+    private final Map<String, Set<String>> idsByValue;
+    private final Map<String, String> valueById;
+
+    /**
+     * Creates a value index.
+     * @param field Canonical field name
+     * @param extractor Reads the field's value; may return null
+     */
+    public ValueIndex(String field, Function<T, String> extractor) {
+        this.field = field;
+        this.extractor = extractor;
+        this.idsByValue = new ConcurrentHashMap<>();
+        this.valueById = new ConcurrentHashMap<>();
+    }
+
+    @Override
+    public String getField() {
+        return field;
+    }
+
+    @Override
+    public void index(String id, T entity) {
+        String value = fold(extractor.apply(entity));
+        String previous = valueById.put(id, value);
+        if (value.equals(previous)) {
+            return;
+        }
+        if (previous != null) {
+            removeEntry(previous, id);
+        }
+        idsByValue.compute(value, (k, ids) -> {
+            Set<String> result = ids != null ? ids : ConcurrentHashMap.newKeySet();
+            result.add(id);
+            return result;
+        });
+    }
+
+    @Override
+    public void remove(String id) {
+        String previous = valueById.remove(id);
+        if (previous != null) {
+            removeEntry(previous, id);
+        }
+    }
+
+    @Override
+    public void clear() {
+        idsByValue.clear();
+        valueById.clear();
+    }
+
+    private void removeEntry(String value, String id) {
+        idsByValue.computeIfPresent(value, (k, ids) -> {
+            ids.remove(id);
+            return ids.isEmpty() ? null : ids;
+        });
+    }
+
+    /**
+     * Gets the IDs of entities whose value equals a value, ignoring case.
+     * @param value The value
+     * @return Matching IDs
+     */
+    public Set<String> equalTo(String value) {
+        Set<String> ids = idsByValue.get(fold(value));
+        return ids != null ? new HashSet<>(ids) : new HashSet<>();
+    }
+
+    /**
+     * Counts entities whose value equals a value, ignoring case.
+     * @param value The value
+     * @return Number of matching entities
+     */
+    public int count(String value) {
+        Set<String> ids = idsByValue.get(fold(value));
+        return ids != null ? ids.size() : 0;
+    }
+
+    private static String fold(String value) {
+        return value != null ? value.toLowerCase() : "";
+    }
+}
@@ -0,0 +1,49 @@
+package com.ccrm.interfaces;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+
+/**
+ * Interface for streaming compression codecs used by exports and backups.
+ * Implementations must recognise their own output from its leading bytes
+ * so compressed files named with their extension can be detected
+ * automatically on read.
+ */
+public interface CompressionCodec {
+    /**
+     * Gets the codec name used in configuration and prompts.
+     * @return The codec name
+     */
+    String getName();
+
+    /**
+     * Gets the file extension appended to compressed files.
+     * @return The extension including the dot, or empty for no compression
+     */
+    String getFileExtension();
+
+    /**
+     * Wraps an output stream so that written bytes are compressed.
+     * @param out The raw output stream
+     * @return A compressing stream; closing it closes {@code out}
+     * @throws IOException if the stream cannot be created
+     */
+    OutputStream compress(OutputStream out) throws IOException;
+
+    /**
+     * Wraps an input stream so that read bytes are decompressed.
+     * @param in The raw input stream
+     * @return A decompressing stream; closing it closes {@code in}
+     * @throws IOException if the stream header is invalid
+     */
+    InputStream decompress(InputStream in) throws IOException;
+
+    /**
+     * Checks whether the leading bytes of a file were written by this codec.
+     * @param header The first bytes of the file
+     * @param length Number of valid bytes in {@code header}
+     * @return true if this codec can decompress the file
+     */
+    boolean matches(byte[] header, int length);
+}
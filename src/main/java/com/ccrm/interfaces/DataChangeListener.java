@@ -0,0 +1,53 @@
+package com.ccrm.interfaces;
+
+import com.ccrm.enums.ChangeType;
+import com.ccrm.model.Course;
+import com.ccrm.model.Enrollment;
+import com.ccrm.model.Instructor;
+import com.ccrm.model.Student;
+
+/**
+ * Interface for components that react to DataStore mutations.
+ * Demonstrates the Observer pattern with default interface methods,
+ * so listeners only override the notifications they care about.
+ * Callbacks run on the mutating thread and should return quickly.
+ */
+public interface DataChangeListener {
+    /**
+     * Called after a student is added, updated or removed.
+     * @param student The affected student
+     * @param changeType The kind of change
+     */
+    default void onStudentChanged(Student student, ChangeType changeType) {
+    }
+
+    /**
+     * Called after an instructor is added, updated or removed.
+     * @param instructor The affected instructor
+     * @param changeType The kind of change
+     */
+    default void onInstructorChanged(Instructor instructor, ChangeType changeType) {
+    }
+
+    /**
+     * Called after a course is added, updated or removed.
+     * @param course The affected course
+     * @param changeType The kind of change
+     */
+    default void onCourseChanged(Course course, ChangeType changeType) {
+    }
+
+    /**
+     * Called after an enrollment is added, updated or removed.
+     * @param enrollment The affected enrollment
+     * @param changeType The kind of change
+     */
+    default void onEnrollmentChanged(Enrollment enrollment, ChangeType changeType) {
+    }
+
+    /**
+     * Called after all data has been cleared from the store.
+     */
+    default void onDataCleared() {
+    }
+}
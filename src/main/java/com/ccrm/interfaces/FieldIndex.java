@@ -0,0 +1,33 @@
+package com.ccrm.interfaces;
+
+/**
+ * Interface for secondary indexes over one field of an entity type.
+ * Implementations remember what they indexed per entity ID, so an entity
+ * that was modified in place can be re-indexed without its old value.
+ * @param <T> The type of entities being indexed
+ */
+public interface FieldIndex<T> {
+    /**
+     * Gets the canonical name of the indexed field.
+     * @return The field name
+     */
+    String getField();
+
+    /**
+     * Adds an entity to the index, replacing whatever was indexed for its ID.
+     * @param id The entity ID
+     * @param entity The entity
+     */
+    void index(String id, T entity);
+
+    /**
+     * Removes an entity from the index.
+     * @param id The entity ID
+     */
+    void remove(String id);
+
+    /**
+     * Removes all entries from the index.
+     */
+    void clear();
+}
@@ -0,0 +1,15 @@
+package com.ccrm.interfaces;
+
+/**
+ * Interface for callers that follow the progress of a long-running batch.
+ * Demonstrates a functional interface used as a callback.
+ */
+@FunctionalInterface
+public interface ProgressListener {
+    /**
+     * Called after each unit of work completes, on the thread that started the batch.
+     * @param completed Items finished so far
+     * @param total Items in the batch
+     */
+    void onProgress(int completed, int total);
+}
@@ -1,6 +1,9 @@
 package com.ccrm.interfaces;
 
+import com.ccrm.query.Condition;
+import com.ccrm.query.Page;
 import java.util.List;
+import java.util.stream.Stream;
 
 /**
  * Interface for objects that support search functionality.
@@ -23,6 +26,39 @@ public interface Searchable<T> {
      */
     List<T> searchByCriteria(SearchCriteria criteria);
 
+    /**
+     * Search for objects matching a boolean combination of criteria.
+     * @param condition The condition
+     * @return List of matching objects
+     */
+    List<T> searchByCondition(Condition condition);
+
+    /**
+     * Search lazily for objects matching a condition.
+     * @param condition The condition
+     * @return Stream of matching objects, filtered as it is consumed
+     */
+    Stream<T> streamByCondition(Condition condition);
+
+    /**
+     * Search for one page of objects matching a condition, in ID order.
+     * @param condition The condition
+     * @param limit Maximum number of objects in the page
+     * @param pageToken Token from the previous page, or null for the first page
+     * @return The page and the token for the next one
+     */
+    Page<T> searchPage(Condition condition, int limit, String pageToken);
+
+    /**
+     * Search for the first objects matching a condition when ordered by a field.
+     * @param condition The condition
+     * @param field The field to order by
+     * @param descending true for highest values first
+     * @param limit Maximum number of objects to return
+     * @return The first matching objects in order
+     */
+    List<T> searchTop(Condition condition, String field, boolean descending, int limit);
+
     /**
      * Filter objects based on a predicate.
      * @param predicate The filtering predicate
@@ -17,6 +17,7 @@ public class Course {
     private Department department;
     private boolean isActive;
     private String description;
+    private int capacity;
 
     public Course(String courseId, String courseCode, String title, int creditHours, 
                   String instructorId, Semester semester, Department department) {
@@ -103,6 +104,18 @@ public class Course {
         this.description = description;
     }
 
+    /**
+     * Gets the maximum number of active enrollments.
+     * @return The capacity, or 0 if the course is uncapped
+     */
+    public int getCapacity() {
+        return capacity;
+    }
+
+    public void setCapacity(int capacity) {
+        this.capacity = capacity;
+    }
+
     @Override
     public String toString() {
         return String.format("Course[ID: %s, Code: %s, Title: %s, Credits: %d, Dept: %s, Semester: %s, Active: %s]", 
@@ -1,5 +1,6 @@
 package com.ccrm.model;
 
+import com.ccrm.enums.Department;
 import java.time.LocalDate;
 import java.util.ArrayList;
 import java.util.List;
@@ -14,6 +15,7 @@ public class Student extends Person {
     private boolean isActive;
     private List<String> enrolledCourseIds;
     private double currentGPA;
+    private Department department;
 
     public Student(String id, String registrationNumber, String fullName, String email) {
         super(id, fullName, email);
@@ -84,6 +86,18 @@ public class Student extends Person {
         this.currentGPA = currentGPA;
     }
 
+    /**
+     * Gets the student's home department.
+     * @return The department, or null if none is recorded
+     */
+    public Department getDepartment() {
+        return department;
+    }
+
+    public void setDepartment(Department department) {
+        this.department = department;
+    }
+
     @Override
     public String toString() {
         return String.format("Student[ID: %s, RegNo: %s, Name: %s, Email: %s, Active: %s, GPA: %.2f]", 
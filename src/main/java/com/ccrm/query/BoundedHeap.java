@@ -0,0 +1,73 @@
+package com.ccrm.query;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.PriorityQueue;
+import java.util.stream.Collector;
+
+/**
+ * Keeps the first k elements of a sequence in a given order without
+ * sorting or holding the rest. Each offer costs O(log k).
+ * @param <T> The type of elements
+ */
+final class BoundedHeap<T> {
+    private final Comparator<? super T> order;
+    private final int capacity;
+    private final PriorityQueue<T> heap;
+
+    /**
+     * Creates a bounded heap.
+     * @param order The order in which elements are wanted
+     * @param capacity Number of elements to keep
+     */
+    BoundedHeap(Comparator<? super T> order, int capacity) {
+        this.order = order;
+        this.capacity = capacity;
+        // The head is the worst element kept, so it is the one to displace
+        this.heap = new PriorityQueue<>(Math.max(1, Math.min(capacity, 1024)), order.reversed());
+    }
+
+    void offer(T element) {
+        if (heap.size() < capacity) {
+            heap.add(element);
+        } else if (capacity > 0 && order.compare(element, heap.peek()) < 0) {
+            heap.poll();
+            heap.add(element);
+        }
+    }
+
+    /**
+     * Adds every element kept by another heap, for combining partial
+     * results of a parallel scan.
+     * @param other The other heap
+     * @return This heap
+     */
+    BoundedHeap<T> merge(BoundedHeap<T> other) {
+        for (T element : other.heap) {
+            offer(element);
+        }
+        return this;
+    }
+
+    /**
+     * Creates a collector that keeps the first elements in an order.
+     * @param order The order in which elements are wanted
+     * @param capacity Number of elements to keep
+     * @return The collector, producing the kept elements sorted
+     */
+    static <T> Collector<T, BoundedHeap<T>, List<T>> collector(Comparator<? super T> order, int capacity) {
+        return Collector.of(() -> new BoundedHeap<>(order, capacity), BoundedHeap::offer,
+                            BoundedHeap::merge, BoundedHeap::toSortedList);
+    }
+
+    /**
+     * Gets the kept elements in order.
+     * @return The first k elements seen, sorted
+     */
+    List<T> toSortedList() {
+        List<T> result = new ArrayList<>(heap);
+        result.sort(order);
+        return result;
+    }
+}
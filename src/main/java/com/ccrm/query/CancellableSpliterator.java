@@ -0,0 +1,57 @@
+package com.ccrm.query;
+
+import java.util.Spliterator;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.Consumer;
+
+/**
+ * Spliterator that stops every split of a scan once a shared flag is set.
+ * The flag is checked before each element, so a cancelled parallel scan
+ * releases its worker threads promptly.
+ * @param <T> The type of elements
+ */
+final class CancellableSpliterator<T> implements Spliterator<T> {
+    private final Spliterator<T> source;
+    private final AtomicBoolean cancelled;
+
+    CancellableSpliterator(Spliterator<T> source, AtomicBoolean cancelled) {
+        this.source = source;
+        this.cancelled = cancelled;
+    }
+
+    @Override
+    public boolean tryAdvance(Consumer<? super T> action) {
+        checkCancelled();
+        return source.tryAdvance(action);
+    }
+
+    @Override
+    public void forEachRemaining(Consumer<? super T> action) {
+        do {
+            checkCancelled();
+        } while (source.tryAdvance(action));
+    }
+
+    @Override
+    public Spliterator<T> trySplit() {
+        Spliterator<T> prefix = source.trySplit();
+        return prefix != null ? new CancellableSpliterator<>(prefix, cancelled) : null;
+    }
+
+    @Override
+    public long estimateSize() {
+        return source.estimateSize();
+    }
+
+    @Override
+    public int characteristics() {
+        return source.characteristics();
+    }
+
+    private void checkCancelled() {
+        if (cancelled.get()) {
+            throw new CancellationException("Scan cancelled");
+        }
+    }
+}
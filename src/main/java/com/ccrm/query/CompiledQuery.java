@@ -0,0 +1,49 @@
+package com.ccrm.query;
+
+import com.ccrm.interfaces.Searchable.SearchOperator;
+import java.util.function.Predicate;
+
+/**
+ * A search criterion compiled against an entity schema: the field is
+ * resolved, the value normalized and the comparison chosen up front.
+ * @param <T> The type of entities matched
+ */
+public final class CompiledQuery<T> implements Predicate<T> {
+    private final String field;
+    private final SearchOperator operator;
+    private final String value;
+    private final Predicate<T> matcher;
+
+    CompiledQuery(String field, SearchOperator operator, String value, Predicate<T> matcher) {
+        this.field = field;
+        this.operator = operator;
+        this.value = value;
+        this.matcher = matcher;
+    }
+
+    /**
+     * Gets the canonical field name.
+     * @return The field name, or null if the criterion named an unknown field
+     */
+    public String getField() {
+        return field;
+    }
+
+    public SearchOperator getOperator() {
+        return operator;
+    }
+
+    public String getValue() {
+        return value;
+    }
+
+    @Override
+    public boolean test(T entity) {
+        return matcher.test(entity);
+    }
+
+    @Override
+    public String toString() {
+        return (field != null ? field : "?") + " " + operator + " '" + value + "'";
+    }
+}
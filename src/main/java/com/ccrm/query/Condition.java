@@ -0,0 +1,215 @@
+package com.ccrm.query;
+
+import com.ccrm.interfaces.Searchable.SearchCriteria;
+import com.ccrm.interfaces.Searchable.SearchOperator;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * A boolean combination of search criteria.
+ * Leaves are single criteria; inner nodes are AND, OR and NOT.
+ * Demonstrates the Composite pattern.
+ */
+public abstract class Condition {
+
+    Condition() {
+    }
+
+    /**
+     * Creates a condition that every entity satisfies.
+     * @return The condition
+     */
+    public static Condition matchAll() {
+        return MatchAll.INSTANCE;
+    }
+
+    /**
+     * Creates a condition on one field.
+     * @param field The field name or alias
+     * @param operator The search operator
+     * @param value The search value
+     * @return The condition
+     */
+    public static Condition where(String field, SearchOperator operator, String value) {
+        return new Match(new SearchCriteria(field, value, operator));
+    }
+
+    /**
+     * Wraps a single criterion.
+     * @param criteria The search criteria
+     * @return The condition
+     */
+    public static Condition where(SearchCriteria criteria) {
+        return new Match(criteria);
+    }
+
+    /**
+     * Creates a condition that holds when all operands hold.
+     * @param operands The conditions to combine
+     * @return The conjunction
+     */
+    public static Condition allOf(Condition... operands) {
+        return new And(Arrays.asList(operands));
+    }
+
+    /**
+     * Creates a condition that holds when any operand holds.
+     * @param operands The conditions to combine
+     * @return The disjunction
+     */
+    public static Condition anyOf(Condition... operands) {
+        return new Or(Arrays.asList(operands));
+    }
+
+    /**
+     * Creates a condition that holds when the operand does not.
+     * @param operand The condition to negate
+     * @return The negation
+     */
+    public static Condition not(Condition operand) {
+        return new Not(operand);
+    }
+
+    /**
+     * Combines this condition with another using AND.
+     * Chained calls flatten into one conjunction.
+     * @param other The other condition
+     * @return The conjunction
+     */
+    public Condition and(Condition other) {
+        return new And(Arrays.asList(this, other));
+    }
+
+    /**
+     * Combines this condition with another using OR.
+     * Chained calls flatten into one disjunction.
+     * @param other The other condition
+     * @return The disjunction
+     */
+    public Condition or(Condition other) {
+        return new Or(Arrays.asList(this, other));
+    }
+
+    /**
+     * A single criterion.
+     */
+    public static final class Match extends Condition {
+        private final SearchCriteria criteria;
+
+        private Match(SearchCriteria criteria) {
+            this.criteria = criteria;
+        }
+
+        public SearchCriteria getCriteria() {
+            return criteria;
+        }
+
+        @Override
+        public String toString() {
+            return criteria.getField() + " " + criteria.getOperator() + " '" + criteria.getValue() + "'";
+        }
+    }
+
+    /**
+     * The condition that always holds.
+     */
+    public static final class MatchAll extends Condition {
+        private static final MatchAll INSTANCE = new MatchAll();
+
+        private MatchAll() {
+        }
+
+        @Override
+        public String toString() {
+            return "ALL";
+        }
+    }
+
+    /**
+     * Conjunction of conditions.
+     */
+    public static final class And extends Condition {
+        private final List<Condition> operands;
+
+        private And(List<Condition> operands) {
+            this.operands = flatten(operands, And.class);
+        }
+
+        public List<Condition> getOperands() {
+            return operands;
+        }
+
+        @Override
+        public String toString() {
+            return join(operands, " AND ");
+        }
+    }
+
+    /**
+     * Disjunction of conditions.
+     */
+    public static final class Or extends Condition {
+        private final List<Condition> operands;
+
+        private Or(List<Condition> operands) {
+            this.operands = flatten(operands, Or.class);
+        }
+
+        public List<Condition> getOperands() {
+            return operands;
+        }
+
+        @Override
+        public String toString() {
+            return join(operands, " OR ");
+        }
+    }
+
+    /**
+     * Negation of a condition.
+     */
+    public static final class Not extends Condition {
+        private final Condition operand;
+
+        private Not(Condition operand) {
+            this.operand = operand;
+        }
+
+        public Condition getOperand() {
+            return operand;
+        }
+
+        @Override
+        public String toString() {
+            return "NOT (" + operand + ")";
+        }
+    }
+
+    private static List<Condition> flatten(List<Condition> operands, Class<? extends Condition> type) {
+        if (operands.isEmpty()) {
+            throw new IllegalArgumentException("A combined condition needs at least one operand");
+        }
+        List<Condition> flat = new ArrayList<>(operands.size());
+        for (Condition operand : operands) {
+            if (operand.getClass() == type) {
+                flat.addAll(type == And.class ? ((And) operand).operands : ((Or) operand).operands);
+            } else {
+                flat.add(operand);
+            }
+        }
+        return Collections.unmodifiableList(flat);
+    }
+
+    private static String join(List<Condition> operands, String separator) {
+        StringBuilder text = new StringBuilder("(");
+        for (int i = 0; i < operands.size(); i++) {
+            if (i > 0) {
+                text.append(separator);
+            }
+            text.append(operands.get(i));
+        }
+        return text.append(')').toString();
+    }
+}
@@ -0,0 +1,294 @@
+package com.ccrm.query;
+
+import com.ccrm.interfaces.Searchable.SearchCriteria;
+import com.ccrm.interfaces.Searchable.SearchOperator;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+import java.util.function.Predicate;
+import java.util.function.ToDoubleFunction;
+import java.util.function.ToIntFunction;
+
+/**
+ * The searchable fields of one entity type with typed accessors.
+ * Field names and aliases are resolved case-insensitively once, when a
+ * criterion is compiled, instead of once per row.
+ * Demonstrates the Interpreter pattern with compiled predicates.
+ * @param <T> The type of entities described
+ */
+public class EntitySchema<T> {
+    private final String entityName;
+    private final Map<String, Field<T>> fieldsByName;
+    private final List<String> fieldNames;
+
+    /**
+     * Creates an empty schema.
+     * @param entityName Name of the entity type, used in messages
+     */
+    public EntitySchema(String entityName) {
+        this.entityName = entityName;
+        this.fieldsByName = new HashMap<>();
+        this.fieldNames = new ArrayList<>();
+    }
+
+    /**
+     * Adds a text field. Missing values read as the empty string.
+     * @param name Canonical field name
+     * @param accessor Reads the field
+     * @param aliases Alternative names accepted in criteria
+     * @return This schema
+     */
+    public EntitySchema<T> text(String name, Function<T, String> accessor, String... aliases) {
+        return add(new Field<T>(name, FieldType.TEXT, accessor, null, null), aliases);
+    }
+
+    /**
+     * Adds a decimal field.
+     * @param name Canonical field name
+     * @param accessor Reads the field
+     * @param aliases Alternative names accepted in criteria
+     * @return This schema
+     */
+    public EntitySchema<T> number(String name, ToDoubleFunction<T> accessor, String... aliases) {
+        return add(new Field<T>(name, FieldType.NUMBER, null, accessor, null), aliases);
+    }
+
+    /**
+     * Adds a whole-number field.
+     * @param name Canonical field name
+     * @param accessor Reads the field
+     * @param aliases Alternative names accepted in criteria
+     * @return This schema
+     */
+    public EntitySchema<T> integer(String name, ToIntFunction<T> accessor, String... aliases) {
+        return add(new Field<T>(name, FieldType.INTEGER, null, null, accessor), aliases);
+    }
+
+    private EntitySchema<T> add(Field<T> field, String... aliases) {
+        fieldsByName.put(field.name.toLowerCase(), field);
+        for (String alias : aliases) {
+            fieldsByName.put(alias.toLowerCase(), field);
+        }
+        fieldNames.add(field.name);
+        return this;
+    }
+
+    public String getEntityName() {
+        return entityName;
+    }
+
+    /**
+     * Gets the canonical field names in declaration order.
+     * @return Unmodifiable list of field names
+     */
+    public List<String> getFieldNames() {
+        return Collections.unmodifiableList(fieldNames);
+    }
+
+    /**
+     * Resolves a field name or alias.
+     * @param field The field name, in any case
+     * @return The canonical field name, or null if the field is unknown
+     */
+    public String canonicalName(String field) {
+        Field<T> resolved = field != null ? fieldsByName.get(field.toLowerCase()) : null;
+        return resolved != null ? resolved.name : null;
+    }
+
+    /**
+     * Compiles a criterion into a reusable predicate.
+     * Unknown fields read as the empty string, so they only match empty values.
+     * @param criteria The search criteria
+     * @return The compiled query
+     */
+    public CompiledQuery<T> compile(SearchCriteria criteria) {
+        Field<T> field = fieldsByName.get(criteria.getField().toLowerCase());
+        String value = criteria.getValue() != null ? criteria.getValue() : "";
+        Predicate<T> matcher = field != null
+                ? field.matcher(criteria.getOperator(), value)
+                : TextMatchers.forConstant("", criteria.getOperator(), value);
+        return new CompiledQuery<>(field != null ? field.name : null, criteria.getOperator(), value, matcher);
+    }
+
+    /**
+     * Compiles a boolean condition into a single predicate.
+     * AND and OR evaluate their operands in order and stop at the first
+     * operand that decides the result.
+     * @param condition The condition
+     * @return The compiled predicate
+     */
+    public Predicate<T> compile(Condition condition) {
+        if (condition instanceof Condition.MatchAll) {
+            return entity -> true;
+        }
+        if (condition instanceof Condition.Match) {
+            return compile(((Condition.Match) condition).getCriteria());
+        }
+        if (condition instanceof Condition.Not) {
+            return compile(((Condition.Not) condition).getOperand()).negate();
+        }
+        boolean conjunction = condition instanceof Condition.And;
+        List<Condition> operands = conjunction
+                ? ((Condition.And) condition).getOperands()
+                : ((Condition.Or) condition).getOperands();
+        List<Predicate<T>> compiled = new ArrayList<>(operands.size());
+        for (Condition operand : operands) {
+            compiled.add(compile(operand));
+        }
+        // Indexed loops avoid an iterator per evaluated entity
+        int count = compiled.size();
+        if (conjunction) {
+            return entity -> {
+                for (int i = 0; i < count; i++) {
+                    if (!compiled.get(i).test(entity)) {
+                        return false;
+                    }
+                }
+                return true;
+            };
+        }
+        return entity -> {
+            for (int i = 0; i < count; i++) {
+                if (compiled.get(i).test(entity)) {
+                    return true;
+                }
+            }
+            return false;
+        };
+    }
+
+    /**
+     * Gets an ordering on a field: numeric for number fields and
+     * case-insensitive for text fields.
+     * @param field The field name or alias
+     * @return The comparator
+     * @throws IllegalArgumentException if the field is unknown
+     */
+    public Comparator<T> comparator(String field) {
+        Field<T> resolved = field != null ? fieldsByName.get(field.toLowerCase()) : null;
+        if (resolved == null) {
+            throw new IllegalArgumentException("Unknown " + entityName + " field: " + field);
+        }
+        switch (resolved.type) {
+            case NUMBER:
+                return Comparator.comparingDouble(resolved.numberAccessor);
+            case INTEGER:
+                return Comparator.comparingInt(resolved.integerAccessor);
+            default:
+                return Comparator.comparing(resolved::text, String.CASE_INSENSITIVE_ORDER);
+        }
+    }
+
+    private enum FieldType {
+        TEXT, NUMBER, INTEGER
+    }
+
+    /**
+     * One field of the schema with its typed accessor.
+     */
+    private static final class Field<T> {
+        private final String name;
+        private final FieldType type;
+        private final Function<T, String> textAccessor;
+        private final ToDoubleFunction<T> numberAccessor;
+        private final ToIntFunction<T> integerAccessor;
+
+        private Field(String name, FieldType type, Function<T, String> textAccessor,
+                      ToDoubleFunction<T> numberAccessor, ToIntFunction<T> integerAccessor) {
+            this.name = name;
+            this.type = type;
+            this.textAccessor = textAccessor;
+            this.numberAccessor = numberAccessor;
+            this.integerAccessor = integerAccessor;
+        }
+
+        private String text(T entity) {
+            switch (type) {
+                case NUMBER:
+                    return String.valueOf(numberAccessor.applyAsDouble(entity));
+                case INTEGER:
+                    return String.valueOf(integerAccessor.applyAsInt(entity));
+                default:
+                    String value = textAccessor.apply(entity);
+                    return value != null ? value : "";
+            }
+        }
+
+        private Predicate<T> matcher(SearchOperator operator, String value) {
+            switch (operator) {
+                case GREATER_THAN:
+                case LESS_THAN:
+                    return comparison(operator, value);
+                case EQUALS:
+                    if (type == FieldType.NUMBER) {
+                        return numberEquals(value);
+                    }
+                    if (type == FieldType.INTEGER) {
+                        return integerEquals(value);
+                    }
+                    return TextMatchers.forField(this::text, operator, value);
+                default:
+                    return TextMatchers.forField(this::text, operator, value);
+            }
+        }
+
+        private Predicate<T> comparison(SearchOperator operator, String value) {
+            final double bound;
+            try {
+                bound = Double.parseDouble(value);
+            } catch (NumberFormatException e) {
+                return entity -> false;
+            }
+            boolean greater = operator == SearchOperator.GREATER_THAN;
+            switch (type) {
+                case NUMBER:
+                    return greater ? entity -> numberAccessor.applyAsDouble(entity) > bound
+                                   : entity -> numberAccessor.applyAsDouble(entity) < bound;
+                case INTEGER:
+                    return greater ? entity -> integerAccessor.applyAsInt(entity) > bound
+                                   : entity -> integerAccessor.applyAsInt(entity) < bound;
+                default:
+                    // Text fields compare only where they hold a number
+                    return entity -> {
+                        try {
+                            double fieldValue = Double.parseDouble(text(entity));
+                            return greater ? fieldValue > bound : fieldValue < bound;
+                        } catch (NumberFormatException e) {
+                            return false;
+                        }
+                    };
+            }
+        }
+
+        private Predicate<T> numberEquals(String value) {
+            final double target;
+            try {
+                target = Double.parseDouble(value);
+            } catch (NumberFormatException e) {
+                return TextMatchers.forField(this::text, SearchOperator.EQUALS, value);
+            }
+            // Equality is on the formatted value, so "3.50" matches nothing, as it always has
+            if (!String.valueOf(target).equalsIgnoreCase(value)) {
+                return entity -> false;
+            }
+            return entity -> Double.compare(numberAccessor.applyAsDouble(entity), target) == 0;
+        }
+
+        private Predicate<T> integerEquals(String value) {
+            final int target;
+            try {
+                target = Integer.parseInt(value);
+            } catch (NumberFormatException e) {
+                return entity -> false;
+            }
+            if (!String.valueOf(target).equals(value)) {
+                return entity -> false;
+            }
+            return entity -> integerAccessor.applyAsInt(entity) == target;
+        }
+    }
+}
@@ -0,0 +1,45 @@
+package com.ccrm.query;
+
+import com.ccrm.model.Course;
+import com.ccrm.model.Enrollment;
+import com.ccrm.model.Student;
+
+/**
+ * Searchable fields of the built-in entity types. Canonical field names
+ * match the names the secondary indexes are registered under.
+ */
+public final class EntitySchemas {
+    public static final EntitySchema<Student> STUDENTS = new EntitySchema<Student>("Student")
+            .text("id", Student::getId)
+            .text("regno", Student::getRegistrationNumber, "registrationNumber")
+            .text("name", Student::getFullName, "fullName")
+            .text("email", Student::getEmail)
+            .text("active", student -> String.valueOf(student.isActive()))
+            .text("department", student -> 
+                    student.getDepartment() != null ? student.getDepartment().name() : "")
+            .number("gpa", Student::getCurrentGPA);
+
+    public static final EntitySchema<Course> COURSES = new EntitySchema<Course>("Course")
+            .text("id", Course::getCourseId, "courseId")
+            .text("code", Course::getCourseCode, "courseCode")
+            .text("title", Course::getTitle)
+            .text("instructor", Course::getInstructorId, "instructorId")
+            .text("department", course -> course.getDepartment().name())
+            .text("semester", course -> course.getSemester().name())
+            .text("active", course -> String.valueOf(course.isActive()))
+            .integer("credits", Course::getCreditHours, "creditHours")
+            .text("description", Course::getDescription);
+
+    public static final EntitySchema<Enrollment> ENROLLMENTS = new EntitySchema<Enrollment>("Enrollment")
+            .text("id", Enrollment::getEnrollmentId, "enrollmentId")
+            .text("student", Enrollment::getStudentId, "studentId")
+            .text("course", Enrollment::getCourseId, "courseId")
+            .text("active", enrollment -> String.valueOf(enrollment.isActive()))
+            .text("completed", enrollment -> String.valueOf(enrollment.isCompleted()))
+            .text("grade", enrollment -> 
+                    enrollment.getLetterGrade() != null ? enrollment.getLetterGrade().name() : "")
+            .number("numericgrade", Enrollment::getNumericGrade, "numericGrade");
+
+    private EntitySchemas() {
+    }
+}
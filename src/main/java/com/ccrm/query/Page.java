@@ -0,0 +1,34 @@
+package com.ccrm.query;
+
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * One page of search results with a token for the next page.
+ * @param <T> The type of entities in the page
+ */
+public final class Page<T> {
+    private final List<T> items;
+    private final String nextPageToken;
+
+    Page(List<T> items, String nextPageToken) {
+        this.items = Collections.unmodifiableList(items);
+        this.nextPageToken = nextPageToken;
+    }
+
+    public List<T> getItems() {
+        return items;
+    }
+
+    /**
+     * Gets the token that continues after this page.
+     * @return The continuation token, or null if this is the last page
+     */
+    public String getNextPageToken() {
+        return nextPageToken;
+    }
+
+    public boolean hasNextPage() {
+        return nextPageToken != null;
+    }
+}
@@ -0,0 +1,148 @@
+package com.ccrm.query;
+
+import com.ccrm.exceptions.QueryTimeoutException;
+import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Predicate;
+import java.util.stream.Collector;
+import java.util.stream.Collectors;
+import java.util.stream.StreamSupport;
+
+/**
+ * Singleton that runs full scans sequentially for small inputs and in
+ * parallel on a dedicated ForkJoinPool once the input reaches a threshold.
+ * The store's concurrent maps split along their internal bins, so every
+ * worker scans its own part of the table. Parallel scans are cancelled when
+ * they exceed the time limit.
+ * Configured with the system properties {@code ccrm.scanParallelism},
+ * {@code ccrm.parallelScanThreshold} and {@code ccrm.scanTimeoutMillis}.
+ */
+public class ParallelScanExecutor {
+    private static volatile ParallelScanExecutor instance;
+    private static final Object lock = new Object();
+
+    private final ForkJoinPool pool;
+    private final int threshold;
+    private final long timeoutMillis;
+    private final AtomicLong sequentialScans;
+    private final AtomicLong parallelScans;
+
+    private ParallelScanExecutor(int parallelism, int threshold, long timeoutMillis) {
+        // Worker threads of a ForkJoinPool are daemons, so the pool never blocks exit
+        this.pool = new ForkJoinPool(parallelism);
+        this.threshold = threshold;
+        this.timeoutMillis = timeoutMillis;
+        this.sequentialScans = new AtomicLong();
+        this.parallelScans = new AtomicLong();
+    }
+
+    /**
+     * Gets the executor, configured from system properties on first use.
+     * @return The singleton ParallelScanExecutor instance
+     */
+    public static ParallelScanExecutor getInstance() {
+        if (instance == null) {
+            synchronized (lock) {
+                if (instance == null) {
+                    instance = new ParallelScanExecutor(
+                            Integer.getInteger("ccrm.scanParallelism", Runtime.getRuntime().availableProcessors()),
+                            Integer.getInteger("ccrm.parallelScanThreshold", 50000),
+                            Long.getLong("ccrm.scanTimeoutMillis", 30000L));
+                }
+            }
+        }
+        return instance;
+    }
+
+    /**
+     * Selects the elements of a collection that satisfy a predicate.
+     * @param source The rows to scan; a live view of the store is fine
+     * @param predicate Thread-safe filter
+     * @return Matching elements in no particular order
+     * @throws QueryTimeoutException if a parallel scan exceeds the time limit
+     */
+    public <T> List<T> filter(Collection<T> source, Predicate<? super T> predicate) {
+        return collect(source, predicate, Collectors.toList());
+    }
+
+    /**
+     * Reduces all elements of a collection, e.g. grouping them for a report.
+     * @param source The rows to scan
+     * @param collector Collector with a combiner that merges partial results
+     * @return The result
+     * @throws QueryTimeoutException if a parallel scan exceeds the time limit
+     */
+    public <T, A, R> R collect(Collection<T> source, Collector<? super T, A, R> collector) {
+        return collect(source, entity -> true, collector);
+    }
+
+    /**
+     * Reduces the elements of a collection that satisfy a predicate.
+     * @param source The rows to scan
+     * @param predicate Thread-safe filter
+     * @param collector Collector with a combiner that merges partial results
+     * @return The result
+     * @throws QueryTimeoutException if a parallel scan exceeds the time limit
+     */
+    public <T, A, R> R collect(Collection<T> source, Predicate<? super T> predicate,
+                               Collector<? super T, A, R> collector) {
+        if (source.size() < threshold) {
+            sequentialScans.incrementAndGet();
+            return source.stream().filter(predicate).collect(collector);
+        }
+        parallelScans.incrementAndGet();
+        AtomicBoolean cancelled = new AtomicBoolean();
+        CancellableSpliterator<T> rows = new CancellableSpliterator<>(source.spliterator(), cancelled);
+        // A parallel stream started inside a pool worker forks into that pool, not the common pool
+        ForkJoinTask<R> task = pool.submit(() -> 
+                StreamSupport.stream(rows, true).filter(predicate).collect(collector));
+        try {
+            return task.get(timeoutMillis, TimeUnit.MILLISECONDS);
+        } catch (TimeoutException e) {
+            cancelled.set(true);
+            task.cancel(true);
+            throw new QueryTimeoutException(timeoutMillis);
+        } catch (InterruptedException e) {
+            cancelled.set(true);
+            task.cancel(true);
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while waiting for a parallel scan", e);
+        } catch (ExecutionException e) {
+            Throwable cause = e.getCause();
+            if (cause instanceof RuntimeException) {
+                throw (RuntimeException) cause;
+            }
+            if (cause instanceof Error) {
+                throw (Error) cause;
+            }
+            throw new IllegalStateException("Parallel scan failed", cause);
+        }
+    }
+
+    public int getParallelism() {
+        return pool.getParallelism();
+    }
+
+    public int getThreshold() {
+        return threshold;
+    }
+
+    public long getTimeoutMillis() {
+        return timeoutMillis;
+    }
+
+    public long getSequentialScanCount() {
+        return sequentialScans.get();
+    }
+
+    public long getParallelScanCount() {
+        return parallelScans.get();
+    }
+}
@@ -0,0 +1,153 @@
+package com.ccrm.query;
+
+import com.ccrm.core.DataStore;
+import com.ccrm.enums.EntityType;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Supplier;
+
+/**
+ * Singleton LRU cache of query results, keyed by entity type and normalized
+ * query. Each entry remembers the DataStore mutation epoch of its entity
+ * type when it was computed; an entry whose epoch has moved on is stale and
+ * is recomputed, so cached answers always reflect the latest data.
+ * Demonstrates memoization with version-based invalidation.
+ */
+public class QueryCache {
+    private static volatile QueryCache instance;
+    private static final Object lock = new Object();
+
+    private static final int DEFAULT_CAPACITY = Integer.getInteger("ccrm.queryCacheEntries", 256);
+
+    private final DataStore dataStore;
+    private final int capacity;
+    private final LinkedHashMap<String, Entry> entries;
+    private long hits;
+    private long misses;
+    private long evictions;
+    private long invalidations;
+
+    private QueryCache(int capacity) {
+        this.dataStore = DataStore.getInstance();
+        this.capacity = capacity;
+        this.entries = new LinkedHashMap<>(16, 0.75f, true);
+    }
+
+    /**
+     * Gets the cache, sized by the {@code ccrm.queryCacheEntries} system property.
+     * @return The singleton QueryCache instance
+     */
+    public static QueryCache getInstance() {
+        if (instance == null) {
+            synchronized (lock) {
+                if (instance == null) {
+                    instance = new QueryCache(DEFAULT_CAPACITY);
+                }
+            }
+        }
+        return instance;
+    }
+
+    /**
+     * Gets a cached result, computing and caching it on a miss.
+     * The caller receives its own copy and may modify it.
+     * @param type The entity type the result is drawn from
+     * @param key The normalized query
+     * @param query Computes the result on a miss
+     * @return The result
+     */
+    public <T> List<T> get(EntityType type, String key, Supplier<List<T>> query) {
+        String cacheKey = type.name() + '|' + key;
+        // Read the epoch before computing, so a concurrent change invalidates the result
+        long epoch = dataStore.getEpoch(type);
+        synchronized (this) {
+            Entry entry = entries.get(cacheKey);
+            if (entry != null && entry.epoch == epoch) {
+                hits++;
+                @SuppressWarnings("unchecked")
+                List<T> cached = (List<T>) entry.result;
+                return new ArrayList<>(cached);
+            }
+            if (entry != null) {
+                entries.remove(cacheKey);
+                invalidations++;
+            }
+            misses++;
+        }
+        List<T> result = query.get();
+        synchronized (this) {
+            if (capacity > 0) {
+                entries.put(cacheKey, new Entry(epoch, Collections.unmodifiableList(new ArrayList<>(result))));
+                evict();
+            }
+        }
+        return result;
+    }
+
+    private void evict() {
+        Iterator<Map.Entry<String, Entry>> it = entries.entrySet().iterator();
+        while (entries.size() > capacity && it.hasNext()) {
+            it.next();
+            it.remove();
+            evictions++;
+        }
+    }
+
+    /**
+     * Removes all cached results. Counters are kept.
+     */
+    public synchronized void clear() {
+        entries.clear();
+    }
+
+    public synchronized int size() {
+        return entries.size();
+    }
+
+    public int getCapacity() {
+        return capacity;
+    }
+
+    public synchronized long getHits() {
+        return hits;
+    }
+
+    public synchronized long getMisses() {
+        return misses;
+    }
+
+    public synchronized long getEvictions() {
+        return evictions;
+    }
+
+    /**
+     * Gets the number of entries found stale because their data changed.
+     * @return The invalidation count
+     */
+    public synchronized long getInvalidations() {
+        return invalidations;
+    }
+
+    /**
+     * Gets the fraction of lookups served from the cache.
+     * @return Hit ratio between 0 and 1; 0 before the first lookup
+     */
+    public synchronized double getHitRatio() {
+        long lookups = hits + misses;
+        return lookups > 0 ? (double) hits / lookups : 0.0;
+    }
+
+    private static final class Entry {
+        private final long epoch;
+        private final List<?> result;
+
+        private Entry(long epoch, List<?> result) {
+            this.epoch = epoch;
+            this.result = result;
+        }
+    }
+}
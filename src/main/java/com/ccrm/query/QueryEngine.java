@@ -0,0 +1,336 @@
+package com.ccrm.query;
+
+import com.ccrm.enums.EntityType;
+import com.ccrm.index.EntityIndexes;
+import com.ccrm.interfaces.Searchable.SearchCriteria;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.function.Function;
+import java.util.function.Predicate;
+import java.util.function.Supplier;
+import java.util.stream.Stream;
+
+/**
+ * Runs compiled criteria for one entity type: narrows the rows with the
+ * entity's indexes where one applies, then checks each candidate with the
+ * compiled matcher. Shared by every Searchable service.
+ * @param <T> The type of entities searched
+ */
+public class QueryEngine<T> {
+    private final EntityType type;
+    private final EntitySchema<T> schema;
+    private final EntityIndexes<T> indexes;
+    private final Function<String, T> lookup;
+    private final Supplier<? extends Collection<T>> view;
+    private final QueryCache cache;
+
+    /**
+     * Creates a query engine.
+     * @param type The entity type, which keys cached results
+     * @param schema The entity's searchable fields
+     * @param indexes The entity's secondary indexes
+     * @param lookup Finds an entity by ID; returns null if it no longer exists
+     * @param view Supplies a live view of all entities for full scans
+     */
+    public QueryEngine(EntityType type, EntitySchema<T> schema, EntityIndexes<T> indexes,
+                       Function<String, T> lookup, Supplier<? extends Collection<T>> view) {
+        this.type = type;
+        this.schema = schema;
+        this.indexes = indexes;
+        this.lookup = lookup;
+        this.view = view;
+        this.cache = QueryCache.getInstance();
+    }
+
+    public EntitySchema<T> getSchema() {
+        return schema;
+    }
+
+    /**
+     * Compiles a criterion against this engine's schema.
+     * @param criteria The search criteria
+     * @return The compiled query
+     */
+    public CompiledQuery<T> compile(SearchCriteria criteria) {
+        return schema.compile(criteria);
+    }
+
+    /**
+     * Finds the entities matching a criterion, from the query cache when
+     * the entity type has not changed since the result was computed.
+     * @param criteria The search criteria
+     * @return Matching entities
+     */
+    public List<T> search(SearchCriteria criteria) {
+        return cached("criteria " + normalize(criteria), () -> search(compile(criteria)));
+    }
+
+    /**
+     * Finds the entities matching a compiled query.
+     * @param query The compiled query
+     * @return Matching entities
+     */
+    public List<T> search(CompiledQuery<T> query) {
+        List<T> result = new ArrayList<>();
+        for (T entity : candidates(query)) {
+            if (query.test(entity)) {
+                result.add(entity);
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Finds the entities matching a boolean condition.
+     * @param condition The condition
+     * @return Matching entities
+     */
+    public List<T> search(Condition condition) {
+        return cached("condition " + normalize(condition), () -> plan(condition).execute());
+    }
+
+    /**
+     * Serves a query of this entity type through the query cache.
+     * @param key Normalized query text; equal keys must mean equal results
+     * @param query Computes the result on a miss
+     * @return The result, a copy the caller may modify
+     */
+    public List<T> cached(String key, Supplier<List<T>> query) {
+        return cache.get(type, key, query);
+    }
+
+    /**
+     * Normalizes a condition for use as a cache key: field aliases are
+     * resolved and case-insensitive values are lowercased.
+     * Values are length-prefixed so no value can imitate query syntax.
+     * @param condition The condition
+     * @return The normalized text
+     */
+    private String normalize(Condition condition) {
+        if (condition instanceof Condition.Match) {
+            return normalize(((Condition.Match) condition).getCriteria());
+        }
+        if (condition instanceof Condition.Not) {
+            return "NOT(" + normalize(((Condition.Not) condition).getOperand()) + ")";
+        }
+        if (condition instanceof Condition.MatchAll) {
+            return "ALL";
+        }
+        boolean conjunction = condition instanceof Condition.And;
+        List<Condition> operands = conjunction
+                ? ((Condition.And) condition).getOperands()
+                : ((Condition.Or) condition).getOperands();
+        StringBuilder text = new StringBuilder(conjunction ? "AND(" : "OR(");
+        for (Condition operand : operands) {
+            text.append(normalize(operand)).append(';');
+        }
+        return text.append(')').toString();
+    }
+
+    private String normalize(SearchCriteria criteria) {
+        String field = schema.canonicalName(criteria.getField());
+        String value = criteria.getValue() != null ? criteria.getValue().toLowerCase() : "";
+        return (field != null ? field : "?" + criteria.getField().toLowerCase()) + ' ' 
+                + criteria.getOperator() + ' ' + value.length() + ':' + value;
+    }
+
+    /**
+     * Finds the entities matching a condition as a lazy stream.
+     * @param condition The condition
+     * @return Stream of matching entities
+     */
+    public Stream<T> stream(Condition condition) {
+        return plan(condition).stream();
+    }
+
+    /**
+     * Finds one page of the entities matching a condition, in ID order.
+     * Only the page being returned is kept and sorted.
+     * @param condition The condition
+     * @param limit Maximum number of entities in the page
+     * @param pageToken Token from the previous page, or null for the first page
+     * @return The page
+     * @throws IllegalArgumentException if the page token is malformed
+     */
+    public Page<T> page(Condition condition, int limit, String pageToken) {
+        if (limit <= 0) {
+            throw new IllegalArgumentException("Page size must be positive: " + limit);
+        }
+        String after = pageToken != null ? decodePageToken(pageToken) : null;
+        Comparator<T> byId = Comparator.comparing(indexes::idOf);
+        // One extra row tells whether another page follows
+        List<T> items = plan(condition).top(
+                entity -> after == null || indexes.idOf(entity).compareTo(after) > 0, byId, limit + 1);
+        if (items.size() <= limit) {
+            return new Page<>(items, null);
+        }
+        items = new ArrayList<>(items.subList(0, limit));
+        return new Page<>(items, encodePageToken(indexes.idOf(items.get(limit - 1))));
+    }
+
+    /**
+     * Finds the first entities matching a condition when ordered by a field.
+     * Ties are broken by ID, so repeated calls return the same entities.
+     * @param condition The condition
+     * @param field The field to order by
+     * @param descending true for highest values first
+     * @param limit Maximum number of entities to return
+     * @return The first matches in order
+     */
+    public List<T> top(Condition condition, String field, boolean descending, int limit) {
+        Comparator<T> order = schema.comparator(field);
+        if (descending) {
+            order = order.reversed();
+        }
+        return plan(condition).top(order.thenComparing(indexes::idOf), limit);
+    }
+
+    private static String encodePageToken(String lastId) {
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(lastId.getBytes(StandardCharsets.UTF_8));
+    }
+
+    private static String decodePageToken(String pageToken) {
+        try {
+            return new String(Base64.getUrlDecoder().decode(pageToken), StandardCharsets.UTF_8);
+        } catch (IllegalArgumentException e) {
+            throw new IllegalArgumentException("Invalid page token: " + pageToken, e);
+        }
+    }
+
+    /**
+     * Plans a boolean condition. The planner estimates each criterion's
+     * selectivity from the indexes and drives the query from the cheapest
+     * access path: the most selective operand of an AND, or the union of
+     * its operands' paths for an OR whose operands are all indexed. The
+     * whole condition is then applied to the candidates as a filter.
+     * NOT is never index-driven.
+     * @param condition The condition
+     * @return The plan
+     */
+    public QueryPlan<T> plan(Condition condition) {
+        Predicate<T> filter = schema.compile(condition);
+        int rowCount = view.get().size();
+        Access access = access(condition, rowCount);
+        if (access == null || access.estimate >= rowCount) {
+            return new QueryPlan<>(condition, "full scan", rowCount, view::get, filter);
+        }
+        return new QueryPlan<>(condition, "index " + access.description, access.estimate,
+                               () -> resolve(access.ids.get()), filter);
+    }
+
+    /**
+     * Finds the cheapest index access path for a condition.
+     * @param condition The condition
+     * @param cap Estimate beyond which a path is not worth counting
+     * @return The access path, or null if the condition needs a scan
+     */
+    private Access access(Condition condition, int cap) {
+        if (condition instanceof Condition.Match) {
+            SearchCriteria criteria = ((Condition.Match) condition).getCriteria();
+            String field = schema.canonicalName(criteria.getField());
+            int estimate = indexes.estimate(field, criteria.getOperator(), criteria.getValue(), cap);
+            if (estimate < 0) {
+                return null;
+            }
+            return new Access(condition.toString(), estimate,
+                              () -> indexes.candidates(field, criteria.getOperator(), criteria.getValue()));
+        }
+        if (condition instanceof Condition.And) {
+            Access best = null;
+            for (Condition operand : ((Condition.And) condition).getOperands()) {
+                Access candidate = access(operand, best != null ? best.estimate : cap);
+                if (candidate != null && (best == null || candidate.estimate < best.estimate)) {
+                    best = candidate;
+                }
+            }
+            return best;
+        }
+        if (condition instanceof Condition.Or) {
+            List<Access> branches = new ArrayList<>();
+            int total = 0;
+            for (Condition operand : ((Condition.Or) condition).getOperands()) {
+                Access branch = access(operand, cap);
+                if (branch == null) {
+                    return null;
+                }
+                branches.add(branch);
+                total = (int) Math.min((long) total + branch.estimate, cap);
+            }
+            StringBuilder description = new StringBuilder("union of");
+            for (Access branch : branches) {
+                description.append(" [").append(branch.description).append(']');
+            }
+            return new Access(description.toString(), total, () -> {
+                Set<String> union = new HashSet<>();
+                for (Access branch : branches) {
+                    Set<String> ids = branch.ids.get();
+                    if (ids == null) {
+                        return null;
+                    }
+                    union.addAll(ids);
+                }
+                return union;
+            });
+        }
+        return null;
+    }
+
+    /**
+     * Narrows a compiled query to the entities it can possibly match.
+     * @param query The compiled query
+     * @return Candidates to verify; all entities when no index applies
+     */
+    public Collection<T> candidates(CompiledQuery<T> query) {
+        return resolve(indexes.candidates(query.getField(), query.getOperator(), query.getValue()));
+    }
+
+    /**
+     * Narrows a substring search to candidates from the field's index.
+     * @param field The field name or alias
+     * @param value The substring to find
+     * @return Candidates to verify; all entities when the field is not indexed
+     */
+    public Collection<T> substringCandidates(String field, String value) {
+        return resolve(indexes.substringCandidates(schema.canonicalName(field), value));
+    }
+
+    /**
+     * Looks up candidate IDs produced by an index.
+     * @param ids Candidate IDs, or null when no index applied
+     * @return The candidates; all entities when ids is null
+     */
+    public Collection<T> resolve(Set<String> ids) {
+        if (ids == null) {
+            return view.get();
+        }
+        List<T> candidates = new ArrayList<>(ids.size());
+        for (String id : ids) {
+            T entity = lookup.apply(id);
+            if (entity != null) {
+                candidates.add(entity);
+            }
+        }
+        return candidates;
+    }
+
+    /**
+     * An index access path with its estimated number of candidates.
+     */
+    private static final class Access {
+        private final String description;
+        private final int estimate;
+        private final Supplier<Set<String>> ids;
+
+        private Access(String description, int estimate, Supplier<Set<String>> ids) {
+            this.description = description;
+            this.estimate = estimate;
+            this.ids = ids;
+        }
+    }
+}
@@ -0,0 +1,91 @@
+package com.ccrm.query;
+
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.List;
+import java.util.function.Predicate;
+import java.util.function.Supplier;
+import java.util.stream.Stream;
+
+/**
+ * How a condition will be evaluated: the access path that supplies the
+ * candidate rows, and the compiled filter every candidate must pass.
+ * @param <T> The type of entities searched
+ */
+public final class QueryPlan<T> {
+    private final Condition condition;
+    private final String accessPath;
+    private final int estimatedRows;
+    private final Supplier<Collection<T>> source;
+    private final Predicate<T> filter;
+
+    QueryPlan(Condition condition, String accessPath, int estimatedRows,
+              Supplier<Collection<T>> source, Predicate<T> filter) {
+        this.condition = condition;
+        this.accessPath = accessPath;
+        this.estimatedRows = estimatedRows;
+        this.source = source;
+        this.filter = filter;
+    }
+
+    public Condition getCondition() {
+        return condition;
+    }
+
+    /**
+     * Describes the access path, e.g. the index lookup that drives the query.
+     * @return The access path description
+     */
+    public String getAccessPath() {
+        return accessPath;
+    }
+
+    /**
+     * Gets the estimated number of candidate rows the access path supplies.
+     * @return The estimate
+     */
+    public int getEstimatedRows() {
+        return estimatedRows;
+    }
+
+    /**
+     * Runs the plan, in parallel when the candidates are many.
+     * @return Matching entities
+     * @throws com.ccrm.exceptions.QueryTimeoutException if a parallel scan exceeds its time limit
+     */
+    public List<T> execute() {
+        return ParallelScanExecutor.getInstance().filter(source.get(), filter);
+    }
+
+    /**
+     * Runs the plan lazily; rows are filtered as the stream is consumed.
+     * @return Stream of matching entities
+     */
+    public Stream<T> stream() {
+        return source.get().stream().filter(filter);
+    }
+
+    /**
+     * Runs the plan keeping only the first matches in an order.
+     * @param order The order of the result
+     * @param limit Maximum number of matches to return
+     * @return The first matches in order
+     */
+    public List<T> top(Comparator<? super T> order, int limit) {
+        return top(entity -> true, order, limit);
+    }
+
+    /**
+     * Runs the plan with an extra filter, keeping only the first matches in an order.
+     * Large scans keep one bounded heap per worker and merge them.
+     */
+    List<T> top(Predicate<? super T> extraFilter, Comparator<? super T> order, int limit) {
+        return ParallelScanExecutor.getInstance().collect(source.get(), filter.and(extraFilter),
+                                                          BoundedHeap.collector(order, limit));
+    }
+
+    @Override
+    public String toString() {
+        return accessPath + " (~" + estimatedRows + " rows), filter " + condition;
+    }
+}
@@ -0,0 +1,75 @@
+package com.ccrm.query;
+
+import com.ccrm.interfaces.Searchable.SearchOperator;
+import java.util.function.Function;
+import java.util.function.Predicate;
+
+/**
+ * Case-insensitive text comparisons compiled once per criterion.
+ * Matching uses region comparisons, so no row is lowercased or copied.
+ */
+final class TextMatchers {
+    private TextMatchers() {
+    }
+
+    /**
+     * Compiles a text comparison on a field.
+     * @param accessor Reads the field's text, never null
+     * @param operator EQUALS, CONTAINS, STARTS_WITH or ENDS_WITH
+     * @param value The search value
+     * @return The matcher
+     */
+    static <T> Predicate<T> forField(Function<T, String> accessor, SearchOperator operator, String value) {
+        final int length = value.length();
+        switch (operator) {
+            case EQUALS:
+                return entity -> accessor.apply(entity).equalsIgnoreCase(value);
+            case CONTAINS:
+                if (length == 0) {
+                    return entity -> true;
+                }
+                return entity -> contains(accessor.apply(entity), value);
+            case STARTS_WITH:
+                return entity -> accessor.apply(entity).regionMatches(true, 0, value, 0, length);
+            case ENDS_WITH:
+                return entity -> {
+                    String text = accessor.apply(entity);
+                    return text.regionMatches(true, text.length() - length, value, 0, length);
+                };
+            default:
+                return entity -> false;
+        }
+    }
+
+    /**
+     * Compiles a comparison whose left side is the same for every row.
+     * @param constant The field text
+     * @param operator The search operator
+     * @param value The search value
+     * @return A matcher that always gives the same answer
+     */
+    static <T> Predicate<T> forConstant(String constant, SearchOperator operator, String value) {
+        boolean matches;
+        switch (operator) {
+            case EQUALS:
+            case CONTAINS:
+            case STARTS_WITH:
+            case ENDS_WITH:
+                matches = TextMatchers.<String>forField(text -> text, operator, value).test(constant);
+                break;
+            default:
+                matches = false;
+        }
+        return entity -> matches;
+    }
+
+    private static boolean contains(String text, String value) {
+        int length = value.length();
+        for (int i = 0, last = text.length() - length; i <= last; i++) {
+            if (text.regionMatches(true, i, value, 0, length)) {
+                return true;
+            }
+        }
+        return false;
+    }
+}
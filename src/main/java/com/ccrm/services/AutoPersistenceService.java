@@ -0,0 +1,659 @@
+package com.ccrm.services;
+
+import com.ccrm.core.BulkLoadReport;
+import com.ccrm.core.DataStore;
+import com.ccrm.core.EnrollmentHistory;
+import com.ccrm.enums.ChangeType;
+import com.ccrm.enums.DuplicatePolicy;
+import com.ccrm.enums.EntityType;
+import com.ccrm.interfaces.DataChangeListener;
+import com.ccrm.model.Course;
+import com.ccrm.model.Enrollment;
+import com.ccrm.model.Student;
+import com.ccrm.utils.CSVUtils;
+import com.ccrm.utils.EnrollmentColumnFile;
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.EnumMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Background persistence service with dirty tracking.
+ * Mutations only mark entity IDs dirty; a dedicated thread periodically
+ * writes the changed records to append-only segment files and folds the
+ * segments back into the base CSV files once enough have accumulated.
+ *
+ * On-disk layout under the data directory:
+ * <ul>
+ *   <li>{@code students.csv}, {@code courses.csv}, {@code enrollments.csv} - base files</li>
+ *   <li>{@code segments/segment-NNNNNNNN.csv} - delta rows: {@code EntityType,Op,Record}</li>
+ *   <li>{@code segments/checkpoint-NNNNNNNN} - marks that base {@code .tmp} files
+ *       written by a compaction supersede every segment up to NNNNNNNN</li>
+ *   <li>optionally a columnar enrollment archive, rewritten with the base
+ *       files; see {@link #keepArchive(String)}</li>
+ * </ul>
+ */
+public class AutoPersistenceService implements DataChangeListener {
+    private static final String SEGMENT_DIR = "segments";
+    private static final String SEGMENT_PREFIX = "segment-";
+    private static final String CHECKPOINT_PREFIX = "checkpoint-";
+    private static final String SEGMENT_SUFFIX = ".csv";
+    private static final String TMP_SUFFIX = ".tmp";
+    private static final String SEGMENT_HEADER = "EntityType,Op,Record";
+    private static final String OP_UPSERT = "U";
+    private static final String OP_DELETE = "D";
+    private static final String OP_CLEAR = "C";
+    private static final String ALL_ENTITIES = "ALL";
+
+    private static final Map<EntityType, String> BASE_FILES = new EnumMap<>(EntityType.class);
+    static {
+        BASE_FILES.put(EntityType.STUDENT, "students.csv");
+        BASE_FILES.put(EntityType.COURSE, "courses.csv");
+        BASE_FILES.put(EntityType.ENROLLMENT, "enrollments.csv");
+    }
+
+    private final DataStore dataStore;
+    private final Path dataDir;
+    private final Path segmentDir;
+    private final long flushIntervalMillis;
+    private final int flushThreshold;
+    private final int compactionThreshold;
+
+    // Dirty IDs per persisted entity type; instructors have no file format.
+    // Guarded by stateLock, which is never held during I/O, so listeners
+    // on the caller's thread do not wait for a flush to reach the disk.
+    private final Map<EntityType, Set<String>> dirty;
+    private boolean clearPending;
+    private final Object stateLock;
+    private final AtomicInteger dirtyCount;
+    private final AtomicBoolean flushScheduled;
+    private final Object flushLock;
+    private ScheduledExecutorService executor;
+
+    // Why base files must not be rewritten, or null; see holdCompaction
+    private volatile String compactionHold;
+    // Columnar enrollment archive kept current by compaction, or null
+    private volatile String archiveFile;
+
+    // Only accessed under flushLock
+    private long lastSegment;
+    private int segmentCount;
+
+    /**
+     * Creates a persistence service.
+     * @param dataDir Directory holding the base CSV files
+     * @param flushIntervalMillis Maximum time between flushes
+     * @param flushThreshold Number of dirty records that triggers an early flush
+     * @param compactionThreshold Number of segments that triggers a compaction
+     */
+    public AutoPersistenceService(String dataDir, long flushIntervalMillis, int flushThreshold, int compactionThreshold) {
+        this.dataStore = DataStore.getInstance();
+        this.dataDir = Paths.get(dataDir);
+        this.segmentDir = this.dataDir.resolve(SEGMENT_DIR);
+        this.flushIntervalMillis = flushIntervalMillis;
+        this.flushThreshold = flushThreshold;
+        this.compactionThreshold = compactionThreshold;
+        this.dirty = new EnumMap<>(EntityType.class);
+        for (EntityType type : BASE_FILES.keySet()) {
+            dirty.put(type, new HashSet<>());
+        }
+        this.stateLock = new Object();
+        this.dirtyCount = new AtomicInteger();
+        this.flushScheduled = new AtomicBoolean();
+        this.flushLock = new Object();
+    }
+
+    /**
+     * Completes any compaction interrupted by a crash.
+     * Must run before the base CSV files are loaded.
+     * @throws IOException if the segment directory cannot be read or repaired
+     */
+    public void recover() throws IOException {
+        Files.createDirectories(segmentDir);
+        synchronized (flushLock) {
+            for (Path checkpoint : listFiles(CHECKPOINT_PREFIX)) {
+                finishCompaction(sequenceOf(checkpoint, CHECKPOINT_PREFIX), checkpoint);
+            }
+            // Leftovers of a flush or compaction that never committed
+            try (DirectoryStream<Path> stream = Files.newDirectoryStream(segmentDir, "*" + TMP_SUFFIX)) {
+                for (Path tmp : stream) {
+                    Files.delete(tmp);
+                }
+            }
+            for (EntityType type : BASE_FILES.keySet()) {
+                Files.deleteIfExists(tmpBase(type));
+            }
+            if (archiveFile != null) {
+                Files.deleteIfExists(tmpArchive());
+            }
+        }
+    }
+
+    /**
+     * Keeps a columnar enrollment archive in the data directory in step with
+     * the enrollment base file. Each compaction rewrites the archive from the
+     * new base file and moves the store's attached history onto it, so a
+     * lazy startup never finds the archive older than the base file.
+     * Call before {@link #recover()}.
+     * @param fileName Archive file name within the data directory
+     */
+    public void keepArchive(String fileName) {
+        this.archiveFile = fileName;
+    }
+
+    /**
+     * Replays outstanding segments into the store, then starts tracking
+     * changes and flushing on the background thread.
+     * Call after the base CSV files have been loaded.
+     * @return Number of delta rows replayed
+     * @throws IOException if a segment cannot be read
+     */
+    public int start() throws IOException {
+        int replayed = 0;
+        synchronized (flushLock) {
+            List<Path> segments = listFiles(SEGMENT_PREFIX);
+            for (Path segment : segments) {
+                replayed += replaySegment(segment);
+                lastSegment = Math.max(lastSegment, sequenceOf(segment, SEGMENT_PREFIX));
+            }
+            segmentCount = segments.size();
+        }
+
+        dataStore.addChangeListener(this);
+        executor = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "ccrm-persistence");
+            thread.setDaemon(true);
+            return thread;
+        });
+        executor.scheduleWithFixedDelay(this::flushQuietly, flushIntervalMillis, flushIntervalMillis, TimeUnit.MILLISECONDS);
+        if (segmentCount >= compactionThreshold) {
+            executor.execute(this::compactQuietly);
+        }
+        return replayed;
+    }
+
+    /**
+     * Flushes pending changes and stops the background thread.
+     * @throws IOException if the final flush fails
+     */
+    public void shutdown() throws IOException {
+        dataStore.removeChangeListener(this);
+        if (executor == null) {
+            return;
+        }
+        try {
+            awaitOnExecutor(this::flush);
+        } finally {
+            executor.shutdown();
+        }
+    }
+
+    /**
+     * Flushes pending changes and rewrites the base CSV files from the store,
+     * waiting for completion. Used by explicit export requests.
+     * @throws IOException if writing fails, or compaction is held; the
+     *         pending changes are flushed either way
+     */
+    public void checkpoint() throws IOException {
+        awaitOnExecutor(() -> {
+            String hold = compactionHold;
+            if (hold != null) {
+                flush();
+                throw new IOException("Saved data files are kept unchanged: " + hold);
+            }
+            flush();
+            compact();
+        });
+    }
+
+    /**
+     * Stops compactions from rewriting the base files and dropping segments,
+     * because they hold rows the store could not load and a rewrite from the
+     * store would lose them. Changes are still saved to new segments.
+     * @param reason Why the files must be kept, shown to the user
+     */
+    public void holdCompaction(String reason) {
+        String current = compactionHold;
+        compactionHold = current != null ? current + "; " + reason : reason;
+    }
+
+    /**
+     * Allows compactions again, once the user accepts that rows which could
+     * not be loaded are dropped from the files.
+     */
+    public void releaseCompaction() {
+        compactionHold = null;
+    }
+
+    /**
+     * Gets why compaction is held.
+     * @return The reason, or null if compactions run normally
+     */
+    public String getCompactionHold() {
+        return compactionHold;
+    }
+
+    /**
+     * Gets the number of changed records not yet written to disk.
+     * @return Pending record count
+     */
+    public int getPendingChangeCount() {
+        return dirtyCount.get();
+    }
+
+    // DataChangeListener implementation - never touches disk
+    @Override
+    public void onStudentChanged(Student student, ChangeType changeType) {
+        markDirty(EntityType.STUDENT, student.getId());
+    }
+
+    @Override
+    public void onCourseChanged(Course course, ChangeType changeType) {
+        markDirty(EntityType.COURSE, course.getCourseId());
+    }
+
+    @Override
+    public void onEnrollmentChanged(Enrollment enrollment, ChangeType changeType) {
+        markDirty(EntityType.ENROLLMENT, enrollment.getEnrollmentId());
+    }
+
+    @Override
+    public void onDataCleared() {
+        // The next flush writes the clear marker ahead of every ID it drains;
+        // marker and IDs are taken together, so no later change precedes it
+        synchronized (stateLock) {
+            clearPending = true;
+        }
+        requestFlush();
+    }
+
+    private void markDirty(EntityType type, String id) {
+        boolean added;
+        synchronized (stateLock) {
+            added = dirty.get(type).add(id);
+        }
+        if (added && dirtyCount.incrementAndGet() >= flushThreshold) {
+            requestFlush();
+        }
+    }
+
+    private void requestFlush() {
+        if (executor != null && flushScheduled.compareAndSet(false, true)) {
+            executor.execute(this::flushQuietly);
+        }
+    }
+
+    private void flushQuietly() {
+        try {
+            flush();
+            if (segmentCount >= compactionThreshold) {
+                compact();
+            }
+        } catch (IOException e) {
+            System.err.println("Auto-persistence failed: " + e.getMessage());
+        }
+    }
+
+    private void compactQuietly() {
+        try {
+            compact();
+        } catch (IOException e) {
+            System.err.println("Auto-persistence compaction failed: " + e.getMessage());
+        }
+    }
+
+    /**
+     * Writes every dirty record to a new segment file.
+     * IDs are drained before the entity is read, so a concurrent change
+     * re-marks the record and is picked up by the next flush.
+     */
+    private void flush() throws IOException {
+        synchronized (flushLock) {
+            flushScheduled.set(false);
+            boolean clear;
+            Map<EntityType, Set<String>> drained = new EnumMap<>(EntityType.class);
+            synchronized (stateLock) {
+                clear = clearPending;
+                clearPending = false;
+                for (Map.Entry<EntityType, Set<String>> entry : dirty.entrySet()) {
+                    drained.put(entry.getKey(), entry.getValue());
+                    dirtyCount.addAndGet(-entry.getValue().size());
+                    entry.setValue(new HashSet<>());
+                }
+            }
+            long sequence = lastSegment + 1;
+            Path tmp = segmentDir.resolve(segmentName(sequence) + TMP_SUFFIX);
+            int rows = 0;
+
+            try {
+                try (BufferedWriter writer = Files.newBufferedWriter(tmp, StandardCharsets.UTF_8)) {
+                    StringBuilder row = new StringBuilder(256);
+                    writer.write(SEGMENT_HEADER);
+                    writer.newLine();
+                    if (clear) {
+                        writer.write(ALL_ENTITIES + "," + OP_CLEAR + ",");
+                        writer.newLine();
+                        rows++;
+                    }
+                    for (Map.Entry<EntityType, Set<String>> entry : drained.entrySet()) {
+                        EntityType type = entry.getKey();
+                        for (String id : entry.getValue()) {
+                            row.setLength(0);
+                            appendDeltaRow(row, type, id);
+                            writer.write(row.toString());
+                            writer.newLine();
+                            rows++;
+                        }
+                    }
+                }
+            } catch (IOException e) {
+                // Put drained records back so the next flush retries them
+                if (clear) {
+                    synchronized (stateLock) {
+                        clearPending = true;
+                    }
+                }
+                drained.forEach((type, ids) -> ids.forEach(id -> markDirty(type, id)));
+                Files.deleteIfExists(tmp);
+                throw e;
+            }
+
+            if (rows == 0) {
+                Files.deleteIfExists(tmp);
+                return;
+            }
+            Files.move(tmp, segmentDir.resolve(segmentName(sequence)), StandardCopyOption.ATOMIC_MOVE);
+            lastSegment = sequence;
+            segmentCount++;
+        }
+    }
+
+    private void appendDeltaRow(StringBuilder row, EntityType type, String id) {
+        row.append(type.name()).append(',');
+        switch (type) {
+            case STUDENT: {
+                Student student = dataStore.getStudent(id);
+                if (student != null) {
+                    CSVUtils.appendStudentRow(row.append(OP_UPSERT).append(','), student);
+                    return;
+                }
+                break;
+            }
+            case COURSE: {
+                Course course = dataStore.getCourse(id);
+                if (course != null) {
+                    CSVUtils.appendCourseRow(row.append(OP_UPSERT).append(','), course);
+                    return;
+                }
+                break;
+            }
+            case ENROLLMENT: {
+                Enrollment enrollment = dataStore.getEnrollment(id);
+                if (enrollment != null) {
+                    CSVUtils.appendEnrollmentRow(row.append(OP_UPSERT).append(','), enrollment);
+                    return;
+                }
+                break;
+            }
+            default:
+                break;
+        }
+        CSVUtils.appendEscaped(row.append(OP_DELETE).append(','), id);
+    }
+
+    /**
+     * Rewrites the base files from the store and drops folded segments.
+     * The base files are first written as {@code .tmp} siblings; a checkpoint
+     * marker then commits them, so a crash at any point either leaves the
+     * old base plus all segments or is completed by {@link #recover()}.
+     */
+    private void compact() throws IOException {
+        synchronized (flushLock) {
+            if (segmentCount == 0 || compactionHold != null) {
+                return;
+            }
+            long upTo = lastSegment;
+            CSVUtils.exportStudentsToCSV(dataStore.getStudentsView(), tmpBase(EntityType.STUDENT).toString());
+            CSVUtils.exportCoursesToCSV(dataStore.getCoursesView(), tmpBase(EntityType.COURSE).toString());
+            CSVUtils.exportEnrollmentsToCSV(dataStore.getEnrollmentsWithHistory(), tmpBase(EntityType.ENROLLMENT).toString());
+            if (archiveFile != null) {
+                // Written after the base file, so the archive is never older than it
+                EnrollmentColumnFile.writeFromCSV(tmpBase(EntityType.ENROLLMENT).toString(), tmpArchive().toString());
+            }
+
+            Path checkpoint = segmentDir.resolve(String.format("%s%08d", CHECKPOINT_PREFIX, upTo));
+            Files.createFile(checkpoint);
+            finishCompaction(upTo, checkpoint);
+            segmentCount = listFiles(SEGMENT_PREFIX).size();
+            reattachArchive();
+        }
+    }
+
+    /**
+     * Moves the attached history onto the rewritten archive. The old history
+     * keeps serving until the swap and is closed by the store afterwards.
+     */
+    private void reattachArchive() throws IOException {
+        EnrollmentHistory history = dataStore.getEnrollmentHistory();
+        if (archiveFile == null || history == null) {
+            return;
+        }
+        EnrollmentHistory rewritten = history.reopen(EnrollmentColumnFile.open(dataDir.resolve(archiveFile).toString()));
+        if (!dataStore.replaceEnrollmentHistory(history, rewritten)) {
+            // Cleared or replaced meanwhile; the archive must not bring old rows back
+            rewritten.close();
+        }
+    }
+
+    private void finishCompaction(long upTo, Path checkpoint) throws IOException {
+        for (EntityType type : BASE_FILES.keySet()) {
+            Path tmp = tmpBase(type);
+            if (Files.exists(tmp)) {
+                Files.move(tmp, dataDir.resolve(BASE_FILES.get(type)),
+                        StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            }
+        }
+        if (archiveFile != null && Files.exists(tmpArchive())) {
+            Files.move(tmpArchive(), dataDir.resolve(archiveFile),
+                    StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        }
+        for (Path segment : listFiles(SEGMENT_PREFIX)) {
+            if (sequenceOf(segment, SEGMENT_PREFIX) <= upTo) {
+                Files.delete(segment);
+            }
+        }
+        Files.delete(checkpoint);
+    }
+
+    /**
+     * Replays one segment. Student upserts are applied as one batch, so keys
+     * handed from one student to another within the segment are accepted in
+     * whatever order the rows were written.
+     */
+    private int replaySegment(Path segment) throws IOException {
+        int replayed = 0;
+        int lineNumber = 1;
+        List<Student> studentBatch = new ArrayList<>();
+        try (BufferedReader reader = CSVUtils.openReader(segment.toString())) {
+            reader.readLine(); // Skip header
+            String line;
+            while ((line = reader.readLine()) != null) {
+                lineNumber++;
+                if (line.isEmpty()) continue;
+                try {
+                    if (replayRow(line, studentBatch, segment)) {
+                        replayed++;
+                        continue;
+                    }
+                } catch (RuntimeException e) {
+                    // Malformed values, e.g. an unparseable date or unknown entity type
+                }
+                System.err.println("Skipped malformed row " + lineNumber + " of " + segment.getFileName() + ": " + line);
+            }
+        }
+        replayStudents(studentBatch, segment);
+        return replayed;
+    }
+
+    /**
+     * Applies one delta row to the store, or adds a student upsert to the batch.
+     * @return false if the row is malformed and was not applied
+     */
+    private boolean replayRow(String line, List<Student> studentBatch, Path segment) {
+        int first = line.indexOf(',');
+        int second = first >= 0 ? line.indexOf(',', first + 1) : -1;
+        if (second < 0) {
+            return false;
+        }
+        String op = line.substring(first + 1, second);
+        String[] fields = CSVUtils.parseCSVLine(line.substring(second + 1));
+        if (OP_CLEAR.equals(op)) {
+            replayStudents(studentBatch, segment);
+            dataStore.clearAllData();
+            return true;
+        }
+        EntityType type = EntityType.valueOf(line.substring(0, first));
+        if (OP_DELETE.equals(op)) {
+            applyDelete(type, fields[0]);
+            return true;
+        }
+        if (type == EntityType.STUDENT) {
+            Student student = CSVUtils.parseStudent(fields);
+            if (student != null) {
+                studentBatch.add(student);
+            }
+            return student != null;
+        }
+        return applyUpsert(type, fields);
+    }
+
+    private void replayStudents(List<Student> studentBatch, Path segment) {
+        if (studentBatch.isEmpty()) {
+            return;
+        }
+        BulkLoadReport report = dataStore.bulkLoadStudents(studentBatch, DuplicatePolicy.UPSERT);
+        studentBatch.clear();
+        if (report.getRejectedCount() == 0) {
+            return;
+        }
+        for (BulkLoadReport.Rejection rejection : report.getRejections()) {
+            System.err.println("Skipped saved change to student " + rejection.getKey() + " in " + 
+                             segment.getFileName() + ": " + rejection.getReason());
+        }
+        holdCompaction(report.getRejectedCount() + " saved student changes in " + segment.getFileName() + 
+                       " conflict with other students");
+    }
+
+    private boolean applyUpsert(EntityType type, String[] fields) {
+        switch (type) {
+            case COURSE: {
+                Course course = CSVUtils.parseCourse(fields);
+                if (course != null) {
+                    dataStore.addCourse(course);
+                }
+                return course != null;
+            }
+            case ENROLLMENT: {
+                Enrollment enrollment = CSVUtils.parseEnrollment(fields);
+                if (enrollment != null) {
+                    dataStore.addEnrollment(enrollment);
+                }
+                return enrollment != null;
+            }
+            default:
+                return false;
+        }
+    }
+
+    private void applyDelete(EntityType type, String id) {
+        switch (type) {
+            case STUDENT:
+                dataStore.removeStudent(id);
+                break;
+            case COURSE:
+                dataStore.removeCourse(id);
+                break;
+            case ENROLLMENT:
+                dataStore.removeEnrollment(id);
+                break;
+            default:
+                break;
+        }
+    }
+
+    private void awaitOnExecutor(IOAction action) throws IOException {
+        if (executor == null) {
+            action.run();
+            return;
+        }
+        try {
+            executor.submit(() -> {
+                action.run();
+                return null;
+            }).get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IOException("Interrupted while waiting for persistence", e);
+        } catch (ExecutionException e) {
+            Throwable cause = e.getCause();
+            throw cause instanceof IOException ? (IOException) cause : new IOException(cause);
+        }
+    }
+
+    private List<Path> listFiles(String prefix) throws IOException {
+        List<Path> files = new ArrayList<>();
+        try (DirectoryStream<Path> stream = Files.newDirectoryStream(segmentDir, prefix + "*")) {
+            for (Path file : stream) {
+                if (!file.getFileName().toString().endsWith(TMP_SUFFIX)) {
+                    files.add(file);
+                }
+            }
+        }
+        Collections.sort(files);
+        return files;
+    }
+
+    private Path tmpBase(EntityType type) {
+        return dataDir.resolve(BASE_FILES.get(type) + TMP_SUFFIX);
+    }
+
+    private Path tmpArchive() {
+        return dataDir.resolve(archiveFile + TMP_SUFFIX);
+    }
+
+    private static String segmentName(long sequence) {
+        return String.format("%s%08d%s", SEGMENT_PREFIX, sequence, SEGMENT_SUFFIX);
+    }
+
+    private static long sequenceOf(Path file, String prefix) {
+        String name = file.getFileName().toString();
+        int end = name.endsWith(SEGMENT_SUFFIX) ? name.length() - SEGMENT_SUFFIX.length() : name.length();
+        return Long.parseLong(name.substring(prefix.length(), end));
+    }
+
+    /**
+     * I/O step run on the persistence thread.
+     */
+    @FunctionalInterface
+    private interface IOAction {
+        void run() throws IOException;
+    }
+}
@@ -3,13 +3,25 @@ package com.ccrm.services;
 import com.ccrm.core.DataStore;
 import com.ccrm.model.Course;
 import com.ccrm.exceptions.CourseNotFoundException;
+import com.ccrm.enums.EntityType;
+import com.ccrm.index.EntityIndexes;
+import com.ccrm.index.IndexRegistry;
+import com.ccrm.query.Condition;
+import com.ccrm.query.EntitySchemas;
+import com.ccrm.query.Page;
+import com.ccrm.query.ParallelScanExecutor;
+import com.ccrm.query.QueryEngine;
+import com.ccrm.query.QueryPlan;
 import com.ccrm.interfaces.Searchable;
 import com.ccrm.interfaces.Searchable.SearchCriteria;
 import com.ccrm.interfaces.Searchable.Predicate;
 import com.ccrm.enums.Department;
 import com.ccrm.enums.Semester;
+import java.util.ArrayList;
 import java.util.List;
+import java.util.Objects;
 import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
 /**
  * Service class for course management operations.
@@ -17,9 +29,14 @@ import java.util.stream.Collectors;
  */
 public class CourseService implements Searchable<Course> {
     private final DataStore dataStore;
+    private final EntityIndexes<Course> indexes;
+    private final QueryEngine<Course> queryEngine;
 
     public CourseService() {
         this.dataStore = DataStore.getInstance();
+        this.indexes = IndexRegistry.getInstance().getCourseIndexes();
+        this.queryEngine = new QueryEngine<>(EntityType.COURSE, EntitySchemas.COURSES, indexes, 
+                                            dataStore::getCourse, dataStore::getCoursesView);
     }
 
     /**
@@ -82,6 +99,7 @@ public class CourseService implements Searchable<Course> {
     public void deactivateCourse(String courseId) throws CourseNotFoundException {
         Course course = getCourseById(courseId);
         course.setActive(false);
+        dataStore.updateCourse(course);
     }
 
     /**
@@ -90,7 +108,8 @@ public class CourseService implements Searchable<Course> {
      * @return List of courses in the department
      */
     public List<Course> getCoursesByDepartment(Department department) {
-        return dataStore.getCoursesByDepartment(department.name());
+        return queryEngine.cached("department " + department.name(),
+                                  () -> dataStore.getCoursesByDepartment(department.name()));
     }
 
     /**
@@ -99,7 +118,8 @@ public class CourseService implements Searchable<Course> {
      * @return List of courses in the semester
      */
     public List<Course> getCoursesBySemester(Semester semester) {
-        return dataStore.getCoursesBySemester(semester.name());
+        return queryEngine.cached("semester " + semester.name(),
+                                  () -> dataStore.getCoursesBySemester(semester.name()));
     }
 
     /**
@@ -136,7 +156,11 @@ public class CourseService implements Searchable<Course> {
     // Searchable interface implementation
     @Override
     public List<Course> searchByField(String field, String value) {
-        return dataStore.getAllCourses().stream()
+        return queryEngine.cached(fieldSearchKey(field, value), () -> scanByField(field, value));
+    }
+
+    private List<Course> scanByField(String field, String value) {
+        return queryEngine.substringCandidates(field, value).stream()
                 .filter(course -> {
                     switch (field.toLowerCase()) {
                         case "courseid":
@@ -147,6 +171,9 @@ public class CourseService implements Searchable<Course> {
                             return course.getCourseCode().toLowerCase().contains(value.toLowerCase());
                         case "title":
                             return course.getTitle().toLowerCase().contains(value.toLowerCase());
+                        case "description":
+                            return course.getDescription() != null && 
+                                   course.getDescription().toLowerCase().contains(value.toLowerCase());
                         case "instructorid":
                         case "instructor":
                             return course.getInstructorId().toLowerCase().contains(value.toLowerCase());
@@ -166,89 +193,72 @@ public class CourseService implements Searchable<Course> {
                 .collect(Collectors.toList());
     }
 
-    @Override
-    public List<Course> searchByCriteria(SearchCriteria criteria) {
-        return dataStore.getAllCourses().stream()
-                .filter(course -> {
-                    String fieldValue = getFieldValue(course, criteria.getField());
-                    return matchesCriteria(fieldValue, criteria.getValue(), criteria.getOperator());
-                })
-                .collect(Collectors.toList());
+    private static String fieldSearchKey(String field, String value) {
+        return "field " + field.toLowerCase() + ' ' + value.length() + ':' + value.toLowerCase();
     }
 
-    @Override
-    public List<Course> filter(Predicate<Course> predicate) {
-        return dataStore.getAllCourses().stream()
-                .filter(predicate::test)
+    /**
+     * Searches the catalog by title and description keywords using the token index.
+     * Each term matches words that start with it, e.g. "data struct".
+     * @param query The search terms
+     * @param matchAll true to require all terms, false to match any term
+     * @return Matching courses ordered by ID
+     */
+    public List<Course> searchByKeywords(String query, boolean matchAll) {
+        return indexes.searchKeywords(query, matchAll, "title", "description").stream()
+                .sorted()
+                .map(dataStore::getCourse)
+                .filter(Objects::nonNull)
                 .collect(Collectors.toList());
     }
 
     /**
-     * Gets the value of a field from a course object.
-     * @param course The course object
-     * @param field The field name
-     * @return The field value as string
+     * Suggests courses whose code starts with what has been typed so far.
+     * @param prefix The typed prefix, case-insensitive
+     * @param limit Maximum number of suggestions
+     * @return Matching courses in course code order
      */
-    private String getFieldValue(Course course, String field) {
-        switch (field.toLowerCase()) {
-            case "courseid":
-            case "id":
-                return course.getCourseId();
-            case "coursecode":
-            case "code":
-                return course.getCourseCode();
-            case "title":
-                return course.getTitle();
-            case "instructorid":
-            case "instructor":
-                return course.getInstructorId();
-            case "department":
-                return course.getDepartment().name();
-            case "semester":
-                return course.getSemester().name();
-            case "active":
-                return String.valueOf(course.isActive());
-            case "credits":
-            case "credithours":
-                return String.valueOf(course.getCreditHours());
-            case "description":
-                return course.getDescription() != null ? course.getDescription() : "";
-            default:
-                return "";
-        }
+    public List<Course> suggestByCourseCode(String prefix, int limit) {
+        return new ArrayList<>(queryEngine.resolve(indexes.getSortedIndex("code").withPrefix(prefix, limit)));
+    }
+
+    @Override
+    public List<Course> searchByCriteria(SearchCriteria criteria) {
+        return queryEngine.search(criteria);
+    }
+
+    @Override
+    public List<Course> searchByCondition(Condition condition) {
+        return queryEngine.search(condition);
+    }
+
+    @Override
+    public Stream<Course> streamByCondition(Condition condition) {
+        return queryEngine.stream(condition);
+    }
+
+    @Override
+    public Page<Course> searchPage(Condition condition, int limit, String pageToken) {
+        return queryEngine.page(condition, limit, pageToken);
+    }
+
+    @Override
+    public List<Course> searchTop(Condition condition, String field, boolean descending, int limit) {
+        return queryEngine.top(condition, field, descending, limit);
     }
 
     /**
-     * Checks if a field value matches the criteria.
-     * @param fieldValue The field value
-     * @param searchValue The search value
-     * @param operator The search operator
-     * @return true if matches
+     * Plans a condition without running it, to show which index drives it.
+     * @param condition The condition
+     * @return The query plan
      */
-    private boolean matchesCriteria(String fieldValue, String searchValue, Searchable.SearchOperator operator) {
-        switch (operator) {
-            case EQUALS:
-                return fieldValue.equalsIgnoreCase(searchValue);
-            case CONTAINS:
-                return fieldValue.toLowerCase().contains(searchValue.toLowerCase());
-            case STARTS_WITH:
-                return fieldValue.toLowerCase().startsWith(searchValue.toLowerCase());
-            case ENDS_WITH:
-                return fieldValue.toLowerCase().endsWith(searchValue.toLowerCase());
-            case GREATER_THAN:
-                try {
-                    return Double.parseDouble(fieldValue) > Double.parseDouble(searchValue);
-                } catch (NumberFormatException e) {
-                    return false;
-                }
-            case LESS_THAN:
-                try {
-                    return Double.parseDouble(fieldValue) < Double.parseDouble(searchValue);
-                } catch (NumberFormatException e) {
-                    return false;
-                }
-            default:
-                return false;
-        }
+    public QueryPlan<Course> explain(Condition condition) {
+        return queryEngine.plan(condition);
     }
+
+    @Override
+    public List<Course> filter(Predicate<Course> predicate) {
+        return ParallelScanExecutor.getInstance().filter(dataStore.getCoursesView(), predicate::test);
+    }
+
 }
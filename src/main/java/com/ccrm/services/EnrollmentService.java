@@ -5,12 +5,21 @@ import com.ccrm.model.Enrollment;
 import com.ccrm.model.Student;
 import com.ccrm.model.Course;
 import com.ccrm.exceptions.*;
+import com.ccrm.enums.EntityType;
+import com.ccrm.index.EntityIndexes;
+import com.ccrm.index.IndexRegistry;
+import com.ccrm.query.Condition;
+import com.ccrm.query.EntitySchemas;
+import com.ccrm.query.Page;
+import com.ccrm.query.ParallelScanExecutor;
+import com.ccrm.query.QueryEngine;
 import com.ccrm.interfaces.Searchable;
 import com.ccrm.interfaces.Searchable.SearchCriteria;
 import com.ccrm.interfaces.Searchable.Predicate;
 import java.util.List;
 import java.util.UUID;
 import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
 /**
  * Service class for enrollment and grading operations.
@@ -18,9 +27,14 @@ import java.util.stream.Collectors;
  */
 public class EnrollmentService implements Searchable<Enrollment> {
     private final DataStore dataStore;
+    private final EntityIndexes<Enrollment> indexes;
+    private final QueryEngine<Enrollment> queryEngine;
 
     public EnrollmentService() {
         this.dataStore = DataStore.getInstance();
+        this.indexes = IndexRegistry.getInstance().getEnrollmentIndexes();
+        this.queryEngine = new QueryEngine<>(EntityType.ENROLLMENT, EntitySchemas.ENROLLMENTS, indexes, 
+                                            dataStore::getEnrollment, dataStore::getEnrollmentsView);
     }
 
     /**
@@ -73,6 +87,7 @@ public class EnrollmentService implements Searchable<Enrollment> {
         
         // Update student's enrolled courses
         student.enrollInCourse(courseId);
+        dataStore.updateStudent(student);
         
         return enrollment;
     }
@@ -109,7 +124,9 @@ public class EnrollmentService implements Searchable<Enrollment> {
         }
         
         enrollment.withdraw();
+        dataStore.updateEnrollment(enrollment);
         student.unenrollFromCourse(courseId);
+        dataStore.updateStudent(student);
     }
 
     /**
@@ -151,10 +168,12 @@ public class EnrollmentService implements Searchable<Enrollment> {
         }
         
         enrollment.recordGrade(numericGrade);
+        dataStore.updateEnrollment(enrollment);
         
         // Update student's GPA
         double newGPA = dataStore.calculateStudentGPA(studentId);
         student.setCurrentGPA(newGPA);
+        dataStore.updateStudent(student);
     }
 
     /**
@@ -244,7 +263,11 @@ public class EnrollmentService implements Searchable<Enrollment> {
     // Searchable interface implementation
     @Override
     public List<Enrollment> searchByField(String field, String value) {
-        return dataStore.getAllEnrollments().stream()
+        return queryEngine.cached(fieldSearchKey(field, value), () -> scanByField(field, value));
+    }
+
+    private List<Enrollment> scanByField(String field, String value) {
+        return queryEngine.substringCandidates(field, value).stream()
                 .filter(enrollment -> {
                     switch (field.toLowerCase()) {
                         case "enrollmentid":
@@ -270,84 +293,38 @@ public class EnrollmentService implements Searchable<Enrollment> {
                 .collect(Collectors.toList());
     }
 
+    private static String fieldSearchKey(String field, String value) {
+        return "field " + field.toLowerCase() + ' ' + value.length() + ':' + value.toLowerCase();
+    }
+
     @Override
     public List<Enrollment> searchByCriteria(SearchCriteria criteria) {
-        return dataStore.getAllEnrollments().stream()
-                .filter(enrollment -> {
-                    String fieldValue = getFieldValue(enrollment, criteria.getField());
-                    return matchesCriteria(fieldValue, criteria.getValue(), criteria.getOperator());
-                })
-                .collect(Collectors.toList());
+        return queryEngine.search(criteria);
     }
 
     @Override
-    public List<Enrollment> filter(Predicate<Enrollment> predicate) {
-        return dataStore.getAllEnrollments().stream()
-                .filter(predicate::test)
-                .collect(Collectors.toList());
+    public List<Enrollment> searchByCondition(Condition condition) {
+        return queryEngine.search(condition);
     }
 
-    /**
-     * Gets the value of a field from an enrollment object.
-     * @param enrollment The enrollment object
-     * @param field The field name
-     * @return The field value as string
-     */
-    private String getFieldValue(Enrollment enrollment, String field) {
-        switch (field.toLowerCase()) {
-            case "enrollmentid":
-            case "id":
-                return enrollment.getEnrollmentId();
-            case "studentid":
-            case "student":
-                return enrollment.getStudentId();
-            case "courseid":
-            case "course":
-                return enrollment.getCourseId();
-            case "active":
-                return String.valueOf(enrollment.isActive());
-            case "completed":
-                return String.valueOf(enrollment.isCompleted());
-            case "grade":
-                return enrollment.getLetterGrade() != null ? enrollment.getLetterGrade().name() : "";
-            case "numericgrade":
-                return String.valueOf(enrollment.getNumericGrade());
-            default:
-                return "";
-        }
+    @Override
+    public Stream<Enrollment> streamByCondition(Condition condition) {
+        return queryEngine.stream(condition);
     }
 
-    /**
-     * Checks if a field value matches the criteria.
-     * @param fieldValue The field value
-     * @param searchValue The search value
-     * @param operator The search operator
-     * @return true if matches
-     */
-    private boolean matchesCriteria(String fieldValue, String searchValue, Searchable.SearchOperator operator) {
-        switch (operator) {
-            case EQUALS:
-                return fieldValue.equalsIgnoreCase(searchValue);
-            case CONTAINS:
-                return fieldValue.toLowerCase().contains(searchValue.toLowerCase());
-            case STARTS_WITH:
-                return fieldValue.toLowerCase().startsWith(searchValue.toLowerCase());
-            case ENDS_WITH:
-                return fieldValue.toLowerCase().endsWith(searchValue.toLowerCase());
-            case GREATER_THAN:
-                try {
-                    return Double.parseDouble(fieldValue) > Double.parseDouble(searchValue);
-                } catch (NumberFormatException e) {
-                    return false;
-                }
-            case LESS_THAN:
-                try {
-                    return Double.parseDouble(fieldValue) < Double.parseDouble(searchValue);
-                } catch (NumberFormatException e) {
-                    return false;
-                }
-            default:
-                return false;
-        }
+    @Override
+    public Page<Enrollment> searchPage(Condition condition, int limit, String pageToken) {
+        return queryEngine.page(condition, limit, pageToken);
+    }
+
+    @Override
+    public List<Enrollment> searchTop(Condition condition, String field, boolean descending, int limit) {
+        return queryEngine.top(condition, field, descending, limit);
+    }
+
+    @Override
+    public List<Enrollment> filter(Predicate<Enrollment> predicate) {
+        return ParallelScanExecutor.getInstance().filter(dataStore.getEnrollmentsView(), predicate::test);
     }
+
 }
@@ -2,12 +2,25 @@ package com.ccrm.services;
 
 import com.ccrm.core.DataStore;
 import com.ccrm.model.Student;
+import com.ccrm.exceptions.DuplicateKeyException;
 import com.ccrm.exceptions.StudentNotFoundException;
+import com.ccrm.enums.EntityType;
+import com.ccrm.index.EntityIndexes;
+import com.ccrm.index.IndexRegistry;
+import com.ccrm.query.Condition;
+import com.ccrm.query.EntitySchemas;
+import com.ccrm.query.Page;
+import com.ccrm.query.ParallelScanExecutor;
+import com.ccrm.query.QueryEngine;
 import com.ccrm.interfaces.Searchable;
 import com.ccrm.interfaces.Searchable.SearchCriteria;
 import com.ccrm.interfaces.Searchable.Predicate;
+import com.ccrm.stats.GpaRankIndex;
+import java.util.ArrayList;
 import java.util.List;
+import java.util.Objects;
 import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
 /**
  * Service class for student management operations.
@@ -15,15 +28,23 @@ import java.util.stream.Collectors;
  */
 public class StudentService implements Searchable<Student> {
     private final DataStore dataStore;
+    private final EntityIndexes<Student> indexes;
+    private final QueryEngine<Student> queryEngine;
+    private final GpaRankIndex gpaRanks;
 
     public StudentService() {
         this.dataStore = DataStore.getInstance();
+        this.indexes = IndexRegistry.getInstance().getStudentIndexes();
+        this.queryEngine = new QueryEngine<>(EntityType.STUDENT, EntitySchemas.STUDENTS, indexes, 
+                                            dataStore::getStudent, dataStore::getStudentsView);
+        this.gpaRanks = GpaRankIndex.getInstance();
     }
 
     /**
      * Creates a new student.
      * @param student The student to create
      * @return The created student
+     * @throws DuplicateKeyException if another student has the registration number or email
      */
     public Student createStudent(Student student) {
         dataStore.addStudent(student);
@@ -44,6 +65,24 @@ public class StudentService implements Searchable<Student> {
         return student;
     }
 
+    /**
+     * Looks up a student by registration number, ignoring case.
+     * @param registrationNumber The registration number
+     * @return The student, or null if none has it
+     */
+    public Student findByRegistrationNumber(String registrationNumber) {
+        return dataStore.getStudentByRegistrationNumber(registrationNumber);
+    }
+
+    /**
+     * Looks up a student by email, ignoring case.
+     * @param email The email address
+     * @return The student, or null if none has it
+     */
+    public Student findByEmail(String email) {
+        return dataStore.getStudentByEmail(email);
+    }
+
     /**
      * Retrieves all students.
      * @return List of all students
@@ -65,6 +104,7 @@ public class StudentService implements Searchable<Student> {
      * @param student The student to update
      * @return The updated student
      * @throws StudentNotFoundException if student is not found
+     * @throws DuplicateKeyException if another student has the registration number or email
      */
     public Student updateStudent(Student student) throws StudentNotFoundException {
         Student existingStudent = getStudentById(student.getId());
@@ -80,6 +120,7 @@ public class StudentService implements Searchable<Student> {
     public void deactivateStudent(String studentId) throws StudentNotFoundException {
         Student student = getStudentById(studentId);
         student.setActive(false);
+        dataStore.updateStudent(student);
     }
 
     /**
@@ -120,7 +161,11 @@ public class StudentService implements Searchable<Student> {
     // Searchable interface implementation
     @Override
     public List<Student> searchByField(String field, String value) {
-        return dataStore.getAllStudents().stream()
+        return queryEngine.cached(fieldSearchKey(field, value), () -> scanByField(field, value));
+    }
+
+    private List<Student> scanByField(String field, String value) {
+        return queryEngine.substringCandidates(field, value).stream()
                 .filter(student -> {
                     switch (field.toLowerCase()) {
                         case "id":
@@ -142,81 +187,132 @@ public class StudentService implements Searchable<Student> {
                 .collect(Collectors.toList());
     }
 
-    @Override
-    public List<Student> searchByCriteria(SearchCriteria criteria) {
-        return dataStore.getAllStudents().stream()
-                .filter(student -> {
-                    String fieldValue = getFieldValue(student, criteria.getField());
-                    return matchesCriteria(fieldValue, criteria.getValue(), criteria.getOperator());
-                })
+    private static String fieldSearchKey(String field, String value) {
+        return "field " + field.toLowerCase() + ' ' + value.length() + ':' + value.toLowerCase();
+    }
+
+    /**
+     * Searches students by name and email keywords using the token index.
+     * Each term matches words that start with it, e.g. "jo sm" finds "John Smith".
+     * @param query The search terms
+     * @param matchAll true to require all terms, false to match any term
+     * @return Matching students ordered by ID
+     */
+    public List<Student> searchByKeywords(String query, boolean matchAll) {
+        return indexes.searchKeywords(query, matchAll, "name", "email").stream()
+                .sorted()
+                .map(dataStore::getStudent)
+                .filter(Objects::nonNull)
                 .collect(Collectors.toList());
     }
 
-    @Override
-    public List<Student> filter(Predicate<Student> predicate) {
-        return dataStore.getAllStudents().stream()
-                .filter(predicate::test)
+    /**
+     * Gets students whose GPA lies within a range, inclusive of both bounds.
+     * @param minGpa The lowest GPA to include
+     * @param maxGpa The highest GPA to include
+     * @return Matching students
+     */
+    public List<Student> getStudentsByGpaRange(double minGpa, double maxGpa) {
+        return new ArrayList<>(queryEngine.resolve(indexes.getRangeIndex("gpa").between(minGpa, true, maxGpa, true)));
+    }
+
+    /**
+     * Suggests students whose registration number starts with what has been typed so far.
+     * @param prefix The typed prefix, case-insensitive
+     * @param limit Maximum number of suggestions
+     * @return Matching students in registration number order
+     */
+    public List<Student> suggestByRegistrationNumber(String prefix, int limit) {
+        return new ArrayList<>(queryEngine.resolve(indexes.getSortedIndex("regno").withPrefix(prefix, limit)));
+    }
+
+    /**
+     * Finds students whose name is close to a possibly misspelled one,
+     * ignoring case and extra spaces.
+     * @param name The name as typed
+     * @param maxEdits Largest number of single-character edits to tolerate
+     * @param limit Maximum number of students to return
+     * @return Matching students, closest first
+     */
+    public List<Student> findByApproximateName(String name, int maxEdits, int limit) {
+        return indexes.getFuzzyIndex("name").search(name, maxEdits, limit).stream()
+                .map(match -> dataStore.getStudent(match.getId()))
+                .filter(Objects::nonNull)
                 .collect(Collectors.toList());
     }
 
     /**
-     * Gets the value of a field from a student object.
-     * @param student The student object
-     * @param field The field name
-     * @return The field value as string
-     */
-    private String getFieldValue(Student student, String field) {
-        switch (field.toLowerCase()) {
-            case "id":
-                return student.getId();
-            case "registrationnumber":
-            case "regno":
-                return student.getRegistrationNumber();
-            case "name":
-            case "fullname":
-                return student.getFullName();
-            case "email":
-                return student.getEmail();
-            case "active":
-                return String.valueOf(student.isActive());
-            case "gpa":
-                return String.valueOf(student.getCurrentGPA());
-            default:
-                return "";
-        }
+     * Gets a student's class rank by GPA among active students.
+     * @param studentId The student ID
+     * @return The rank, 1 for the highest GPA; tied students share a rank
+     * @throws StudentNotFoundException if student is not found
+     */
+    public int getClassRank(String studentId) throws StudentNotFoundException {
+        getStudentById(studentId);
+        return gpaRanks.getRank(studentId);
     }
 
     /**
-     * Checks if a field value matches the criteria.
-     * @param fieldValue The field value
-     * @param searchValue The search value
-     * @param operator The search operator
-     * @return true if matches
-     */
-    private boolean matchesCriteria(String fieldValue, String searchValue, Searchable.SearchOperator operator) {
-        switch (operator) {
-            case EQUALS:
-                return fieldValue.equalsIgnoreCase(searchValue);
-            case CONTAINS:
-                return fieldValue.toLowerCase().contains(searchValue.toLowerCase());
-            case STARTS_WITH:
-                return fieldValue.toLowerCase().startsWith(searchValue.toLowerCase());
-            case ENDS_WITH:
-                return fieldValue.toLowerCase().endsWith(searchValue.toLowerCase());
-            case GREATER_THAN:
-                try {
-                    return Double.parseDouble(fieldValue) > Double.parseDouble(searchValue);
-                } catch (NumberFormatException e) {
-                    return false;
-                }
-            case LESS_THAN:
-                try {
-                    return Double.parseDouble(fieldValue) < Double.parseDouble(searchValue);
-                } catch (NumberFormatException e) {
-                    return false;
-                }
-            default:
-                return false;
-        }
+     * Gets the percentage of active students with a GPA at or below a student's.
+     * @param studentId The student ID
+     * @return The percentile, or -1 if the student is inactive
+     * @throws StudentNotFoundException if student is not found
+     */
+    public double getGpaPercentile(String studentId) throws StudentNotFoundException {
+        getStudentById(studentId);
+        return gpaRanks.getPercentile(studentId);
+    }
+
+    /**
+     * Gets active students at a range of positions in class rank order,
+     * e.g. 1 to 10 for the top ten.
+     * @param from First position, starting at 1
+     * @param to Last position, inclusive
+     * @return Students by descending GPA, ties by ID
+     */
+    public List<Student> getStudentsByRank(int from, int to) {
+        return gpaRanks.getIdsByPosition(from, to).stream()
+                .map(dataStore::getStudent)
+                .filter(Objects::nonNull)
+                .collect(Collectors.toList());
+    }
+
+    /**
+     * Gets the number of active students ranked by GPA.
+     * @return The number of ranked students
+     */
+    public int getRankedStudentCount() {
+        return gpaRanks.getCount();
+    }
+
+    @Override
+    public List<Student> searchByCriteria(SearchCriteria criteria) {
+        return queryEngine.search(criteria);
     }
+
+    @Override
+    public List<Student> searchByCondition(Condition condition) {
+        return queryEngine.search(condition);
+    }
+
+    @Override
+    public Stream<Student> streamByCondition(Condition condition) {
+        return queryEngine.stream(condition);
+    }
+
+    @Override
+    public Page<Student> searchPage(Condition condition, int limit, String pageToken) {
+        return queryEngine.page(condition, limit, pageToken);
+    }
+
+    @Override
+    public List<Student> searchTop(Condition condition, String field, boolean descending, int limit) {
+        return queryEngine.top(condition, field, descending, limit);
+    }
+
+    @Override
+    public List<Student> filter(Predicate<Student> predicate) {
+        return ParallelScanExecutor.getInstance().filter(dataStore.getStudentsView(), predicate::test);
+    }
+
 }
@@ -0,0 +1,273 @@
+package com.ccrm.services;
+
+import com.ccrm.builders.TranscriptBuilder;
+import com.ccrm.core.DataStore;
+import com.ccrm.enums.Department;
+import com.ccrm.enums.EntityType;
+import com.ccrm.interfaces.ProgressListener;
+import com.ccrm.model.Student;
+import com.ccrm.query.ParallelScanExecutor;
+import java.io.BufferedOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.Deque;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Predicate;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipOutputStream;
+
+/**
+ * Service class for generating the transcripts of many students at once.
+ * Students are selected up front, split into chunks and rendered on a
+ * worker pool. Only a bounded window of chunks is in flight, so memory does
+ * not grow with the cohort. Output is one file per student or a single zip
+ * archive written in student ID order.
+ * Demonstrates the producer-consumer pattern with bounded parallelism.
+ */
+public class TranscriptExportService {
+    private static final int CHUNK_SIZE = 256;
+    private static final EntityType[] SOURCE_TYPES = {EntityType.STUDENT, EntityType.COURSE, EntityType.ENROLLMENT};
+
+    /**
+     * Where the transcripts are written.
+     */
+    public enum Format {
+        /** One text file per student in a directory */
+        FILES,
+        /** One zip archive with an entry per student */
+        ZIP
+    }
+
+    private final DataStore dataStore;
+    private final int parallelism;
+
+    public TranscriptExportService() {
+        this(Integer.getInteger("ccrm.exportThreads", Runtime.getRuntime().availableProcessors()));
+    }
+
+    /**
+     * Creates an export service.
+     * @param parallelism Number of worker threads rendering transcripts
+     */
+    public TranscriptExportService(int parallelism) {
+        this.dataStore = DataStore.getInstance();
+        this.parallelism = Math.max(1, parallelism);
+    }
+
+    /**
+     * Exports the transcripts of all students.
+     * @param target Directory for FILES, archive file for ZIP
+     * @param format The output format
+     * @param progress Receives progress after each chunk; may be null
+     * @return Report of the export
+     * @throws IOException if writing fails
+     */
+    public ExportReport exportAll(Path target, Format format, ProgressListener progress) throws IOException {
+        return export(student -> true, target, format, false, progress);
+    }
+
+    /**
+     * Exports the transcripts of the students of one home department.
+     * @param department The department
+     * @param target Directory for FILES, archive file for ZIP
+     * @param format The output format
+     * @param progress Receives progress after each chunk; may be null
+     * @return Report of the export
+     * @throws IOException if writing fails
+     */
+    public ExportReport exportDepartment(Department department, Path target, Format format, 
+                                         ProgressListener progress) throws IOException {
+        return export(student -> student.getDepartment() == department, target, format, false, progress);
+    }
+
+    /**
+     * Exports the transcripts of the students matching a predicate.
+     * @param selection Thread-safe predicate choosing the students
+     * @param target Directory for FILES, archive file for ZIP
+     * @param format The output format
+     * @param includeInactiveCourses Whether transcripts list withdrawn enrollments
+     * @param progress Receives progress after each chunk; may be null
+     * @return Report of the export
+     * @throws IOException if writing fails; the export stops at the first failure
+     */
+    public ExportReport export(Predicate<Student> selection, Path target, Format format,
+                               boolean includeInactiveCourses, ProgressListener progress) throws IOException {
+        long started = System.currentTimeMillis();
+        long[] epochs = currentEpochs();
+        List<Student> students = ParallelScanExecutor.getInstance().filter(dataStore.getStudentsView(), selection);
+        students.sort(Comparator.comparing(Student::getId));
+
+        if (format == Format.FILES) {
+            Files.createDirectories(target);
+        } else if (target.getParent() != null) {
+            Files.createDirectories(target.getParent());
+        }
+
+        AtomicInteger threadCount = new AtomicInteger();
+        ExecutorService workers = Executors.newFixedThreadPool(parallelism, runnable -> {
+            Thread thread = new Thread(runnable, "ccrm-transcript-export-" + threadCount.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+        try (ZipOutputStream zip = format == Format.ZIP 
+                ? new ZipOutputStream(new BufferedOutputStream(Files.newOutputStream(target))) : null) {
+            // Up to two chunks per worker are rendered ahead of the writer
+            int window = parallelism * 2;
+            Deque<Future<List<Rendered>>> inFlight = new ArrayDeque<>();
+            int next = 0;
+            int completed = 0;
+            while (next < students.size() || !inFlight.isEmpty()) {
+                while (next < students.size() && inFlight.size() < window) {
+                    List<Student> chunk = students.subList(next, Math.min(next + CHUNK_SIZE, students.size()));
+                    inFlight.add(workers.submit(() -> renderChunk(chunk, includeInactiveCourses, 
+                                                                  format == Format.FILES ? target : null)));
+                    next += chunk.size();
+                }
+                List<Rendered> rendered = await(inFlight.poll());
+                if (zip != null) {
+                    for (Rendered transcript : rendered) {
+                        zip.putNextEntry(new ZipEntry(transcript.fileName));
+                        zip.write(transcript.bytes);
+                        zip.closeEntry();
+                    }
+                }
+                completed += rendered.size();
+                if (progress != null) {
+                    progress.onProgress(completed, students.size());
+                }
+            }
+        } finally {
+            workers.shutdownNow();
+        }
+        return new ExportReport(target, students.size(), System.currentTimeMillis() - started,
+                                Arrays.equals(epochs, currentEpochs()));
+    }
+
+    /**
+     * Renders a chunk of transcripts, writing each to its own file when a
+     * directory is given.
+     * @return The rendered transcripts in chunk order
+     */
+    private List<Rendered> renderChunk(List<Student> chunk, boolean includeInactiveCourses, Path directory) 
+            throws IOException {
+        List<Rendered> result = new ArrayList<>(chunk.size());
+        for (Student student : chunk) {
+            String text = new TranscriptBuilder()
+                    .student(student)
+                    .includeInactiveCourses(includeInactiveCourses)
+                    .build()
+                    .toString();
+            Rendered rendered = new Rendered(fileNameOf(student), text.getBytes(StandardCharsets.UTF_8));
+            if (directory != null) {
+                try (OutputStream out = Files.newOutputStream(directory.resolve(rendered.fileName))) {
+                    out.write(rendered.bytes);
+                }
+                // Only the count is needed once the file is written
+                rendered = new Rendered(rendered.fileName, null);
+            }
+            result.add(rendered);
+        }
+        return result;
+    }
+
+    private static <T> T await(Future<T> future) throws IOException {
+        try {
+            return future.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IOException("Interrupted while exporting transcripts", e);
+        } catch (ExecutionException e) {
+            Throwable cause = e.getCause();
+            if (cause instanceof IOException) {
+                throw (IOException) cause;
+            }
+            if (cause instanceof RuntimeException) {
+                throw (RuntimeException) cause;
+            }
+            throw new IOException(cause);
+        }
+    }
+
+    private long[] currentEpochs() {
+        long[] epochs = new long[SOURCE_TYPES.length];
+        for (int i = 0; i < SOURCE_TYPES.length; i++) {
+            epochs[i] = dataStore.getEpoch(SOURCE_TYPES[i]);
+        }
+        return epochs;
+    }
+
+    /**
+     * Builds a file name that is safe on any file system and distinct for
+     * distinct IDs: letters, digits, '.' and '-' are kept, and every other
+     * character, '_' included, becomes '_' and four hex digits.
+     */
+    private static String fileNameOf(Student student) {
+        String id = student.getId();
+        StringBuilder name = new StringBuilder(id.length() + 4);
+        for (int i = 0; i < id.length(); i++) {
+            char c = id.charAt(i);
+            if ((c >= 'A' && c <= 'Z') || (c >= 'a' && c <= 'z') || (c >= '0' && c <= '9') || c == '.' || c == '-') {
+                name.append(c);
+            } else {
+                name.append('_').append(String.format("%04x", (int) c));
+            }
+        }
+        return name.append(".txt").toString();
+    }
+
+    private static final class Rendered {
+        private final String fileName;
+        private final byte[] bytes;
+
+        private Rendered(String fileName, byte[] bytes) {
+            this.fileName = fileName;
+            this.bytes = bytes;
+        }
+    }
+
+    /**
+     * Outcome of a batch export.
+     */
+    public static class ExportReport {
+        private final Path target;
+        private final int exportedCount;
+        private final long elapsedMillis;
+        private final boolean consistent;
+
+        public ExportReport(Path target, int exportedCount, long elapsedMillis, boolean consistent) {
+            this.target = target;
+            this.exportedCount = exportedCount;
+            this.elapsedMillis = elapsedMillis;
+            this.consistent = consistent;
+        }
+
+        public Path getTarget() { return target; }
+        public int getExportedCount() { return exportedCount; }
+        public long getElapsedMillis() { return elapsedMillis; }
+
+        /**
+         * Tells whether no student, course or enrollment changed while the
+         * export ran, so every transcript reflects the same state of the data.
+         * @return true if the export saw a consistent snapshot
+         */
+        public boolean isConsistent() { return consistent; }
+
+        @Override
+        public String toString() {
+            return String.format("%d transcripts written to %s in %d ms%s", exportedCount, target, elapsedMillis,
+                               consistent ? "" : " (data changed during export; rerun for a consistent set)");
+        }
+    }
+}
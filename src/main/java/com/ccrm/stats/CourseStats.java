@@ -0,0 +1,57 @@
+package com.ccrm.stats;
+
+/**
+ * Snapshot of the enrollment statistics of one course.
+ */
+public class CourseStats {
+    private final String courseId;
+    private final long activeCount;
+    private final long withdrawnCount;
+    private final long completedCount;
+    private final long gradedCount;
+    private final double gradeSum;
+    private final int capacity;
+
+    public CourseStats(String courseId, long activeCount, long withdrawnCount, long completedCount,
+                       long gradedCount, double gradeSum, int capacity) {
+        this.courseId = courseId;
+        this.activeCount = activeCount;
+        this.withdrawnCount = withdrawnCount;
+        this.completedCount = completedCount;
+        this.gradedCount = gradedCount;
+        this.gradeSum = gradeSum;
+        this.capacity = capacity;
+    }
+
+    public String getCourseId() { return courseId; }
+    public long getActiveCount() { return activeCount; }
+    public long getWithdrawnCount() { return withdrawnCount; }
+    public long getCompletedCount() { return completedCount; }
+    public long getGradedCount() { return gradedCount; }
+    public double getGradeSum() { return gradeSum; }
+    public int getCapacity() { return capacity; }
+
+    public long getEnrollmentCount() {
+        return activeCount + withdrawnCount;
+    }
+
+    /**
+     * Gets the mean numeric grade of graded enrollments.
+     * @return The average, or 0 if none is graded
+     */
+    public double getAverageGrade() {
+        return gradedCount > 0 ? gradeSum / gradedCount : 0.0;
+    }
+
+    /**
+     * Gets active enrollments as a fraction of capacity.
+     * @return The fill ratio, or 0 if the course is uncapped
+     */
+    public double getFillRatio() {
+        return capacity > 0 ? (double) activeCount / capacity : 0.0;
+    }
+
+    public boolean isFull() {
+        return capacity > 0 && activeCount >= capacity;
+    }
+}
@@ -0,0 +1,278 @@
+package com.ccrm.stats;
+
+import com.ccrm.core.DataStore;
+import com.ccrm.enums.ChangeType;
+import com.ccrm.enums.Grade;
+import com.ccrm.interfaces.DataChangeListener;
+import com.ccrm.model.Course;
+import com.ccrm.model.Enrollment;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Singleton table of per-course enrollment statistics, materialized from
+ * DataStore change notifications. Each enrollment's last counted state is
+ * remembered, so a change moves its contribution between tallies in O(1)
+ * and reading a course's statistics needs no scan of enrollments. Each
+ * tally also feeds its course's Department x Semester cell of a
+ * {@link DepartmentSemesterRollup}, moving its totals when the course moves.
+ * Only resident enrollments are counted; archived history attached with
+ * {@link DataStore#setEnrollmentHistory} is not.
+ * Demonstrates the Observer pattern for derived data.
+ */
+public class CourseStatsTable implements DataChangeListener {
+    private static volatile CourseStatsTable instance;
+    private static final Object lock = new Object();
+
+    private final DataStore dataStore;
+    private final Map<String, Tally> talliesByCourse;
+    private final Map<String, Contribution> contributionById;
+    private final DepartmentSemesterRollup rollup;
+
+    private CourseStatsTable(DataStore dataStore) {
+        this.dataStore = dataStore;
+        this.talliesByCourse = new ConcurrentHashMap<>();
+        this.contributionById = new ConcurrentHashMap<>();
+        this.rollup = new DepartmentSemesterRollup();
+    }
+
+    /**
+     * Gets the table, filling it from the store on first use.
+     * @return The singleton CourseStatsTable instance
+     */
+    public static CourseStatsTable getInstance() {
+        if (instance == null) {
+            synchronized (lock) {
+                if (instance == null) {
+                    DataStore dataStore = DataStore.getInstance();
+                    CourseStatsTable table = new CourseStatsTable(dataStore);
+                    // Listen first so no change is missed while filling; recording is idempotent
+                    dataStore.addChangeListener(table);
+                    for (Course course : dataStore.getCoursesView()) {
+                        table.tallyOf(course.getCourseId()).place(course);
+                    }
+                    for (Enrollment enrollment : dataStore.getEnrollmentsView()) {
+                        table.record(enrollment);
+                    }
+                    instance = table;
+                }
+            }
+        }
+        return instance;
+    }
+
+    /**
+     * Gets the Department x Semester rollup fed by this table.
+     * @return The rollup
+     */
+    public DepartmentSemesterRollup getRollup() {
+        return rollup;
+    }
+
+    /**
+     * Gets the statistics of a course's resident enrollments. Archived
+     * enrollments that are paged in on demand are not counted.
+     * @param courseId The course ID
+     * @return The statistics; all zero if the course has no enrollments
+     */
+    public CourseStats getStats(String courseId) {
+        Course course = dataStore.getCourse(courseId);
+        int capacity = course != null ? course.getCapacity() : 0;
+        Tally tally = talliesByCourse.get(courseId);
+        return tally != null ? tally.snapshot(courseId, capacity) 
+                             : new CourseStats(courseId, 0, 0, 0, 0, 0.0, capacity);
+    }
+
+    /**
+     * Gets the distribution of a course's numeric and letter grades.
+     * @param courseId The course ID
+     * @return An independent copy of the course's sketch; empty if nothing is graded
+     */
+    public GradeSketch getGradeSketch(String courseId) {
+        Tally tally = talliesByCourse.get(courseId);
+        return tally != null ? tally.gradeSketch() : new GradeSketch();
+    }
+
+    private void record(Enrollment enrollment) {
+        Contribution current = new Contribution(enrollment);
+        contributionById.compute(enrollment.getEnrollmentId(), (id, previous) -> {
+            if (!current.equals(previous)) {
+                if (previous != null) {
+                    tallyOf(previous.courseId).add(previous, -1);
+                }
+                tallyOf(current.courseId).add(current, 1);
+            }
+            return current;
+        });
+    }
+
+    private void forget(Enrollment enrollment) {
+        contributionById.computeIfPresent(enrollment.getEnrollmentId(), (id, previous) -> {
+            tallyOf(previous.courseId).add(previous, -1);
+            return null;
+        });
+    }
+
+    private Tally tallyOf(String courseId) {
+        return talliesByCourse.computeIfAbsent(courseId, k -> new Tally(rollup));
+    }
+
+    @Override
+    public void onCourseChanged(Course course, ChangeType changeType) {
+        Tally tally = tallyOf(course.getCourseId());
+        if (changeType == ChangeType.REMOVED) {
+            tally.unplace();
+        } else {
+            tally.place(course);
+        }
+    }
+
+    @Override
+    public void onEnrollmentChanged(Enrollment enrollment, ChangeType changeType) {
+        if (changeType == ChangeType.REMOVED) {
+            forget(enrollment);
+        } else {
+            record(enrollment);
+        }
+    }
+
+    @Override
+    public void onDataCleared() {
+        contributionById.clear();
+        talliesByCourse.clear();
+        rollup.clear();
+    }
+
+    /**
+     * The counted state of one enrollment.
+     */
+    private static final class Contribution {
+        private final String courseId;
+        private final boolean active;
+        private final boolean completed;
+        private final boolean graded;
+        private final double grade;
+        private final double gradePoints;
+        private final Grade letter;
+
+        private Contribution(Enrollment enrollment) {
+            this.courseId = enrollment.getCourseId();
+            this.active = enrollment.isActive();
+            this.completed = enrollment.isCompleted();
+            this.graded = enrollment.getLetterGrade() != null;
+            this.grade = graded ? enrollment.getNumericGrade() : 0.0;
+            this.gradePoints = graded ? enrollment.getLetterGrade().getGradePoints() : 0.0;
+            this.letter = enrollment.getLetterGrade();
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (!(o instanceof Contribution)) {
+                return false;
+            }
+            Contribution other = (Contribution) o;
+            return courseId.equals(other.courseId) && active == other.active && completed == other.completed
+                    && graded == other.graded && Double.compare(grade, other.grade) == 0
+                    && Double.compare(gradePoints, other.gradePoints) == 0 && letter == other.letter;
+        }
+
+        @Override
+        public int hashCode() {
+            return courseId.hashCode();
+        }
+    }
+
+    /**
+     * Running totals of one course, and where they are counted in the rollup.
+     */
+    private static final class Tally {
+        private final DepartmentSemesterRollup rollup;
+        private long active;
+        private long withdrawn;
+        private long completed;
+        private long graded;
+        private double gradeSum;
+        private double gradePoints;
+        // Allocated on the first grade, since many courses are never graded
+        private GradeSketch grades;
+        // Rollup cell, credit hours and active flag of the course; cell is -1 while the course is unknown
+        private int cell = -1;
+        private int credits;
+        private boolean courseActive;
+
+        private Tally(DepartmentSemesterRollup rollup) {
+            this.rollup = rollup;
+        }
+
+        private synchronized void add(Contribution contribution, int sign) {
+            long activeDelta = contribution.active ? sign : 0;
+            long withdrawnDelta = contribution.active ? 0 : sign;
+            long completedDelta = contribution.completed ? sign : 0;
+            long gradedDelta = contribution.graded ? sign : 0;
+            active += activeDelta;
+            withdrawn += withdrawnDelta;
+            completed += completedDelta;
+            graded += gradedDelta;
+            gradeSum += gradedDelta * contribution.grade;
+            gradePoints += gradedDelta * contribution.gradePoints;
+            if (contribution.graded) {
+                if (grades == null) {
+                    grades = new GradeSketch();
+                }
+                if (sign > 0) {
+                    grades.add(contribution.grade, contribution.letter);
+                } else {
+                    grades.remove(contribution.grade, contribution.letter);
+                }
+            }
+            if (cell >= 0) {
+                rollup.addEnrollments(cell, credits, activeDelta, withdrawnDelta, completedDelta, 
+                                      gradedDelta, gradedDelta * contribution.gradePoints);
+                if (contribution.graded) {
+                    rollup.addGrade(cell, contribution.grade, contribution.letter, sign);
+                }
+            }
+        }
+
+        /**
+         * Counts the course, and its enrollments, in the cell of its current
+         * department and semester, moving them if the course changed.
+         */
+        private synchronized void place(Course course) {
+            int newCell = DepartmentSemesterRollup.cellOf(course.getDepartment(), course.getSemester());
+            if (newCell == cell && course.getCreditHours() == credits && course.isActive() == courseActive) {
+                return;
+            }
+            unplace();
+            cell = newCell;
+            credits = course.getCreditHours();
+            courseActive = course.isActive();
+            rollup.addCourse(cell, 1, courseActive);
+            rollup.addEnrollments(cell, credits, active, withdrawn, completed, graded, gradePoints);
+            if (grades != null) {
+                rollup.mergeGrades(cell, grades, 1);
+            }
+        }
+
+        private synchronized void unplace() {
+            if (cell >= 0) {
+                rollup.addCourse(cell, -1, courseActive);
+                rollup.addEnrollments(cell, credits, -active, -withdrawn, -completed, -graded, -gradePoints);
+                if (grades != null) {
+                    rollup.mergeGrades(cell, grades, -1);
+                }
+                cell = -1;
+            }
+        }
+
+        private synchronized GradeSketch gradeSketch() {
+            return grades != null ? grades.copy() : new GradeSketch();
+        }
+
+        private synchronized CourseStats snapshot(String courseId, int capacity) {
+            // Subtracting what was added can leave rounding residue once nothing is graded
+            return new CourseStats(courseId, active, withdrawn, completed, graded, 
+                                   graded > 0 ? gradeSum : 0.0, capacity);
+        }
+    }
+}
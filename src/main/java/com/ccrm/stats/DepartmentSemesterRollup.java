@@ -0,0 +1,190 @@
+package com.ccrm.stats;
+
+import com.ccrm.enums.Department;
+import com.ccrm.enums.Grade;
+import com.ccrm.enums.Semester;
+import java.util.Arrays;
+import java.util.EnumMap;
+import java.util.Map;
+
+/**
+ * Dense Department x Semester counters of courses and enrollments, stored in
+ * arrays indexed by enum ordinals. Maintained by {@link CourseStatsTable}
+ * from per-course deltas, so reading the whole grid costs
+ * O(departments x semesters) and never scans courses or enrollments.
+ */
+public class DepartmentSemesterRollup {
+    private static final int SEMESTERS = Semester.values().length;
+    private static final int CELLS = Department.values().length * SEMESTERS;
+
+    private final long[] courses = new long[CELLS];
+    private final long[] activeCourses = new long[CELLS];
+    private final long[] activeEnrollments = new long[CELLS];
+    private final long[] withdrawnEnrollments = new long[CELLS];
+    private final long[] completedEnrollments = new long[CELLS];
+    private final long[] creditHours = new long[CELLS];
+    private final long[] gradedCredits = new long[CELLS];
+    private final double[] qualityPoints = new double[CELLS];
+    private final GradeSketch[] gradeSketches = new GradeSketch[CELLS];
+
+    DepartmentSemesterRollup() {
+        for (int cell = 0; cell < CELLS; cell++) {
+            gradeSketches[cell] = new GradeSketch();
+        }
+    }
+
+    /**
+     * Gets the dense cell number of a department and semester.
+     */
+    static int cellOf(Department department, Semester semester) {
+        return department.ordinal() * SEMESTERS + semester.ordinal();
+    }
+
+    synchronized void addCourse(int cell, int sign, boolean active) {
+        courses[cell] += sign;
+        if (active) {
+            activeCourses[cell] += sign;
+        }
+    }
+
+    /**
+     * Adds enrollment totals of one course to a cell; negative counts subtract.
+     * @param credits Credit hours of the course
+     * @param gradePoints Sum of letter grade points of the graded enrollments
+     */
+    synchronized void addEnrollments(int cell, int credits, long active, long withdrawn, long completed,
+                                     long graded, double gradePoints) {
+        activeEnrollments[cell] += active;
+        withdrawnEnrollments[cell] += withdrawn;
+        completedEnrollments[cell] += completed;
+        creditHours[cell] += active * credits;
+        gradedCredits[cell] += graded * credits;
+        qualityPoints[cell] += gradePoints * credits;
+    }
+
+    synchronized void addGrade(int cell, double grade, Grade letter, int sign) {
+        if (sign > 0) {
+            gradeSketches[cell].add(grade, letter);
+        } else {
+            gradeSketches[cell].remove(grade, letter);
+        }
+    }
+
+    synchronized void mergeGrades(int cell, GradeSketch grades, int sign) {
+        if (sign > 0) {
+            gradeSketches[cell].merge(grades);
+        } else {
+            gradeSketches[cell].subtract(grades);
+        }
+    }
+
+    synchronized void clear() {
+        for (long[] counters : new long[][] {courses, activeCourses, activeEnrollments, withdrawnEnrollments,
+                                             completedEnrollments, creditHours, gradedCredits}) {
+            Arrays.fill(counters, 0);
+        }
+        Arrays.fill(qualityPoints, 0.0);
+        for (int cell = 0; cell < CELLS; cell++) {
+            gradeSketches[cell] = new GradeSketch();
+        }
+    }
+
+    /**
+     * Gets the totals of one department in one semester.
+     * @param department The department
+     * @param semester The semester
+     * @return Snapshot of the cell
+     */
+    public synchronized RollupCell get(Department department, Semester semester) {
+        return sum(cellOf(department, semester), 1, 1);
+    }
+
+    /**
+     * Gets the totals of one department over all semesters.
+     * @param department The department
+     * @return Snapshot of the department's row
+     */
+    public synchronized RollupCell get(Department department) {
+        return sum(cellOf(department, Semester.values()[0]), SEMESTERS, 1);
+    }
+
+    /**
+     * Gets the totals of one semester over all departments.
+     * @param semester The semester
+     * @return Snapshot of the semester's column
+     */
+    public synchronized RollupCell get(Semester semester) {
+        return sum(semester.ordinal(), Department.values().length, SEMESTERS);
+    }
+
+    /**
+     * Gets every cell, keyed by department then semester.
+     * @return Snapshot of the whole grid
+     */
+    public synchronized Map<Department, Map<Semester, RollupCell>> getAll() {
+        Map<Department, Map<Semester, RollupCell>> result = new EnumMap<>(Department.class);
+        for (Department department : Department.values()) {
+            Map<Semester, RollupCell> row = new EnumMap<>(Semester.class);
+            for (Semester semester : Semester.values()) {
+                row.put(semester, sum(cellOf(department, semester), 1, 1));
+            }
+            result.put(department, row);
+        }
+        return result;
+    }
+
+    /**
+     * Gets the grade distribution of one department in one semester.
+     * @param department The department
+     * @param semester The semester
+     * @return An independent copy of the cell's sketch
+     */
+    public synchronized GradeSketch getGradeSketch(Department department, Semester semester) {
+        return gradeSketches[cellOf(department, semester)].copy();
+    }
+
+    /**
+     * Gets the grade distribution of one department over all semesters.
+     * @param department The department
+     * @return A sketch merged from the department's cells
+     */
+    public synchronized GradeSketch getGradeSketch(Department department) {
+        return mergeGrades(cellOf(department, Semester.values()[0]), SEMESTERS, 1);
+    }
+
+    /**
+     * Gets the grade distribution of one semester over all departments.
+     * @param semester The semester
+     * @return A sketch merged from the semester's cells
+     */
+    public synchronized GradeSketch getGradeSketch(Semester semester) {
+        return mergeGrades(semester.ordinal(), Department.values().length, SEMESTERS);
+    }
+
+    private GradeSketch mergeGrades(int first, int count, int stride) {
+        GradeSketch result = new GradeSketch();
+        for (int i = 0, cell = first; i < count; i++, cell += stride) {
+            result.merge(gradeSketches[cell]);
+        }
+        return result;
+    }
+
+    private RollupCell sum(int first, int count, int stride) {
+        long courseCount = 0, activeCourseCount = 0, active = 0, withdrawn = 0, completed = 0;
+        long credits = 0, graded = 0;
+        double points = 0.0;
+        for (int i = 0, cell = first; i < count; i++, cell += stride) {
+            courseCount += courses[cell];
+            activeCourseCount += activeCourses[cell];
+            active += activeEnrollments[cell];
+            withdrawn += withdrawnEnrollments[cell];
+            completed += completedEnrollments[cell];
+            credits += creditHours[cell];
+            graded += gradedCredits[cell];
+            points += qualityPoints[cell];
+        }
+        // Subtracting what was added can leave rounding residue once nothing is graded
+        return new RollupCell(courseCount, activeCourseCount, active, withdrawn, completed, credits, graded,
+                              graded > 0 ? points : 0.0);
+    }
+}
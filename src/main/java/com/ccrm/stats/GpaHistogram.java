@@ -0,0 +1,219 @@
+package com.ccrm.stats;
+
+import com.ccrm.core.DataStore;
+import com.ccrm.enums.ChangeType;
+import com.ccrm.enums.Department;
+import com.ccrm.interfaces.DataChangeListener;
+import com.ccrm.model.Student;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Singleton histogram of student GPAs in equal-width bins over 0.0-4.0,
+ * overall and per home department, plus exact counts per letter band
+ * (F, D, C, B, A), whose cut points need not fall on bin edges. Kept current from DataStore change
+ * notifications in O(1) per change, so reports read it without a scan.
+ * Demonstrates the Observer pattern for derived data.
+ */
+public class GpaHistogram implements DataChangeListener {
+    public static final double MAX_GPA = 4.0;
+    private static final int DEFAULT_BINS = 40;
+    // Lowest GPA of the D, C, B and A bands; anything lower is F
+    private static final double[] BAND_CUTS = {1.0, 2.0, 3.0, 3.7};
+    public static final int BAND_COUNT = BAND_CUTS.length + 1;
+
+    private static volatile GpaHistogram instance;
+    private static final Object lock = new Object();
+
+    private final int binCount;
+    // One row of bins per department plus a last row for students without one
+    private final AtomicLongArray counts;
+    private final AtomicLongArray bandCounts;
+    // Each student's bin slot and letter band, packed as slot * BAND_COUNT + band
+    private final Map<String, Integer> slotById;
+
+    private GpaHistogram(int binCount) {
+        this.binCount = binCount;
+        this.counts = new AtomicLongArray((Department.values().length + 1) * binCount);
+        this.bandCounts = new AtomicLongArray(BAND_COUNT);
+        this.slotById = new ConcurrentHashMap<>();
+    }
+
+    /**
+     * Gets the histogram, filling it from the store on first use. The number
+     * of bins is read once from the ccrm.gpaHistogramBins system property.
+     * @return The singleton GpaHistogram instance
+     */
+    public static GpaHistogram getInstance() {
+        if (instance == null) {
+            synchronized (lock) {
+                if (instance == null) {
+                    GpaHistogram histogram = new GpaHistogram(Math.max(1, Integer.getInteger("ccrm.gpaHistogramBins", DEFAULT_BINS)));
+                    DataStore dataStore = DataStore.getInstance();
+                    // Listen first so no change is missed while filling; recording is idempotent
+                    dataStore.addChangeListener(histogram);
+                    for (Student student : dataStore.getStudentsView()) {
+                        histogram.record(student);
+                    }
+                    instance = histogram;
+                }
+            }
+        }
+        return instance;
+    }
+
+    public int getBinCount() {
+        return binCount;
+    }
+
+    public double getBinWidth() {
+        return MAX_GPA / binCount;
+    }
+
+    /**
+     * Gets the lowest GPA falling into a bin.
+     * @param bin The bin number
+     * @return The bin's inclusive lower bound
+     */
+    public double getBinLowerBound(int bin) {
+        return bin * getBinWidth();
+    }
+
+    /**
+     * Gets the bin a GPA falls into. Values outside 0.0-4.0 go to the end bins.
+     * @param gpa The GPA
+     * @return The bin number
+     */
+    public int binOf(double gpa) {
+        // The epsilon keeps boundaries such as 3.7 from landing one bin low
+        int bin = (int) Math.floor(gpa / MAX_GPA * binCount + 1e-9);
+        return Math.max(0, Math.min(binCount - 1, bin));
+    }
+
+    /**
+     * Gets student counts per bin over all students.
+     * @return Counts indexed by bin
+     */
+    public long[] getCounts() {
+        long[] result = new long[binCount];
+        for (int row = 0; row <= Department.values().length; row++) {
+            for (int bin = 0; bin < binCount; bin++) {
+                result[bin] += counts.get(row * binCount + bin);
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Gets student counts per bin for one home department.
+     * @param department The department, or null for students without one
+     * @return Counts indexed by bin
+     */
+    public long[] getCounts(Department department) {
+        int row = rowOf(department);
+        long[] result = new long[binCount];
+        for (int bin = 0; bin < binCount; bin++) {
+            result[bin] = counts.get(row * binCount + bin);
+        }
+        return result;
+    }
+
+    /**
+     * Counts students with a GPA in [minGpa, maxGpa), resolved to whole bins:
+     * exact when both bounds lie on bin boundaries.
+     * @param minGpa Inclusive lower bound
+     * @param maxGpa Exclusive upper bound; 4.0 or more includes the top bin
+     * @return Number of students
+     */
+    public long countBetween(double minGpa, double maxGpa) {
+        long[] all = getCounts();
+        int to = maxGpa >= MAX_GPA ? binCount : binOf(maxGpa);
+        long total = 0;
+        for (int bin = binOf(minGpa); bin < to; bin++) {
+            total += all[bin];
+        }
+        return total;
+    }
+
+    /**
+     * Gets the letter band of a GPA: 0 for F (below 1.0), 1 for D, 2 for C,
+     * 3 for B and 4 for A (3.7 and above).
+     * @param gpa The GPA
+     * @return The band number
+     */
+    public static int bandOf(double gpa) {
+        int band = 0;
+        while (band < BAND_CUTS.length && gpa >= BAND_CUTS[band]) {
+            band++;
+        }
+        return band;
+    }
+
+    /**
+     * Gets exact student counts per letter band over all students.
+     * @return Counts indexed by band, F first
+     */
+    public long[] getBandCounts() {
+        long[] result = new long[BAND_COUNT];
+        for (int band = 0; band < BAND_COUNT; band++) {
+            result[band] = bandCounts.get(band);
+        }
+        return result;
+    }
+
+    public long getTotal() {
+        return slotById.size();
+    }
+
+    private int rowOf(Department department) {
+        return department != null ? department.ordinal() : Department.values().length;
+    }
+
+    private void record(Student student) {
+        int slot = rowOf(student.getDepartment()) * binCount + binOf(student.getCurrentGPA());
+        int packed = slot * BAND_COUNT + bandOf(student.getCurrentGPA());
+        slotById.compute(student.getId(), (id, previous) -> {
+            if (previous == null || previous != packed) {
+                if (previous != null) {
+                    release(previous);
+                }
+                counts.incrementAndGet(slot);
+                bandCounts.incrementAndGet(packed % BAND_COUNT);
+            }
+            return packed;
+        });
+    }
+
+    private void forget(Student student) {
+        slotById.computeIfPresent(student.getId(), (id, previous) -> {
+            release(previous);
+            return null;
+        });
+    }
+
+    private void release(int packed) {
+        counts.decrementAndGet(packed / BAND_COUNT);
+        bandCounts.decrementAndGet(packed % BAND_COUNT);
+    }
+
+    @Override
+    public void onStudentChanged(Student student, ChangeType changeType) {
+        if (changeType == ChangeType.REMOVED) {
+            forget(student);
+        } else {
+            record(student);
+        }
+    }
+
+    @Override
+    public void onDataCleared() {
+        slotById.clear();
+        for (int i = 0; i < counts.length(); i++) {
+            counts.set(i, 0);
+        }
+        for (int i = 0; i < bandCounts.length(); i++) {
+            bandCounts.set(i, 0);
+        }
+    }
+}
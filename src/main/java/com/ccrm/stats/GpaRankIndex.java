@@ -0,0 +1,226 @@
+package com.ccrm.stats;
+
+import com.ccrm.core.DataStore;
+import com.ccrm.enums.ChangeType;
+import com.ccrm.interfaces.DataChangeListener;
+import com.ccrm.model.Student;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.TreeSet;
+
+/**
+ * Singleton order-statistic index of active students by GPA, for class rank
+ * and percentile queries. GPAs are quantized to steps of 0.0001 and counted
+ * in a Fenwick tree, so a rank or the student at a rank is found in
+ * O(log n) without sorting. Students with equal quantized GPAs share a rank
+ * and are listed by ID. Kept current from DataStore change notifications.
+ * Demonstrates the Observer pattern for derived data.
+ */
+public class GpaRankIndex implements DataChangeListener {
+    public static final double GPA_STEP = 0.0001;
+    private static final int MAX_STEP = (int) Math.round(GpaHistogram.MAX_GPA / GPA_STEP);
+
+    private static volatile GpaRankIndex instance;
+    private static final Object lock = new Object();
+
+    // Fenwick tree over slots, highest GPA first; slot s is stored at index s + 1
+    private final int[] tree;
+    private final int topBit;
+    private final TreeMap<Integer, TreeSet<String>> idsBySlot;
+    private final Map<String, Integer> slotById;
+
+    private GpaRankIndex() {
+        this.tree = new int[MAX_STEP + 2];
+        this.topBit = Integer.highestOneBit(MAX_STEP + 1);
+        this.idsBySlot = new TreeMap<>();
+        this.slotById = new HashMap<>();
+    }
+
+    /**
+     * Gets the rank index, filling it from the store on first use.
+     * @return The singleton GpaRankIndex instance
+     */
+    public static GpaRankIndex getInstance() {
+        if (instance == null) {
+            synchronized (lock) {
+                if (instance == null) {
+                    GpaRankIndex index = new GpaRankIndex();
+                    DataStore dataStore = DataStore.getInstance();
+                    // Listen first so no change is missed while filling; recording is idempotent
+                    dataStore.addChangeListener(index);
+                    for (Student student : dataStore.getStudentsView()) {
+                        index.record(student);
+                    }
+                    instance = index;
+                }
+            }
+        }
+        return instance;
+    }
+
+    /**
+     * Gets the number of ranked students.
+     * @return Active students in the index
+     */
+    public synchronized int getCount() {
+        return slotById.size();
+    }
+
+    /**
+     * Gets a student's class rank. Students with equal GPAs share the best
+     * of their ranks, so ranks run 1, 2, 2, 4.
+     * @param studentId The student ID
+     * @return The rank, 1 for the highest GPA, or -1 if the student is not ranked
+     */
+    public synchronized int getRank(String studentId) {
+        Integer slot = slotById.get(studentId);
+        return slot != null ? prefixCount(slot) + 1 : -1;
+    }
+
+    /**
+     * Gets the percentage of ranked students whose GPA is at or below a
+     * student's own.
+     * @param studentId The student ID
+     * @return The percentile, 100 for the top GPA, or -1 if the student is not ranked
+     */
+    public synchronized double getPercentile(String studentId) {
+        Integer slot = slotById.get(studentId);
+        if (slot == null) {
+            return -1.0;
+        }
+        int count = slotById.size();
+        return 100.0 * (count - prefixCount(slot)) / count;
+    }
+
+    /**
+     * Gets the students at a range of positions in rank order, highest GPA
+     * first and ties by ID. Positions count students, so two tied students
+     * occupy two positions even though they share a rank.
+     * @param from First position, starting at 1
+     * @param to Last position, inclusive
+     * @return Student IDs in rank order; empty if the range holds no students
+     */
+    public synchronized List<String> getIdsByPosition(int from, int to) {
+        from = Math.max(1, from);
+        to = Math.min(slotById.size(), to);
+        List<String> result = new ArrayList<>(Math.max(0, to - from + 1));
+        if (from > to) {
+            return result;
+        }
+        int slot = slotAtPosition(from);
+        int skip = from - 1 - prefixCount(slot);
+        for (Map.Entry<Integer, TreeSet<String>> entry : idsBySlot.tailMap(slot, true).entrySet()) {
+            Iterator<String> ids = entry.getValue().iterator();
+            for (; skip > 0; skip--) {
+                ids.next();
+            }
+            while (ids.hasNext() && result.size() < to - from + 1) {
+                result.add(ids.next());
+            }
+            if (result.size() == to - from + 1) {
+                break;
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Gets the quantized GPA a student is ranked by.
+     * @param gpa The GPA
+     * @return The GPA rounded to the index's step
+     */
+    public static double quantize(double gpa) {
+        return (MAX_STEP - slotOf(gpa)) * GPA_STEP;
+    }
+
+    private static int slotOf(double gpa) {
+        int step = (int) Math.round(gpa / GPA_STEP);
+        return MAX_STEP - Math.max(0, Math.min(MAX_STEP, step));
+    }
+
+    /**
+     * Counts students in slots before a slot, that is with a higher GPA.
+     */
+    private int prefixCount(int slot) {
+        int total = 0;
+        for (int i = slot; i > 0; i -= i & -i) {
+            total += tree[i];
+        }
+        return total;
+    }
+
+    /**
+     * Finds the slot holding the student at a position, by descending the tree.
+     */
+    private int slotAtPosition(int position) {
+        int index = 0;
+        for (int bit = topBit; bit > 0; bit >>= 1) {
+            int next = index + bit;
+            if (next < tree.length && tree[next] < position) {
+                index = next;
+                position -= tree[next];
+            }
+        }
+        return index;
+    }
+
+    private void add(int slot, int delta) {
+        for (int i = slot + 1; i < tree.length; i += i & -i) {
+            tree[i] += delta;
+        }
+    }
+
+    private synchronized void record(Student student) {
+        if (!student.isActive()) {
+            forget(student.getId());
+            return;
+        }
+        int slot = slotOf(student.getCurrentGPA());
+        Integer previous = slotById.put(student.getId(), slot);
+        if (previous != null && previous == slot) {
+            return;
+        }
+        if (previous != null) {
+            unlink(student.getId(), previous);
+        }
+        idsBySlot.computeIfAbsent(slot, s -> new TreeSet<>()).add(student.getId());
+        add(slot, 1);
+    }
+
+    private synchronized void forget(String studentId) {
+        Integer previous = slotById.remove(studentId);
+        if (previous != null) {
+            unlink(studentId, previous);
+        }
+    }
+
+    private void unlink(String studentId, int slot) {
+        TreeSet<String> ids = idsBySlot.get(slot);
+        ids.remove(studentId);
+        if (ids.isEmpty()) {
+            idsBySlot.remove(slot);
+        }
+        add(slot, -1);
+    }
+
+    @Override
+    public void onStudentChanged(Student student, ChangeType changeType) {
+        if (changeType == ChangeType.REMOVED) {
+            forget(student.getId());
+        } else {
+            record(student);
+        }
+    }
+
+    @Override
+    public synchronized void onDataCleared() {
+        slotById.clear();
+        idsBySlot.clear();
+        Arrays.fill(tree, 0);
+    }
+}
@@ -0,0 +1,186 @@
+package com.ccrm.stats;
+
+import com.ccrm.enums.Grade;
+import java.util.EnumMap;
+import java.util.Map;
+
+/**
+ * Streaming summary of numeric grades: a histogram over 0-100 at a
+ * resolution of 0.1, the first two moments and counts per letter grade.
+ * Its size is fixed however many grades it holds. Grades can be removed as
+ * well as added, and two sketches merge by adding their counters, so
+ * sketches of sections combine into departments or semesters exactly.
+ * Quantiles are exact for grades recorded to one decimal place and within
+ * 0.05 otherwise.
+ */
+public class GradeSketch {
+    public static final double MAX_GRADE = 100.0;
+    private static final int BINS_PER_POINT = 10;
+    private static final int BIN_COUNT = (int) MAX_GRADE * BINS_PER_POINT + 1;
+
+    private final int[] bins;
+    private final long[] letterCounts;
+    private long count;
+    private double sum;
+    private double sumOfSquares;
+
+    public GradeSketch() {
+        this.bins = new int[BIN_COUNT];
+        this.letterCounts = new long[Grade.values().length];
+    }
+
+    /**
+     * Adds a grade.
+     * @param grade The numeric grade (0-100)
+     * @param letter The letter grade, or null to count only the numeric grade
+     * @return This sketch
+     */
+    public synchronized GradeSketch add(double grade, Grade letter) {
+        update(grade, letter, 1);
+        return this;
+    }
+
+    /**
+     * Removes a grade added earlier.
+     * @param grade The numeric grade (0-100)
+     * @param letter The letter grade it was added with
+     * @return This sketch
+     */
+    public synchronized GradeSketch remove(double grade, Grade letter) {
+        update(grade, letter, -1);
+        return this;
+    }
+
+    private void update(double grade, Grade letter, int sign) {
+        bins[binOf(grade)] += sign;
+        if (letter != null) {
+            letterCounts[letter.ordinal()] += sign;
+        }
+        count += sign;
+        sum += sign * grade;
+        sumOfSquares += sign * grade * grade;
+    }
+
+    /**
+     * Adds all grades of another sketch to this one.
+     * @param other The sketch to merge in
+     * @return This sketch
+     */
+    public GradeSketch merge(GradeSketch other) {
+        return combine(other, 1);
+    }
+
+    /**
+     * Removes all grades of another sketch, previously merged in, from this one.
+     * @param other The sketch to take out
+     * @return This sketch
+     */
+    public GradeSketch subtract(GradeSketch other) {
+        return combine(other, -1);
+    }
+
+    private GradeSketch combine(GradeSketch other, int sign) {
+        GradeSketch source = other.copy();
+        synchronized (this) {
+            for (int i = 0; i < BIN_COUNT; i++) {
+                bins[i] += sign * source.bins[i];
+            }
+            for (int i = 0; i < letterCounts.length; i++) {
+                letterCounts[i] += sign * source.letterCounts[i];
+            }
+            count += sign * source.count;
+            sum += sign * source.sum;
+            sumOfSquares += sign * source.sumOfSquares;
+        }
+        return this;
+    }
+
+    /**
+     * Gets an independent copy of this sketch.
+     * @return The copy
+     */
+    public synchronized GradeSketch copy() {
+        GradeSketch copy = new GradeSketch();
+        System.arraycopy(bins, 0, copy.bins, 0, BIN_COUNT);
+        System.arraycopy(letterCounts, 0, copy.letterCounts, 0, letterCounts.length);
+        copy.count = count;
+        copy.sum = sum;
+        copy.sumOfSquares = sumOfSquares;
+        return copy;
+    }
+
+    public synchronized long getCount() {
+        return count;
+    }
+
+    /**
+     * Gets the mean grade.
+     * @return The mean, or 0 if the sketch is empty
+     */
+    public synchronized double getMean() {
+        return count > 0 ? sum / count : 0.0;
+    }
+
+    /**
+     * Gets the population standard deviation of the grades.
+     * @return The standard deviation, or 0 if the sketch is empty
+     */
+    public synchronized double getStandardDeviation() {
+        if (count <= 0) {
+            return 0.0;
+        }
+        double mean = sum / count;
+        // Clamped, as removals can leave a tiny negative rounding residue
+        return Math.sqrt(Math.max(0.0, sumOfSquares / count - mean * mean));
+    }
+
+    /**
+     * Gets a grade quantile by nearest rank.
+     * @param q The quantile, between 0 and 1; 0.5 is the median
+     * @return The grade at that rank, or 0 if the sketch is empty
+     */
+    public synchronized double getQuantile(double q) {
+        if (count <= 0) {
+            return 0.0;
+        }
+        long rank = Math.max(1, (long) Math.ceil(Math.min(1.0, Math.max(0.0, q)) * count));
+        long seen = 0;
+        for (int i = 0; i < BIN_COUNT; i++) {
+            seen += bins[i];
+            if (seen >= rank) {
+                return (double) i / BINS_PER_POINT;
+            }
+        }
+        return MAX_GRADE;
+    }
+
+    public double getMedian() {
+        return getQuantile(0.5);
+    }
+
+    /**
+     * Gets the number of grades with a letter grade.
+     * @param letter The letter grade
+     * @return The count
+     */
+    public synchronized long getLetterCount(Grade letter) {
+        return letterCounts[letter.ordinal()];
+    }
+
+    /**
+     * Gets the count of every letter grade, best first.
+     * @return Counts keyed by letter grade
+     */
+    public synchronized Map<Grade, Long> getLetterCounts() {
+        Map<Grade, Long> result = new EnumMap<>(Grade.class);
+        for (Grade letter : Grade.values()) {
+            result.put(letter, letterCounts[letter.ordinal()]);
+        }
+        return result;
+    }
+
+    private static int binOf(double grade) {
+        int bin = (int) Math.round(grade * BINS_PER_POINT);
+        return Math.max(0, Math.min(BIN_COUNT - 1, bin));
+    }
+}
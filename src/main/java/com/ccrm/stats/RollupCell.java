@@ -0,0 +1,51 @@
+package com.ccrm.stats;
+
+/**
+ * Snapshot of course and enrollment totals for one Department x Semester
+ * cell of a rollup, or for a sum of cells.
+ */
+public class RollupCell {
+    private final long courseCount;
+    private final long activeCourseCount;
+    private final long activeEnrollments;
+    private final long withdrawnEnrollments;
+    private final long completedEnrollments;
+    private final long creditHours;
+    private final long gradedCredits;
+    private final double qualityPoints;
+
+    RollupCell(long courseCount, long activeCourseCount, long activeEnrollments, long withdrawnEnrollments,
+               long completedEnrollments, long creditHours, long gradedCredits, double qualityPoints) {
+        this.courseCount = courseCount;
+        this.activeCourseCount = activeCourseCount;
+        this.activeEnrollments = activeEnrollments;
+        this.withdrawnEnrollments = withdrawnEnrollments;
+        this.completedEnrollments = completedEnrollments;
+        this.creditHours = creditHours;
+        this.gradedCredits = gradedCredits;
+        this.qualityPoints = qualityPoints;
+    }
+
+    public long getCourseCount() { return courseCount; }
+    public long getActiveCourseCount() { return activeCourseCount; }
+    public long getActiveEnrollments() { return activeEnrollments; }
+    public long getWithdrawnEnrollments() { return withdrawnEnrollments; }
+    public long getCompletedEnrollments() { return completedEnrollments; }
+
+    /**
+     * Gets the credit hours carried by active enrollments.
+     * @return Sum of course credit hours over active enrollments
+     */
+    public long getCreditHours() { return creditHours; }
+
+    public long getGradedCredits() { return gradedCredits; }
+
+    /**
+     * Gets the credit-weighted mean grade points of graded enrollments,
+     * computed the same way as a student's GPA.
+     * @return The GPA, or 0 if nothing is graded
+     */
+    public double getGpa() {
+        return gradedCredits > 0 ? qualityPoints / gradedCredits : 0.0;
+    }
+}
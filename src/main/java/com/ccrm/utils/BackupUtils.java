@@ -1,6 +1,9 @@
 package com.ccrm.utils;
 
+import com.ccrm.interfaces.CompressionCodec;
 import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
 import java.nio.file.*;
 import java.nio.file.attribute.BasicFileAttributes;
 import java.util.ArrayList;
@@ -28,6 +31,69 @@ public class BackupUtils {
         return backupDir;
     }
 
+    /**
+     * Creates a backup of all data files, compressing each file with a codec.
+     * Files that are already compressed are copied as-is.
+     * @param dataDir The directory containing data files
+     * @param backupBaseDir The base directory for backups
+     * @param codec The codec to compress with
+     * @return The path of the created backup directory
+     * @throws IOException if backup creation fails
+     */
+    public static String createBackup(String dataDir, String backupBaseDir, CompressionCodec codec) throws IOException {
+        if (codec == CompressionUtils.NONE) {
+            return createBackup(dataDir, backupBaseDir);
+        }
+        String backupDir = FileUtils.createTimestampedBackupDir(backupBaseDir);
+        compressDirectoryRecursively(dataDir, backupDir, codec);
+        return backupDir;
+    }
+
+    /**
+     * Recursively copies a directory, compressing every file on the way.
+     * Compressed copies get the codec's file extension appended.
+     * @param sourceDir Source directory path
+     * @param targetDir Target directory path
+     * @param codec The codec to compress with
+     * @throws IOException if copy operation fails
+     */
+    public static void compressDirectoryRecursively(String sourceDir, String targetDir, CompressionCodec codec) throws IOException {
+        Path source = Paths.get(sourceDir);
+        Path target = Paths.get(targetDir);
+        
+        if (!Files.exists(source)) {
+            throw new IOException("Source directory does not exist: " + sourceDir);
+        }
+        
+        byte[] buffer = new byte[64 * 1024];
+        Files.walkFileTree(source, new SimpleFileVisitor<Path>() {
+            @Override
+            public FileVisitResult preVisitDirectory(Path dir, BasicFileAttributes attrs) throws IOException {
+                Files.createDirectories(target.resolve(source.relativize(dir)));
+                return FileVisitResult.CONTINUE;
+            }
+
+            @Override
+            public FileVisitResult visitFile(Path file, BasicFileAttributes attrs) throws IOException {
+                Path targetFile = target.resolve(source.relativize(file));
+                if (CompressionUtils.detect(file) != CompressionUtils.NONE) {
+                    Files.copy(file, targetFile, StandardCopyOption.REPLACE_EXISTING);
+                    return FileVisitResult.CONTINUE;
+                }
+                
+                Path compressedFile = targetFile.resolveSibling(targetFile.getFileName() + codec.getFileExtension());
+                try (InputStream in = Files.newInputStream(file);
+                     OutputStream out = CompressionUtils.openOutput(compressedFile, codec)) {
+                    int read;
+                    while ((read = in.read(buffer)) > 0) {
+                        out.write(buffer, 0, read);
+                    }
+                }
+                return FileVisitResult.CONTINUE;
+            }
+        });
+    }
+
     /**
      * Recursively copies a directory and all its contents.
      * @param sourceDir Source directory path
@@ -0,0 +1,261 @@
+package com.ccrm.utils;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Maps the columns of a CSV file onto the canonical column order of an
+ * entity, compiled once per file from its header row.
+ * Columns may appear in any order and under any registered alias; header
+ * names are compared case-insensitively, ignoring spaces and punctuation.
+ * Extra columns are ignored, and columns outside the projection are skipped
+ * while tokenizing without creating strings.
+ */
+public class CSVColumnBinder {
+    private final Schema schema;
+    private final int[] slotByColumn;
+    private final int lastBoundColumn;
+
+    private CSVColumnBinder(Schema schema, int[] slotByColumn) {
+        this.schema = schema;
+        this.slotByColumn = slotByColumn;
+        int last = -1;
+        for (int i = 0; i < slotByColumn.length; i++) {
+            if (slotByColumn[i] >= 0) {
+                last = i;
+            }
+        }
+        this.lastBoundColumn = last;
+    }
+
+    /**
+     * Gets the number of slots in a bound row, one per canonical column.
+     */
+    public int getSlotCount() {
+        return schema.columns.length;
+    }
+
+    /**
+     * Checks whether the file provides a canonical column.
+     * @param column Canonical column name
+     * @return true if the column is present and projected
+     */
+    public boolean isBound(String column) {
+        int slot = schema.slotOf(column);
+        for (int mapped : slotByColumn) {
+            if (mapped == slot) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Restricts binding to a subset of canonical columns; all other columns
+     * are skipped while tokenizing and read as null.
+     * @param columns Canonical column names to keep
+     * @return A new binder over the same file layout
+     */
+    public CSVColumnBinder project(String... columns) {
+        boolean[] keep = new boolean[schema.columns.length];
+        for (String column : columns) {
+            keep[schema.slotOf(column)] = true;
+        }
+        int[] projected = slotByColumn.clone();
+        for (int i = 0; i < projected.length; i++) {
+            if (projected[i] >= 0 && !keep[projected[i]]) {
+                projected[i] = -1;
+            }
+        }
+        return new CSVColumnBinder(schema, projected);
+    }
+
+    /**
+     * Tokenizes a data line into a new row in canonical column order.
+     * @param line The CSV line
+     * @return Values by canonical slot; null where the column is absent or skipped
+     */
+    public String[] bind(String line) {
+        return bind(line, new String[getSlotCount()]);
+    }
+
+    /**
+     * Tokenizes a data line into a reused row in canonical column order.
+     * @param line The CSV line
+     * @param row Array of at least {@link #getSlotCount()} slots; overwritten
+     * @return The row
+     */
+    public String[] bind(String line, String[] row) {
+        Arrays.fill(row, null);
+        int length = line.length();
+        int column = 0;
+        int i = 0;
+        StringBuilder quoted = null;
+        while (column <= lastBoundColumn) {
+            int slot = column < slotByColumn.length ? slotByColumn[column] : -1;
+            if (i < length && line.charAt(i) == '"') {
+                if (slot >= 0) {
+                    if (quoted == null) {
+                        quoted = new StringBuilder();
+                    }
+                    quoted.setLength(0);
+                }
+                i++;
+                while (i < length) {
+                    char c = line.charAt(i);
+                    if (c == '"') {
+                        if (i + 1 < length && line.charAt(i + 1) == '"') {
+                            if (slot >= 0) quoted.append('"');
+                            i += 2;
+                            continue;
+                        }
+                        i++;
+                        break;
+                    }
+                    if (slot >= 0) quoted.append(c);
+                    i++;
+                }
+                // Keep anything between the closing quote and the delimiter
+                while (i < length && line.charAt(i) != ',') {
+                    if (slot >= 0) quoted.append(line.charAt(i));
+                    i++;
+                }
+                if (slot >= 0) {
+                    row[slot] = quoted.toString();
+                }
+            } else {
+                int end = line.indexOf(',', i);
+                if (end < 0) {
+                    end = length;
+                }
+                if (slot >= 0) {
+                    row[slot] = line.substring(i, end);
+                }
+                i = end;
+            }
+            column++;
+            if (i >= length) {
+                break;
+            }
+            i++; // Skip delimiter
+        }
+        return row;
+    }
+
+    /**
+     * Normalizes a header name for matching: lowercase letters and digits only.
+     * @param name The header name
+     * @return The normalized name
+     */
+    static String normalize(String name) {
+        StringBuilder normalized = new StringBuilder(name.length());
+        for (int i = 0; i < name.length(); i++) {
+            char c = name.charAt(i);
+            if (Character.isLetterOrDigit(c)) {
+                normalized.append(Character.toLowerCase(c));
+            }
+        }
+        return normalized.toString();
+    }
+
+    /**
+     * Canonical columns of one entity with their aliases and required columns.
+     * Configure aliases and required columns before compiling the first binder.
+     */
+    public static class Schema {
+        private final String[] columns;
+        private final Map<String, Integer> slotsByName;
+        private final boolean[] required;
+
+        /**
+         * Creates a schema from a canonical header line.
+         * @param canonicalHeader Comma-separated canonical column names
+         */
+        public Schema(String canonicalHeader) {
+            this.columns = canonicalHeader.split(",");
+            this.slotsByName = new HashMap<>();
+            this.required = new boolean[columns.length];
+            for (int i = 0; i < columns.length; i++) {
+                slotsByName.put(normalize(columns[i]), i);
+            }
+        }
+
+        /**
+         * Registers alternative header names for a canonical column.
+         * @param column Canonical column name
+         * @param aliases Alternative names used by other systems
+         * @return This schema
+         */
+        public Schema alias(String column, String... aliases) {
+            int slot = slotOf(column);
+            for (String alias : aliases) {
+                slotsByName.put(normalize(alias), slot);
+            }
+            return this;
+        }
+
+        /**
+         * Marks columns that every file must provide.
+         * @param requiredColumns Canonical column names
+         * @return This schema
+         */
+        public Schema require(String... requiredColumns) {
+            for (String column : requiredColumns) {
+                required[slotOf(column)] = true;
+            }
+            return this;
+        }
+
+        /**
+         * Gets the slot of a canonical column.
+         * @param column Canonical column name
+         * @return The slot index
+         */
+        public int slotOf(String column) {
+            Integer slot = slotsByName.get(normalize(column));
+            if (slot == null) {
+                throw new IllegalArgumentException("Unknown column: " + column);
+            }
+            return slot;
+        }
+
+        /**
+         * Compiles a binder for a file from its header row.
+         * @param headerLine The file's header row
+         * @return The binder
+         * @throws IOException if a required column is missing
+         */
+        public CSVColumnBinder compile(String headerLine) throws IOException {
+            if (!headerLine.isEmpty() && headerLine.charAt(0) == '\uFEFF') {
+                headerLine = headerLine.substring(1);
+            }
+            String[] names = CSVUtils.parseCSVLine(headerLine);
+            int[] slotByColumn = new int[names.length];
+            boolean[] seen = new boolean[columns.length];
+            for (int i = 0; i < names.length; i++) {
+                Integer slot = slotsByName.get(normalize(names[i]));
+                // The first occurrence of a column wins; unknown columns are ignored
+                if (slot != null && !seen[slot]) {
+                    seen[slot] = true;
+                    slotByColumn[i] = slot;
+                } else {
+                    slotByColumn[i] = -1;
+                }
+            }
+            List<String> missing = new ArrayList<>();
+            for (int slot = 0; slot < columns.length; slot++) {
+                if (required[slot] && !seen[slot]) {
+                    missing.add(columns[slot]);
+                }
+            }
+            if (!missing.isEmpty()) {
+                throw new IOException("Missing required CSV columns: " + String.join(", ", missing));
+            }
+            return new CSVColumnBinder(this, slotByColumn);
+        }
+    }
+}
@@ -4,16 +4,23 @@ import com.ccrm.model.*;
 import com.ccrm.enums.Department;
 import com.ccrm.enums.Semester;
 import com.ccrm.enums.Grade;
+import com.ccrm.interfaces.CompressionCodec;
 
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
 import java.io.IOException;
-import java.nio.file.Files;
+import java.io.InputStreamReader;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
 import java.nio.file.Path;
 import java.nio.file.Paths;
-import java.nio.file.StandardOpenOption;
 import java.time.LocalDate;
 import java.time.format.DateTimeFormatter;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.function.Consumer;
+import java.util.function.Function;
 
 /**
  * Utility class for CSV import/export operations.
@@ -23,33 +30,101 @@ public class CSVUtils {
     
     private static final DateTimeFormatter DATE_FORMATTER = DateTimeFormatter.ofPattern("yyyy-MM-dd");
     private static final String CSV_DELIMITER = ",";
+    private static final String LINE_SEPARATOR = System.lineSeparator();
+    private static final int WRITE_BUFFER_SIZE = 64 * 1024;
+    private static final int READ_BUFFER_SIZE = 64 * 1024;
+
+    public static final String STUDENT_HEADER = "ID,RegistrationNumber,FullName,Email,DateOfBirth,PhoneNumber,EnrollmentDate,IsActive,CurrentGPA,Department";
+    public static final String COURSE_HEADER = "CourseID,CourseCode,Title,CreditHours,InstructorID,Semester,Department,Description,IsActive,Capacity";
+    public static final String ENROLLMENT_HEADER = "EnrollmentID,StudentID,CourseID,EnrollmentDate,CompletionDate,NumericGrade,LetterGrade,IsCompleted,IsActive";
+
+    /** Canonical student columns and the header names other systems use for them. */
+    public static final CSVColumnBinder.Schema STUDENT_COLUMNS = new CSVColumnBinder.Schema(STUDENT_HEADER)
+            .alias("ID", "StudentID", "Student")
+            .alias("RegistrationNumber", "RegNo", "RegistrationNo", "RegNumber")
+            .alias("FullName", "Name", "StudentName")
+            .alias("Email", "EmailAddress", "Mail")
+            .alias("DateOfBirth", "DOB", "BirthDate")
+            .alias("PhoneNumber", "Phone", "Mobile", "Contact")
+            .alias("EnrollmentDate", "AdmissionDate", "JoinDate")
+            .alias("IsActive", "Active")
+            .alias("CurrentGPA", "GPA")
+            .alias("Department", "Dept", "Major")
+            .require("ID", "RegistrationNumber", "FullName", "Email");
+
+    /** Canonical course columns and the header names other systems use for them. */
+    public static final CSVColumnBinder.Schema COURSE_COLUMNS = new CSVColumnBinder.Schema(COURSE_HEADER)
+            .alias("CourseID", "ID")
+            .alias("CourseCode", "Code")
+            .alias("Title", "CourseTitle", "CourseName", "Name")
+            .alias("CreditHours", "Credits")
+            .alias("InstructorID", "Instructor")
+            .alias("Semester", "Term")
+            .alias("Department", "Dept")
+            .alias("Description", "Desc")
+            .alias("IsActive", "Active")
+            .alias("Capacity", "MaxEnrollment", "Seats")
+            .require("CourseID", "CourseCode", "Title", "CreditHours", "Semester", "Department");
+
+    /** Canonical enrollment columns and the header names other systems use for them. */
+    public static final CSVColumnBinder.Schema ENROLLMENT_COLUMNS = new CSVColumnBinder.Schema(ENROLLMENT_HEADER)
+            .alias("EnrollmentID", "ID")
+            .alias("StudentID", "Student")
+            .alias("CourseID", "Course")
+            .alias("EnrollmentDate", "EnrolledOn")
+            .alias("CompletionDate", "CompletedOn")
+            .alias("NumericGrade", "Score", "Marks")
+            .alias("LetterGrade", "Letter", "Grade")
+            .alias("IsCompleted", "Completed")
+            .alias("IsActive", "Active")
+            .require("EnrollmentID", "StudentID", "CourseID");
 
     /**
      * Exports students to CSV format.
-     * @param students List of students to export
+     * Rows are encoded into a reused buffer and streamed to disk, so the
+     * collection can be a live store view rather than a copy.
+     * @param students Students to export
      * @param filePath Output file path
      * @throws IOException if export fails
      */
-    public static void exportStudentsToCSV(List<Student> students, String filePath) throws IOException {
-        List<String> lines = new ArrayList<>();
-        lines.add("ID,RegistrationNumber,FullName,Email,DateOfBirth,PhoneNumber,EnrollmentDate,IsActive,CurrentGPA");
-        
-        for (Student student : students) {
-            StringBuilder line = new StringBuilder();
-            line.append(escapeCSV(student.getId())).append(CSV_DELIMITER);
-            line.append(escapeCSV(student.getRegistrationNumber())).append(CSV_DELIMITER);
-            line.append(escapeCSV(student.getFullName())).append(CSV_DELIMITER);
-            line.append(escapeCSV(student.getEmail())).append(CSV_DELIMITER);
-            line.append(student.getDateOfBirth() != null ? student.getDateOfBirth().format(DATE_FORMATTER) : "").append(CSV_DELIMITER);
-            line.append(escapeCSV(student.getPhoneNumber())).append(CSV_DELIMITER);
-            line.append(student.getEnrollmentDate().format(DATE_FORMATTER)).append(CSV_DELIMITER);
-            line.append(student.isActive()).append(CSV_DELIMITER);
-            line.append(student.getCurrentGPA());
-            
-            lines.add(line.toString());
+    public static void exportStudentsToCSV(Iterable<Student> students, String filePath) throws IOException {
+        exportStudentsToCSV(students, filePath, CompressionUtils.NONE);
+    }
+
+    /**
+     * Exports students to CSV format through a compression codec.
+     * @param students Students to export
+     * @param filePath Output file path
+     * @param codec The codec to compress with
+     * @throws IOException if export fails
+     */
+    public static void exportStudentsToCSV(Iterable<Student> students, String filePath, CompressionCodec codec) throws IOException {
+        try (RowWriter writer = new RowWriter(filePath, STUDENT_HEADER, codec)) {
+            for (Student student : students) {
+                appendStudentRow(writer.row(), student);
+                writer.endRow();
+            }
+        }
+    }
+
+    /**
+     * Appends a student as a CSV row (without line separator).
+     * @param row The buffer to append to
+     * @param student The student to encode
+     */
+    public static void appendStudentRow(StringBuilder row, Student student) {
+        appendEscaped(row, student.getId()).append(CSV_DELIMITER);
+        appendEscaped(row, student.getRegistrationNumber()).append(CSV_DELIMITER);
+        appendEscaped(row, student.getFullName()).append(CSV_DELIMITER);
+        appendEscaped(row, student.getEmail()).append(CSV_DELIMITER);
+        appendDate(row, student.getDateOfBirth()).append(CSV_DELIMITER);
+        appendEscaped(row, student.getPhoneNumber()).append(CSV_DELIMITER);
+        appendDate(row, student.getEnrollmentDate()).append(CSV_DELIMITER);
+        row.append(student.isActive()).append(CSV_DELIMITER);
+        row.append(student.getCurrentGPA()).append(CSV_DELIMITER);
+        if (student.getDepartment() != null) {
+            row.append(student.getDepartment().name());
         }
-        
-        Files.write(Paths.get(filePath), lines, StandardOpenOption.CREATE, StandardOpenOption.TRUNCATE_EXISTING);
     }
 
     /**
@@ -59,70 +134,89 @@ public class CSVUtils {
      * @throws IOException if import fails
      */
     public static List<Student> importStudentsFromCSV(String filePath) throws IOException {
-        List<String> lines = Files.readAllLines(Paths.get(filePath));
-        List<Student> students = new ArrayList<>();
-        
-        // Skip header line
-        for (int i = 1; i < lines.size(); i++) {
-            String line = lines.get(i).trim();
-            if (line.isEmpty()) continue;
-            
-            String[] fields = parseCSVLine(line);
-            if (fields.length >= 8) {
-                Student student = new Student(
-                    fields[0], // ID
-                    fields[1], // Registration Number
-                    fields[2], // Full Name
-                    fields[3]  // Email
-                );
-                
-                if (!fields[4].isEmpty()) {
-                    student.setDateOfBirth(LocalDate.parse(fields[4], DATE_FORMATTER));
-                }
-                if (!fields[5].isEmpty()) {
-                    student.setPhoneNumber(fields[5]);
-                }
-                if (!fields[6].isEmpty()) {
-                    student.setEnrollmentDate(LocalDate.parse(fields[6], DATE_FORMATTER));
-                }
-                student.setActive(Boolean.parseBoolean(fields[7]));
-                if (fields.length > 8 && !fields[8].isEmpty()) {
-                    student.setCurrentGPA(Double.parseDouble(fields[8]));
-                }
-                
-                students.add(student);
-            }
+        return importRows(filePath, STUDENT_COLUMNS, CSVUtils::parseStudent);
+    }
+
+    /**
+     * Builds a student from parsed CSV fields in canonical column order.
+     * Optional fields are null where the source file has no such column.
+     * @param fields The parsed fields
+     * @return The student, or null if the row is short or lacks a required field
+     */
+    public static Student parseStudent(String[] fields) {
+        if (fields.length < 8 || anyNull(fields, 0, 1, 2, 3)) {
+            return null;
         }
+        Student student = new Student(
+            fields[0], // ID
+            fields[1], // Registration Number
+            fields[2], // Full Name
+            fields[3]  // Email
+        );
         
-        return students;
+        if (hasValue(fields[4])) {
+            student.setDateOfBirth(LocalDate.parse(fields[4], DATE_FORMATTER));
+        }
+        if (hasValue(fields[5])) {
+            student.setPhoneNumber(fields[5]);
+        }
+        if (hasValue(fields[6])) {
+            student.setEnrollmentDate(LocalDate.parse(fields[6], DATE_FORMATTER));
+        }
+        if (fields[7] != null) {
+            student.setActive(Boolean.parseBoolean(fields[7]));
+        }
+        if (fields.length > 8 && hasValue(fields[8])) {
+            student.setCurrentGPA(Double.parseDouble(fields[8]));
+        }
+        if (fields.length > 9 && hasValue(fields[9])) {
+            student.setDepartment(Department.valueOf(fields[9]));
+        }
+        return student;
     }
 
     /**
      * Exports courses to CSV format.
-     * @param courses List of courses to export
+     * @param courses Courses to export
      * @param filePath Output file path
      * @throws IOException if export fails
      */
-    public static void exportCoursesToCSV(List<Course> courses, String filePath) throws IOException {
-        List<String> lines = new ArrayList<>();
-        lines.add("CourseID,CourseCode,Title,CreditHours,InstructorID,Semester,Department,Description,IsActive");
-        
-        for (Course course : courses) {
-            StringBuilder line = new StringBuilder();
-            line.append(escapeCSV(course.getCourseId())).append(CSV_DELIMITER);
-            line.append(escapeCSV(course.getCourseCode())).append(CSV_DELIMITER);
-            line.append(escapeCSV(course.getTitle())).append(CSV_DELIMITER);
-            line.append(course.getCreditHours()).append(CSV_DELIMITER);
-            line.append(escapeCSV(course.getInstructorId())).append(CSV_DELIMITER);
-            line.append(course.getSemester().name()).append(CSV_DELIMITER);
-            line.append(course.getDepartment().name()).append(CSV_DELIMITER);
-            line.append(escapeCSV(course.getDescription())).append(CSV_DELIMITER);
-            line.append(course.isActive());
-            
-            lines.add(line.toString());
+    public static void exportCoursesToCSV(Iterable<Course> courses, String filePath) throws IOException {
+        exportCoursesToCSV(courses, filePath, CompressionUtils.NONE);
+    }
+
+    /**
+     * Exports courses to CSV format through a compression codec.
+     * @param courses Courses to export
+     * @param filePath Output file path
+     * @param codec The codec to compress with
+     * @throws IOException if export fails
+     */
+    public static void exportCoursesToCSV(Iterable<Course> courses, String filePath, CompressionCodec codec) throws IOException {
+        try (RowWriter writer = new RowWriter(filePath, COURSE_HEADER, codec)) {
+            for (Course course : courses) {
+                appendCourseRow(writer.row(), course);
+                writer.endRow();
+            }
         }
-        
-        Files.write(Paths.get(filePath), lines, StandardOpenOption.CREATE, StandardOpenOption.TRUNCATE_EXISTING);
+    }
+
+    /**
+     * Appends a course as a CSV row (without line separator).
+     * @param row The buffer to append to
+     * @param course The course to encode
+     */
+    public static void appendCourseRow(StringBuilder row, Course course) {
+        appendEscaped(row, course.getCourseId()).append(CSV_DELIMITER);
+        appendEscaped(row, course.getCourseCode()).append(CSV_DELIMITER);
+        appendEscaped(row, course.getTitle()).append(CSV_DELIMITER);
+        row.append(course.getCreditHours()).append(CSV_DELIMITER);
+        appendEscaped(row, course.getInstructorId()).append(CSV_DELIMITER);
+        row.append(course.getSemester().name()).append(CSV_DELIMITER);
+        row.append(course.getDepartment().name()).append(CSV_DELIMITER);
+        appendEscaped(row, course.getDescription()).append(CSV_DELIMITER);
+        row.append(course.isActive()).append(CSV_DELIMITER);
+        row.append(course.getCapacity());
     }
 
     /**
@@ -132,66 +226,82 @@ public class CSVUtils {
      * @throws IOException if import fails
      */
     public static List<Course> importCoursesFromCSV(String filePath) throws IOException {
-        List<String> lines = Files.readAllLines(Paths.get(filePath));
-        List<Course> courses = new ArrayList<>();
-        
-        // Skip header line
-        for (int i = 1; i < lines.size(); i++) {
-            String line = lines.get(i).trim();
-            if (line.isEmpty()) continue;
-            
-            String[] fields = parseCSVLine(line);
-            if (fields.length >= 8) {
-                Course course = new Course(
-                    fields[0], // Course ID
-                    fields[1], // Course Code
-                    fields[2], // Title
-                    Integer.parseInt(fields[3]), // Credit Hours
-                    fields[4], // Instructor ID
-                    Semester.valueOf(fields[5]), // Semester
-                    Department.valueOf(fields[6]) // Department
-                );
-                
-                if (fields.length > 7 && !fields[7].isEmpty()) {
-                    course.setDescription(fields[7]);
-                }
-                if (fields.length > 8) {
-                    course.setActive(Boolean.parseBoolean(fields[8]));
-                }
-                
-                courses.add(course);
-            }
+        return importRows(filePath, COURSE_COLUMNS, CSVUtils::parseCourse);
+    }
+
+    /**
+     * Builds a course from parsed CSV fields in canonical column order.
+     * Optional fields are null where the source file has no such column.
+     * @param fields The parsed fields
+     * @return The course, or null if the row is short or lacks a required field
+     */
+    public static Course parseCourse(String[] fields) {
+        if (fields.length < 8 || anyNull(fields, 0, 1, 2, 3, 5, 6)) {
+            return null;
         }
+        Course course = new Course(
+            fields[0], // Course ID
+            fields[1], // Course Code
+            fields[2], // Title
+            Integer.parseInt(fields[3]), // Credit Hours
+            fields[4], // Instructor ID
+            Semester.valueOf(fields[5]), // Semester
+            Department.valueOf(fields[6]) // Department
+        );
         
-        return courses;
+        if (fields.length > 7 && hasValue(fields[7])) {
+            course.setDescription(fields[7]);
+        }
+        if (fields.length > 8 && fields[8] != null) {
+            course.setActive(Boolean.parseBoolean(fields[8]));
+        }
+        if (fields.length > 9 && hasValue(fields[9])) {
+            course.setCapacity(Integer.parseInt(fields[9]));
+        }
+        return course;
     }
 
     /**
      * Exports enrollments to CSV format.
-     * @param enrollments List of enrollments to export
+     * @param enrollments Enrollments to export
      * @param filePath Output file path
      * @throws IOException if export fails
      */
-    public static void exportEnrollmentsToCSV(List<Enrollment> enrollments, String filePath) throws IOException {
-        List<String> lines = new ArrayList<>();
-        lines.add("EnrollmentID,StudentID,CourseID,EnrollmentDate,CompletionDate,NumericGrade,LetterGrade,IsCompleted,IsActive");
-        
-        for (Enrollment enrollment : enrollments) {
-            StringBuilder line = new StringBuilder();
-            line.append(escapeCSV(enrollment.getEnrollmentId())).append(CSV_DELIMITER);
-            line.append(escapeCSV(enrollment.getStudentId())).append(CSV_DELIMITER);
-            line.append(escapeCSV(enrollment.getCourseId())).append(CSV_DELIMITER);
-            line.append(enrollment.getEnrollmentDate().format(DATE_FORMATTER)).append(CSV_DELIMITER);
-            line.append(enrollment.getCompletionDate() != null ? enrollment.getCompletionDate().format(DATE_FORMATTER) : "").append(CSV_DELIMITER);
-            line.append(enrollment.getNumericGrade()).append(CSV_DELIMITER);
-            line.append(enrollment.getLetterGrade() != null ? enrollment.getLetterGrade().name() : "").append(CSV_DELIMITER);
-            line.append(enrollment.isCompleted()).append(CSV_DELIMITER);
-            line.append(enrollment.isActive());
-            
-            lines.add(line.toString());
+    public static void exportEnrollmentsToCSV(Iterable<Enrollment> enrollments, String filePath) throws IOException {
+        exportEnrollmentsToCSV(enrollments, filePath, CompressionUtils.NONE);
+    }
+
+    /**
+     * Exports enrollments to CSV format through a compression codec.
+     * @param enrollments Enrollments to export
+     * @param filePath Output file path
+     * @param codec The codec to compress with
+     * @throws IOException if export fails
+     */
+    public static void exportEnrollmentsToCSV(Iterable<Enrollment> enrollments, String filePath, CompressionCodec codec) throws IOException {
+        try (RowWriter writer = new RowWriter(filePath, ENROLLMENT_HEADER, codec)) {
+            for (Enrollment enrollment : enrollments) {
+                appendEnrollmentRow(writer.row(), enrollment);
+                writer.endRow();
+            }
         }
-        
-        Files.write(Paths.get(filePath), lines, StandardOpenOption.CREATE, StandardOpenOption.TRUNCATE_EXISTING);
+    }
+
+    /**
+     * Appends an enrollment as a CSV row (without line separator).
+     * @param row The buffer to append to
+     * @param enrollment The enrollment to encode
+     */
+    public static void appendEnrollmentRow(StringBuilder row, Enrollment enrollment) {
+        appendEscaped(row, enrollment.getEnrollmentId()).append(CSV_DELIMITER);
+        appendEscaped(row, enrollment.getStudentId()).append(CSV_DELIMITER);
+        appendEscaped(row, enrollment.getCourseId()).append(CSV_DELIMITER);
+        appendDate(row, enrollment.getEnrollmentDate()).append(CSV_DELIMITER);
+        appendDate(row, enrollment.getCompletionDate()).append(CSV_DELIMITER);
+        row.append(enrollment.getNumericGrade()).append(CSV_DELIMITER);
+        row.append(enrollment.getLetterGrade() != null ? enrollment.getLetterGrade().name() : "").append(CSV_DELIMITER);
+        row.append(enrollment.isCompleted()).append(CSV_DELIMITER);
+        row.append(enrollment.isActive());
     }
 
     /**
@@ -201,59 +311,214 @@ public class CSVUtils {
      * @throws IOException if import fails
      */
     public static List<Enrollment> importEnrollmentsFromCSV(String filePath) throws IOException {
-        List<String> lines = Files.readAllLines(Paths.get(filePath));
-        List<Enrollment> enrollments = new ArrayList<>();
+        return importRows(filePath, ENROLLMENT_COLUMNS, CSVUtils::parseEnrollment);
+    }
+
+    /**
+     * Streams enrollments from CSV format without collecting them.
+     * @param filePath Input file path
+     * @param handler Receives each parsed enrollment in file order
+     * @throws IOException if reading fails or a required column is missing
+     */
+    public static void forEachEnrollment(String filePath, Consumer<Enrollment> handler) throws IOException {
+        forEachRow(filePath, ENROLLMENT_COLUMNS, CSVUtils::parseEnrollment, handler);
+    }
+
+    /**
+     * Builds an enrollment from parsed CSV fields in canonical column order.
+     * Optional fields are null where the source file has no such column.
+     * @param fields The parsed fields
+     * @return The enrollment, or null if the row is short or lacks a required field
+     */
+    public static Enrollment parseEnrollment(String[] fields) {
+        if (fields.length < 6 || anyNull(fields, 0, 1, 2)) {
+            return null;
+        }
+        Enrollment enrollment = new Enrollment(
+            fields[0], // Enrollment ID
+            fields[1], // Student ID
+            fields[2]  // Course ID
+        );
         
-        // Skip header line
-        for (int i = 1; i < lines.size(); i++) {
-            String line = lines.get(i).trim();
-            if (line.isEmpty()) continue;
-            
-            String[] fields = parseCSVLine(line);
-            if (fields.length >= 6) {
-                Enrollment enrollment = new Enrollment(
-                    fields[0], // Enrollment ID
-                    fields[1], // Student ID
-                    fields[2]  // Course ID
-                );
+        if (hasValue(fields[3])) {
+            enrollment.setEnrollmentDate(LocalDate.parse(fields[3], DATE_FORMATTER));
+        }
+        if (hasValue(fields[4])) {
+            enrollment.setCompletionDate(LocalDate.parse(fields[4], DATE_FORMATTER));
+        }
+        if (hasValue(fields[5])) {
+            enrollment.setNumericGrade(Double.parseDouble(fields[5]));
+        }
+        if (fields.length > 6 && hasValue(fields[6])) {
+            applyLetterGrade(enrollment, fields[6], hasValue(fields[5]));
+        }
+        if (fields.length > 7 && fields[7] != null) {
+            enrollment.setCompleted(Boolean.parseBoolean(fields[7]));
+        }
+        if (fields.length > 8 && fields[8] != null) {
+            enrollment.setActive(Boolean.parseBoolean(fields[8]));
+        }
+        return enrollment;
+    }
+
+    /**
+     * Sets an enrollment's letter grade from a LetterGrade column value.
+     * Other systems often export the numeric score under a "Grade" header,
+     * which binds here, so a number is taken as the numeric grade instead.
+     * @param enrollment The enrollment being parsed
+     * @param value The column value
+     * @param hasNumericGrade true if the row already has a numeric grade
+     * @throws IllegalArgumentException if the value is neither a letter grade nor a number
+     */
+    private static void applyLetterGrade(Enrollment enrollment, String value, boolean hasNumericGrade) {
+        String trimmed = value.trim();
+        for (Grade grade : Grade.values()) {
+            if (grade.name().equalsIgnoreCase(trimmed)) {
+                enrollment.setLetterGrade(grade);
+                return;
+            }
+        }
+        double score;
+        try {
+            score = Double.parseDouble(trimmed);
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("Unknown letter grade: " + value);
+        }
+        if (!hasNumericGrade) {
+            enrollment.setNumericGrade(score);
+        }
+        enrollment.setLetterGrade(Grade.fromScore(hasNumericGrade ? enrollment.getNumericGrade() : score));
+    }
+
+    /**
+     * Reads entity rows, binding columns by header name rather than position.
+     * @param filePath Input file path
+     * @param schema The entity's column schema
+     * @param parser Builds an entity from a row in canonical column order
+     * @return List of parsed entities; empty if the file has no header
+     * @throws IOException if reading fails or a required column is missing
+     */
+    private static <T> List<T> importRows(String filePath, CSVColumnBinder.Schema schema,
+                                          Function<String[], T> parser) throws IOException {
+        List<T> rows = new ArrayList<>();
+        forEachRow(filePath, schema, parser, rows::add);
+        return rows;
+    }
+
+    private static <T> void forEachRow(String filePath, CSVColumnBinder.Schema schema,
+                                       Function<String[], T> parser, Consumer<T> handler) throws IOException {
+        try (BufferedReader reader = openReader(filePath)) {
+            String header = reader.readLine();
+            if (header == null || header.trim().isEmpty()) {
+                return;
+            }
+            CSVColumnBinder binder = schema.compile(header.trim());
+            String[] fields = new String[binder.getSlotCount()];
+            String line;
+            while ((line = reader.readLine()) != null) {
+                line = line.trim();
+                if (line.isEmpty()) continue;
                 
-                if (!fields[3].isEmpty()) {
-                    enrollment.setEnrollmentDate(LocalDate.parse(fields[3], DATE_FORMATTER));
-                }
-                if (!fields[4].isEmpty()) {
-                    enrollment.setCompletionDate(LocalDate.parse(fields[4], DATE_FORMATTER));
-                }
-                if (!fields[5].isEmpty()) {
-                    enrollment.setNumericGrade(Double.parseDouble(fields[5]));
+                T row = parser.apply(binder.bind(line, fields));
+                if (row != null) {
+                    handler.accept(row);
                 }
-                if (fields.length > 6 && !fields[6].isEmpty()) {
-                    enrollment.setLetterGrade(Grade.valueOf(fields[6]));
-                }
-                if (fields.length > 7) {
-                    enrollment.setCompleted(Boolean.parseBoolean(fields[7]));
-                }
-                if (fields.length > 8) {
-                    enrollment.setActive(Boolean.parseBoolean(fields[8]));
-                }
-                
-                enrollments.add(enrollment);
             }
         }
-        
-        return enrollments;
     }
 
     /**
-     * Escapes CSV field values.
+     * Streams selected columns of a CSV file without building entities.
+     * Columns outside the projection are skipped while tokenizing.
+     * @param filePath Input file path
+     * @param schema The entity's column schema
+     * @param rowHandler Receives each row in canonical column order; the array is reused
+     * @param columns Canonical names of the columns to read
+     * @throws IOException if reading fails or a required column is missing
+     */
+    public static void scanColumns(String filePath, CSVColumnBinder.Schema schema,
+                                   Consumer<String[]> rowHandler, String... columns) throws IOException {
+        try (BufferedReader reader = openReader(filePath)) {
+            String header = reader.readLine();
+            if (header == null || header.trim().isEmpty()) {
+                return;
+            }
+            CSVColumnBinder binder = schema.compile(header.trim()).project(columns);
+            String[] fields = new String[binder.getSlotCount()];
+            String line;
+            while ((line = reader.readLine()) != null) {
+                line = line.trim();
+                if (line.isEmpty()) continue;
+                rowHandler.accept(binder.bind(line, fields));
+            }
+        }
+    }
+
+    private static boolean hasValue(String field) {
+        return field != null && !field.isEmpty();
+    }
+
+    /**
+     * Checks required slots of a bound row. A slot is null when the line
+     * ended before its column, since required columns are always bound.
+     */
+    private static boolean anyNull(String[] fields, int... slots) {
+        for (int slot : slots) {
+            if (fields[slot] == null) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Opens a CSV file for line reading, decompressing it if it was written
+     * through a registered codec.
+     * @param filePath The file to read
+     * @return A buffered UTF-8 reader
+     * @throws IOException if the file cannot be opened
+     */
+    public static BufferedReader openReader(String filePath) throws IOException {
+        return new BufferedReader(new InputStreamReader(
+                CompressionUtils.openInput(Paths.get(filePath)), StandardCharsets.UTF_8), READ_BUFFER_SIZE);
+    }
+
+    /**
+     * Appends a CSV field value, quoting it only when required.
+     * @param row The buffer to append to
      * @param value The value to escape
-     * @return Escaped value
+     * @return The buffer, for chaining
      */
-    private static String escapeCSV(String value) {
-        if (value == null) return "";
-        if (value.contains(",") || value.contains("\"") || value.contains("\n")) {
-            return "\"" + value.replace("\"", "\"\"") + "\"";
+    public static StringBuilder appendEscaped(StringBuilder row, String value) {
+        if (value == null) return row;
+        boolean needsQuotes = false;
+        for (int i = 0; i < value.length() && !needsQuotes; i++) {
+            char c = value.charAt(i);
+            needsQuotes = c == ',' || c == '"' || c == '\n';
         }
-        return value;
+        if (!needsQuotes) {
+            return row.append(value);
+        }
+        row.append('"');
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            if (c == '"') row.append('"');
+            row.append(c);
+        }
+        return row.append('"');
+    }
+
+    /**
+     * Appends a date in the CSV date format, or nothing if the date is null.
+     * @param row The buffer to append to
+     * @param date The date to format
+     * @return The buffer, for chaining
+     */
+    private static StringBuilder appendDate(StringBuilder row, LocalDate date) {
+        if (date != null) {
+            DATE_FORMATTER.formatTo(date, row);
+        }
+        return row;
     }
 
     /**
@@ -261,7 +526,7 @@ public class CSVUtils {
      * @param line The CSV line to parse
      * @return Array of field values
      */
-    private static String[] parseCSVLine(String line) {
+    public static String[] parseCSVLine(String line) {
         List<String> fields = new ArrayList<>();
         boolean inQuotes = false;
         StringBuilder currentField = new StringBuilder();
@@ -292,4 +557,43 @@ public class CSVUtils {
         
         return fields.toArray(new String[0]);
     }
+
+    /**
+     * Streams CSV rows to a file through a large write buffer.
+     * Each row is encoded into one reused StringBuilder and copied into a
+     * reused char array, so no per-row String is created.
+     */
+    private static class RowWriter implements AutoCloseable {
+        private final Writer writer;
+        private final StringBuilder row = new StringBuilder(256);
+        private char[] chars = new char[256];
+
+        RowWriter(String filePath, String header, CompressionCodec codec) throws IOException {
+            this.writer = new BufferedWriter(new OutputStreamWriter(
+                    CompressionUtils.openOutput(Paths.get(filePath), codec),
+                    StandardCharsets.UTF_8), WRITE_BUFFER_SIZE);
+            writer.write(header);
+            writer.write(LINE_SEPARATOR);
+        }
+
+        StringBuilder row() {
+            row.setLength(0);
+            return row;
+        }
+
+        void endRow() throws IOException {
+            row.append(LINE_SEPARATOR);
+            int length = row.length();
+            if (chars.length < length) {
+                chars = new char[Math.max(length, chars.length * 2)];
+            }
+            row.getChars(0, length, chars, 0);
+            writer.write(chars, 0, length);
+        }
+
+        @Override
+        public void close() throws IOException {
+            writer.close();
+        }
+    }
 }
@@ -0,0 +1,284 @@
+package com.ccrm.utils;
+
+import com.ccrm.interfaces.CompressionCodec;
+import java.io.BufferedInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.zip.Deflater;
+import java.util.zip.DeflaterOutputStream;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
+import java.util.zip.Inflater;
+import java.util.zip.InflaterInputStream;
+
+/**
+ * Utility class for streaming compression with pluggable codecs.
+ * Provides gzip and zlib/deflate codecs and detects the codec of a file
+ * from its extension and magic bytes, so readers never need to know how it
+ * was written.
+ */
+public class CompressionUtils {
+
+    private static final int STREAM_BUFFER_SIZE = 64 * 1024;
+    private static final int HEADER_LENGTH = 4;
+
+    /** Pass-through codec for plain files. */
+    public static final CompressionCodec NONE = new NoCompressionCodec();
+    /** Gzip codec; best ratio of the built-in codecs. */
+    public static final CompressionCodec GZIP = new GzipCodec();
+    /** Zlib/deflate codec at the default level. */
+    public static final CompressionCodec DEFLATE = new DeflateCodec("deflate", Deflater.DEFAULT_COMPRESSION);
+    /** Zlib/deflate codec tuned for speed over ratio. */
+    public static final CompressionCodec DEFLATE_FAST = new DeflateCodec("deflate-fast", Deflater.BEST_SPEED);
+
+    private static final List<CompressionCodec> codecs = new CopyOnWriteArrayList<>();
+    static {
+        codecs.add(GZIP);
+        codecs.add(DEFLATE);
+        codecs.add(DEFLATE_FAST);
+    }
+
+    /**
+     * Registers an additional codec, e.g. a faster third-party algorithm.
+     * Registered codecs take part in detection ahead of the built-in ones.
+     * @param codec The codec to register
+     */
+    public static void registerCodec(CompressionCodec codec) {
+        codecs.add(0, codec);
+    }
+
+    /**
+     * Gets all registered codecs, excluding {@link #NONE}.
+     * @return List of codecs
+     */
+    public static List<CompressionCodec> getCodecs() {
+        return new ArrayList<>(codecs);
+    }
+
+    /**
+     * Finds a codec by name.
+     * @param name The codec name (case-insensitive)
+     * @return The codec, or {@link #NONE} if no codec has that name
+     */
+    public static CompressionCodec forName(String name) {
+        for (CompressionCodec codec : codecs) {
+            if (codec.getName().equalsIgnoreCase(name)) {
+                return codec;
+            }
+        }
+        return NONE;
+    }
+
+    /**
+     * Opens a file for reading, transparently decompressing it if its
+     * name and leading bytes match a registered codec.
+     * @param path The file to read
+     * @return A buffered, decompressed input stream
+     * @throws IOException if the file cannot be opened
+     */
+    public static InputStream openInput(Path path) throws IOException {
+        InputStream in = new BufferedInputStream(Files.newInputStream(path), STREAM_BUFFER_SIZE);
+        try {
+            CompressionCodec codec = detect(path, in);
+            return codec == NONE ? in : new BufferedInputStream(codec.decompress(in), STREAM_BUFFER_SIZE);
+        } catch (IOException e) {
+            in.close();
+            throw e;
+        }
+    }
+
+    /**
+     * Opens a file for writing through a codec, truncating any existing file.
+     * @param path The file to write
+     * @param codec The codec to compress with
+     * @return A compressing output stream
+     * @throws IOException if the file cannot be created
+     */
+    public static OutputStream openOutput(Path path, CompressionCodec codec) throws IOException {
+        OutputStream out = Files.newOutputStream(path, StandardOpenOption.CREATE,
+                StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE);
+        try {
+            return codec.compress(out);
+        } catch (IOException e) {
+            out.close();
+            throw e;
+        }
+    }
+
+    /**
+     * Detects the codec of a file from its extension and leading bytes.
+     * @param path The file to inspect
+     * @return The matching codec, or {@link #NONE}
+     * @throws IOException if the file cannot be read
+     */
+    public static CompressionCodec detect(Path path) throws IOException {
+        if (candidates(path).isEmpty()) {
+            return NONE;
+        }
+        try (InputStream in = new BufferedInputStream(Files.newInputStream(path), HEADER_LENGTH)) {
+            return detect(path, in);
+        }
+    }
+
+    /**
+     * Gets the codecs whose file extension a file name ends with. Magic
+     * bytes alone are not trusted: a two-byte zlib header can occur at the
+     * start of a plain CSV file, e.g. "H,".
+     */
+    private static List<CompressionCodec> candidates(Path path) {
+        Path fileName = path.getFileName();
+        String name = fileName != null ? fileName.toString().toLowerCase() : "";
+        List<CompressionCodec> result = new ArrayList<>();
+        for (CompressionCodec codec : codecs) {
+            String extension = codec.getFileExtension();
+            if (!extension.isEmpty() && name.endsWith(extension.toLowerCase())) {
+                result.add(codec);
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Peeks at the leading bytes of a mark-supporting stream and resets it.
+     * @param path The file the stream reads, whose extension limits the candidates
+     * @param in The stream to inspect
+     * @return The matching codec, or {@link #NONE}
+     * @throws IOException if the stream cannot be read
+     */
+    private static CompressionCodec detect(Path path, InputStream in) throws IOException {
+        List<CompressionCodec> candidates = candidates(path);
+        if (candidates.isEmpty()) {
+            return NONE;
+        }
+        byte[] header = new byte[HEADER_LENGTH];
+        in.mark(HEADER_LENGTH);
+        int length = 0;
+        int read;
+        while (length < HEADER_LENGTH && (read = in.read(header, length, HEADER_LENGTH - length)) > 0) {
+            length += read;
+        }
+        in.reset();
+
+        for (CompressionCodec codec : candidates) {
+            if (codec.matches(header, length)) {
+                return codec;
+            }
+        }
+        return NONE;
+    }
+
+    /**
+     * Codec that leaves data unchanged.
+     */
+    private static class NoCompressionCodec implements CompressionCodec {
+        @Override
+        public String getName() { return "none"; }
+
+        @Override
+        public String getFileExtension() { return ""; }
+
+        @Override
+        public OutputStream compress(OutputStream out) { return out; }
+
+        @Override
+        public InputStream decompress(InputStream in) { return in; }
+
+        @Override
+        public boolean matches(byte[] header, int length) { return false; }
+    }
+
+    /**
+     * Gzip (RFC 1952) codec.
+     */
+    private static class GzipCodec implements CompressionCodec {
+        @Override
+        public String getName() { return "gzip"; }
+
+        @Override
+        public String getFileExtension() { return ".gz"; }
+
+        @Override
+        public OutputStream compress(OutputStream out) throws IOException {
+            return new GZIPOutputStream(out, STREAM_BUFFER_SIZE);
+        }
+
+        @Override
+        public InputStream decompress(InputStream in) throws IOException {
+            return new GZIPInputStream(in, STREAM_BUFFER_SIZE);
+        }
+
+        @Override
+        public boolean matches(byte[] header, int length) {
+            return length >= 2 && (header[0] & 0xff) == 0x1f && (header[1] & 0xff) == 0x8b;
+        }
+    }
+
+    /**
+     * Zlib-wrapped deflate (RFC 1950) codec with a configurable level.
+     * All levels share one on-disk format, so any instance can read the others.
+     */
+    private static class DeflateCodec implements CompressionCodec {
+        private final String name;
+        private final int level;
+
+        DeflateCodec(String name, int level) {
+            this.name = name;
+            this.level = level;
+        }
+
+        @Override
+        public String getName() { return name; }
+
+        @Override
+        public String getFileExtension() { return ".zz"; }
+
+        @Override
+        public OutputStream compress(OutputStream out) {
+            // The stream owns its Deflater, so release it on close
+            Deflater deflater = new Deflater(level);
+            return new DeflaterOutputStream(out, deflater, STREAM_BUFFER_SIZE) {
+                @Override
+                public void close() throws IOException {
+                    try {
+                        super.close();
+                    } finally {
+                        deflater.end();
+                    }
+                }
+            };
+        }
+
+        @Override
+        public InputStream decompress(InputStream in) {
+            Inflater inflater = new Inflater();
+            return new InflaterInputStream(in, inflater, STREAM_BUFFER_SIZE) {
+                @Override
+                public void close() throws IOException {
+                    try {
+                        super.close();
+                    } finally {
+                        inflater.end();
+                    }
+                }
+            };
+        }
+
+        @Override
+        public boolean matches(byte[] header, int length) {
+            if (length < 2) {
+                return false;
+            }
+            int cmf = header[0] & 0xff;
+            int flg = header[1] & 0xff;
+            // CM = 8 (deflate), window <= 32K, no preset dictionary, valid FCHECK
+            return (cmf & 0x0f) == 8 && (cmf >> 4) <= 7 && (flg & 0x20) == 0 && ((cmf << 8) | flg) % 31 == 0;
+        }
+    }
+}
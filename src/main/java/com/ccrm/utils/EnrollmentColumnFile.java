@@ -0,0 +1,855 @@
+package com.ccrm.utils;
+
+import com.ccrm.enums.Grade;
+import com.ccrm.model.Enrollment;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.DoubleBuffer;
+import java.nio.IntBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.IntFunction;
+
+/**
+ * Columnar, dictionary-encoded file format for enrollments.
+ * Each enrollment field is stored as its own primitive section, so an
+ * analytic pass memory-maps and reads only the columns it needs.
+ *
+ * <ul>
+ *   <li>Student and course IDs are dictionary-encoded into int columns;
+ *       dictionaries are sorted, so codes follow ID order.</li>
+ *   <li>Numeric grades are a double column, letter grades a byte column of
+ *       {@link Grade} ordinals, dates are epoch-day ints and the completed and
+ *       active flags share one bit-packed byte column.</li>
+ *   <li>Every numeric column carries min/max/non-null statistics per block of
+ *       rows, which lets scans skip blocks that cannot match.</li>
+ *   <li>Rows are grouped by course, so per-course scans touch few blocks;
+ *       row indexes locate all rows of one student or course directly.</li>
+ * </ul>
+ * All values are little-endian; sections start on 8-byte boundaries.
+ */
+public class EnrollmentColumnFile implements AutoCloseable {
+
+    public static final int DEFAULT_BLOCK_SIZE = 4096;
+
+    private static final int MAGIC = 0x4C4F4343; // "CCOL"
+    private static final int VERSION = 1;
+    private static final int HEADER_INTS = 5;
+    private static final int MAX_SECTIONS = 32;
+    private static final int DIRECTORY_ENTRY_BYTES = 4 + 8 + 8;
+    private static final int STATS_ENTRY_BYTES = 24;
+    private static final int WRITE_BUFFER_SIZE = 64 * 1024;
+
+    private static final int STUDENT_DICTIONARY_SECTION = 20;
+    private static final int COURSE_DICTIONARY_SECTION = 21;
+    private static final int STUDENT_ROWS_SECTION = 22;
+    private static final int COURSE_ROWS_SECTION = 23;
+    private static final int STATS_SECTION_BASE = 100;
+
+    private static final int NULL_DAY = Integer.MIN_VALUE;
+    private static final byte NULL_GRADE = -1;
+    private static final byte FLAG_COMPLETED = 1;
+    private static final byte FLAG_ACTIVE = 2;
+
+    /**
+     * Columns stored in the file.
+     */
+    public enum Column {
+        ENROLLMENT_ID(1, false),
+        STUDENT_ID(2, true),
+        COURSE_ID(3, true),
+        ENROLLMENT_DATE(4, true),
+        COMPLETION_DATE(5, true),
+        NUMERIC_GRADE(6, true),
+        LETTER_GRADE(7, true),
+        FLAGS(8, false);
+
+        private final int sectionId;
+        private final boolean hasStats;
+
+        Column(int sectionId, boolean hasStats) {
+            this.sectionId = sectionId;
+            this.hasStats = hasStats;
+        }
+
+        public boolean hasStats() {
+            return hasStats;
+        }
+    }
+
+    private final FileChannel channel;
+    private final int rowCount;
+    private final int blockSize;
+    private final Map<Integer, long[]> directory;
+    private final Map<Integer, ByteBuffer> mappedSections;
+
+    private EnrollmentColumnFile(FileChannel channel, int rowCount, int blockSize, Map<Integer, long[]> directory) {
+        this.channel = channel;
+        this.rowCount = rowCount;
+        this.blockSize = blockSize;
+        this.directory = directory;
+        this.mappedSections = new HashMap<>();
+    }
+
+    // Writing
+
+    /**
+     * Writes enrollments to a columnar file with the default block size.
+     * @param enrollments Enrollments to write
+     * @param filePath Output file path
+     * @throws IOException if writing fails
+     */
+    public static void write(Iterable<Enrollment> enrollments, String filePath) throws IOException {
+        write(enrollments, filePath, DEFAULT_BLOCK_SIZE);
+    }
+
+    /**
+     * Writes enrollments to a columnar file. The file is written under a
+     * temporary name and then moved into place, so readers that still have
+     * the previous file open keep a consistent mapping.
+     * @param enrollments Enrollments to write
+     * @param filePath Output file path
+     * @param blockSize Rows per statistics block
+     * @throws IOException if writing fails
+     */
+    public static void write(Iterable<Enrollment> enrollments, String filePath, int blockSize) throws IOException {
+        RowBuffer rows = new RowBuffer();
+        for (Enrollment enrollment : enrollments) {
+            rows.add(enrollment);
+        }
+        writeRows(rows, filePath, blockSize);
+    }
+
+    /**
+     * Converts an enrollment CSV file to a columnar file in one pass over
+     * the CSV. Rows are buffered as primitive columns rather than as
+     * Enrollment objects, so the whole history is never materialized.
+     * @param csvPath The enrollment CSV file
+     * @param filePath Output file path
+     * @throws IOException if reading or writing fails
+     */
+    public static void writeFromCSV(String csvPath, String filePath) throws IOException {
+        RowBuffer rows = new RowBuffer();
+        CSVUtils.forEachEnrollment(csvPath, rows::add);
+        writeRows(rows, filePath, DEFAULT_BLOCK_SIZE);
+    }
+
+    private static void writeRows(RowBuffer rows, String filePath, int blockSize) throws IOException {
+        int n = rows.size;
+        String[] studentDictionary = rows.studentIds.toArray(new String[0]);
+        String[] courseDictionary = rows.courseIds.toArray(new String[0]);
+        Arrays.sort(studentDictionary);
+        Arrays.sort(courseDictionary);
+        // Buffered codes follow first appearance; dictionaries are sorted
+        int[] studentRemap = remap(rows.studentIds, studentDictionary);
+        int[] courseRemap = remap(rows.courseIds, courseDictionary);
+
+        // Counting sort by course code keeps each course's rows contiguous
+        int[] courseStarts = new int[courseDictionary.length + 1];
+        for (int i = 0; i < n; i++) {
+            courseStarts[courseRemap[rows.courses[i]] + 1]++;
+        }
+        for (int c = 0; c < courseDictionary.length; c++) {
+            courseStarts[c + 1] += courseStarts[c];
+        }
+        int[] courseOffsets = courseStarts.clone();
+        int[] order = new int[n];
+        for (int i = 0; i < n; i++) {
+            order[courseStarts[courseRemap[rows.courses[i]]]++] = i;
+        }
+
+        String[] enrollmentIds = new String[n];
+        int[] students = new int[n];
+        int[] coursesColumn = new int[n];
+        int[] enrollmentDays = new int[n];
+        int[] completionDays = new int[n];
+        double[] grades = new double[n];
+        byte[] letters = new byte[n];
+        byte[] flags = new byte[n];
+        for (int i = 0; i < n; i++) {
+            int r = order[i];
+            enrollmentIds[i] = rows.enrollmentIds[r];
+            students[i] = studentRemap[rows.students[r]];
+            coursesColumn[i] = courseRemap[rows.courses[r]];
+            enrollmentDays[i] = rows.enrollmentDays[r];
+            completionDays[i] = rows.completionDays[r];
+            grades[i] = rows.grades[r];
+            letters[i] = rows.letters[r];
+            flags[i] = rows.flags[r];
+        }
+
+        Path target = Paths.get(filePath);
+        Path tmp = target.resolveSibling(target.getFileName() + ".tmp");
+        try (FileChannel out = FileChannel.open(tmp, StandardOpenOption.CREATE,
+                StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE)) {
+            SectionWriter writer = new SectionWriter(out, MAX_SECTIONS);
+            writer.beginSection(STUDENT_DICTIONARY_SECTION);
+            writer.putStrings(studentDictionary.length, i -> studentDictionary[i]);
+            writer.beginSection(COURSE_DICTIONARY_SECTION);
+            writer.putStrings(courseDictionary.length, i -> courseDictionary[i]);
+            writer.beginSection(Column.ENROLLMENT_ID.sectionId);
+            writer.putStrings(n, i -> enrollmentIds[i]);
+
+            writer.beginSection(Column.STUDENT_ID.sectionId);
+            for (int v : students) writer.putInt(v);
+            writer.beginSection(Column.COURSE_ID.sectionId);
+            for (int v : coursesColumn) writer.putInt(v);
+            writer.beginSection(Column.ENROLLMENT_DATE.sectionId);
+            for (int v : enrollmentDays) writer.putInt(v);
+            writer.beginSection(Column.COMPLETION_DATE.sectionId);
+            for (int v : completionDays) writer.putInt(v);
+            writer.beginSection(Column.NUMERIC_GRADE.sectionId);
+            for (double v : grades) writer.putDouble(v);
+            writer.beginSection(Column.LETTER_GRADE.sectionId);
+            for (byte v : letters) writer.put(v);
+            writer.beginSection(Column.FLAGS.sectionId);
+            for (byte v : flags) writer.put(v);
+
+            // Row indexes: course rows are contiguous, so offsets alone locate them;
+            // student rows are scattered and get a CSR offsets + row-list index
+            writer.beginSection(COURSE_ROWS_SECTION);
+            for (int v : courseOffsets) writer.putInt(v);
+            int[] studentOffsets = new int[studentDictionary.length + 1];
+            for (int v : students) studentOffsets[v + 1]++;
+            for (int c = 0; c < studentDictionary.length; c++) studentOffsets[c + 1] += studentOffsets[c];
+            int[] studentRows = new int[n];
+            int[] cursors = studentOffsets.clone();
+            for (int i = 0; i < n; i++) studentRows[cursors[students[i]]++] = i;
+            writer.beginSection(STUDENT_ROWS_SECTION);
+            for (int v : studentOffsets) writer.putInt(v);
+            for (int v : studentRows) writer.putInt(v);
+
+            int blockCount = (n + blockSize - 1) / blockSize;
+            writer.beginSection(STATS_SECTION_BASE + Column.STUDENT_ID.sectionId);
+            writeIntStats(writer, students, blockSize, blockCount, Integer.MIN_VALUE);
+            writer.beginSection(STATS_SECTION_BASE + Column.COURSE_ID.sectionId);
+            writeIntStats(writer, coursesColumn, blockSize, blockCount, Integer.MIN_VALUE);
+            writer.beginSection(STATS_SECTION_BASE + Column.ENROLLMENT_DATE.sectionId);
+            writeIntStats(writer, enrollmentDays, blockSize, blockCount, NULL_DAY);
+            writer.beginSection(STATS_SECTION_BASE + Column.COMPLETION_DATE.sectionId);
+            writeIntStats(writer, completionDays, blockSize, blockCount, NULL_DAY);
+            writer.beginSection(STATS_SECTION_BASE + Column.NUMERIC_GRADE.sectionId);
+            for (int b = 0; b < blockCount; b++) {
+                double min = Double.POSITIVE_INFINITY, max = Double.NEGATIVE_INFINITY;
+                long nonNull = 0;
+                int end = Math.min(n, (b + 1) * blockSize);
+                for (int i = b * blockSize; i < end; i++) {
+                    // Ungraded rows store 0.0; the letter column marks them
+                    if (letters[i] != NULL_GRADE) {
+                        min = Math.min(min, grades[i]);
+                        max = Math.max(max, grades[i]);
+                        nonNull++;
+                    }
+                }
+                writer.putDouble(nonNull > 0 ? min : Double.NaN);
+                writer.putDouble(nonNull > 0 ? max : Double.NaN);
+                writer.putLong(nonNull);
+            }
+            writer.beginSection(STATS_SECTION_BASE + Column.LETTER_GRADE.sectionId);
+            for (int b = 0; b < blockCount; b++) {
+                int min = Integer.MAX_VALUE, max = Integer.MIN_VALUE;
+                long nonNull = 0;
+                int end = Math.min(n, (b + 1) * blockSize);
+                for (int i = b * blockSize; i < end; i++) {
+                    if (letters[i] != NULL_GRADE) {
+                        min = Math.min(min, letters[i]);
+                        max = Math.max(max, letters[i]);
+                        nonNull++;
+                    }
+                }
+                writer.putDouble(nonNull > 0 ? min : Double.NaN);
+                writer.putDouble(nonNull > 0 ? max : Double.NaN);
+                writer.putLong(nonNull);
+            }
+
+            writer.finish(n, blockSize);
+            out.force(false);
+        }
+        Files.move(tmp, target, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    }
+
+    private static int[] remap(List<String> ids, String[] sortedDictionary) {
+        int[] codes = new int[ids.size()];
+        for (int i = 0; i < codes.length; i++) {
+            codes[i] = Arrays.binarySearch(sortedDictionary, ids.get(i));
+        }
+        return codes;
+    }
+
+    /**
+     * Enrollments buffered for writing as growable primitive columns.
+     * Student and course IDs are coded in order of first appearance.
+     */
+    private static class RowBuffer {
+        private final Map<String, Integer> studentCodes = new HashMap<>();
+        private final Map<String, Integer> courseCodes = new HashMap<>();
+        private final List<String> studentIds = new ArrayList<>();
+        private final List<String> courseIds = new ArrayList<>();
+        private String[] enrollmentIds = new String[1024];
+        private int[] students = new int[1024];
+        private int[] courses = new int[1024];
+        private int[] enrollmentDays = new int[1024];
+        private int[] completionDays = new int[1024];
+        private double[] grades = new double[1024];
+        private byte[] letters = new byte[1024];
+        private byte[] flags = new byte[1024];
+        private int size;
+
+        void add(Enrollment e) {
+            if (size == students.length) {
+                int capacity = size * 2;
+                enrollmentIds = Arrays.copyOf(enrollmentIds, capacity);
+                students = Arrays.copyOf(students, capacity);
+                courses = Arrays.copyOf(courses, capacity);
+                enrollmentDays = Arrays.copyOf(enrollmentDays, capacity);
+                completionDays = Arrays.copyOf(completionDays, capacity);
+                grades = Arrays.copyOf(grades, capacity);
+                letters = Arrays.copyOf(letters, capacity);
+                flags = Arrays.copyOf(flags, capacity);
+            }
+            enrollmentIds[size] = e.getEnrollmentId();
+            students[size] = code(studentCodes, studentIds, e.getStudentId());
+            courses[size] = code(courseCodes, courseIds, e.getCourseId());
+            enrollmentDays[size] = e.getEnrollmentDate() != null ? (int) e.getEnrollmentDate().toEpochDay() : NULL_DAY;
+            completionDays[size] = e.getCompletionDate() != null ? (int) e.getCompletionDate().toEpochDay() : NULL_DAY;
+            grades[size] = e.getNumericGrade();
+            letters[size] = e.getLetterGrade() != null ? (byte) e.getLetterGrade().ordinal() : NULL_GRADE;
+            flags[size] = (byte) ((e.isCompleted() ? FLAG_COMPLETED : 0) | (e.isActive() ? FLAG_ACTIVE : 0));
+            size++;
+        }
+
+        private static int code(Map<String, Integer> codes, List<String> ids, String id) {
+            Integer code = codes.get(id);
+            if (code == null) {
+                code = ids.size();
+                codes.put(id, code);
+                ids.add(id);
+            }
+            return code;
+        }
+    }
+
+    private static void writeIntStats(SectionWriter writer, int[] values, int blockSize, int blockCount, int nullValue)
+            throws IOException {
+        for (int b = 0; b < blockCount; b++) {
+            int min = Integer.MAX_VALUE, max = Integer.MIN_VALUE;
+            long nonNull = 0;
+            int end = Math.min(values.length, (b + 1) * blockSize);
+            for (int i = b * blockSize; i < end; i++) {
+                if (values[i] != nullValue) {
+                    min = Math.min(min, values[i]);
+                    max = Math.max(max, values[i]);
+                    nonNull++;
+                }
+            }
+            writer.putDouble(nonNull > 0 ? min : Double.NaN);
+            writer.putDouble(nonNull > 0 ? max : Double.NaN);
+            writer.putLong(nonNull);
+        }
+    }
+
+    // Reading
+
+    /**
+     * Opens a columnar enrollment file. Sections are memory-mapped lazily
+     * on first access, so unused columns are never read.
+     * @param filePath The file to open
+     * @return The opened file
+     * @throws IOException if the file is missing or not a columnar enrollment file
+     */
+    public static EnrollmentColumnFile open(String filePath) throws IOException {
+        Path path = Paths.get(filePath);
+        FileChannel channel = FileChannel.open(path, StandardOpenOption.READ);
+        try {
+            ByteBuffer header = ByteBuffer.allocate(HEADER_INTS * 4).order(ByteOrder.LITTLE_ENDIAN);
+            readFully(channel, header, 0);
+            header.flip();
+            if (header.getInt() != MAGIC || header.getInt() != VERSION) {
+                throw new IOException("Not a columnar enrollment file: " + filePath);
+            }
+            int rowCount = header.getInt();
+            int blockSize = header.getInt();
+            int sectionCount = header.getInt();
+
+            ByteBuffer entries = ByteBuffer.allocate(sectionCount * DIRECTORY_ENTRY_BYTES).order(ByteOrder.LITTLE_ENDIAN);
+            readFully(channel, entries, HEADER_INTS * 4);
+            entries.flip();
+            Map<Integer, long[]> directory = new LinkedHashMap<>();
+            for (int i = 0; i < sectionCount; i++) {
+                directory.put(entries.getInt(), new long[] {entries.getLong(), entries.getLong()});
+            }
+            return new EnrollmentColumnFile(channel, rowCount, blockSize, directory);
+        } catch (IOException e) {
+            channel.close();
+            throw e;
+        }
+    }
+
+    private static void readFully(FileChannel channel, ByteBuffer buffer, long position) throws IOException {
+        while (buffer.hasRemaining()) {
+            int read = channel.read(buffer, position + buffer.position());
+            if (read < 0) {
+                throw new IOException("Unexpected end of columnar file");
+            }
+        }
+    }
+
+    public int getRowCount() {
+        return rowCount;
+    }
+
+    public int getBlockSize() {
+        return blockSize;
+    }
+
+    public int getBlockCount() {
+        return (rowCount + blockSize - 1) / blockSize;
+    }
+
+    public IntBuffer getStudentCodes() throws IOException {
+        return section(Column.STUDENT_ID.sectionId).asIntBuffer();
+    }
+
+    public IntBuffer getCourseCodes() throws IOException {
+        return section(Column.COURSE_ID.sectionId).asIntBuffer();
+    }
+
+    /**
+     * Gets enrollment dates as epoch days; {@link Integer#MIN_VALUE} marks a missing date.
+     */
+    public IntBuffer getEnrollmentDays() throws IOException {
+        return section(Column.ENROLLMENT_DATE.sectionId).asIntBuffer();
+    }
+
+    /**
+     * Gets completion dates as epoch days; {@link Integer#MIN_VALUE} marks a missing date.
+     */
+    public IntBuffer getCompletionDays() throws IOException {
+        return section(Column.COMPLETION_DATE.sectionId).asIntBuffer();
+    }
+
+    public DoubleBuffer getNumericGrades() throws IOException {
+        return section(Column.NUMERIC_GRADE.sectionId).asDoubleBuffer();
+    }
+
+    /**
+     * Gets letter grades as {@link Grade} ordinals; -1 marks an ungraded row.
+     */
+    public ByteBuffer getLetterGrades() throws IOException {
+        return section(Column.LETTER_GRADE.sectionId);
+    }
+
+    /**
+     * Gets the bit-packed flags column; decode with {@link #isCompleted(byte)}
+     * and {@link #isActive(byte)}.
+     */
+    public ByteBuffer getFlags() throws IOException {
+        return section(Column.FLAGS.sectionId);
+    }
+
+    public static boolean isCompleted(byte flags) {
+        return (flags & FLAG_COMPLETED) != 0;
+    }
+
+    public static boolean isActive(byte flags) {
+        return (flags & FLAG_ACTIVE) != 0;
+    }
+
+    public int getStudentCount() throws IOException {
+        return section(STUDENT_DICTIONARY_SECTION).getInt(0);
+    }
+
+    public int getCourseCount() throws IOException {
+        return section(COURSE_DICTIONARY_SECTION).getInt(0);
+    }
+
+    public String getStudentId(int code) throws IOException {
+        return readString(section(STUDENT_DICTIONARY_SECTION), code);
+    }
+
+    public String getCourseId(int code) throws IOException {
+        return readString(section(COURSE_DICTIONARY_SECTION), code);
+    }
+
+    public String getEnrollmentId(int row) throws IOException {
+        return readString(section(Column.ENROLLMENT_ID.sectionId), row);
+    }
+
+    /**
+     * Finds the dictionary code of a student by binary search.
+     * @param studentId The student ID
+     * @return The code, or -1 if the student has no rows in this file
+     */
+    public int findStudentCode(String studentId) throws IOException {
+        return findCode(section(STUDENT_DICTIONARY_SECTION), studentId);
+    }
+
+    /**
+     * Finds the dictionary code of a course by binary search.
+     * @param courseId The course ID
+     * @return The code, or -1 if the course has no rows in this file
+     */
+    public int findCourseCode(String courseId) throws IOException {
+        return findCode(section(COURSE_DICTIONARY_SECTION), courseId);
+    }
+
+    /**
+     * Gets the rows of one student using the student row index.
+     * @param studentId The student ID
+     * @return Row indexes in ascending order, empty if the student has no rows
+     * @throws IOException if the section cannot be mapped
+     */
+    public int[] getStudentRows(String studentId) throws IOException {
+        int code = findStudentCode(studentId);
+        if (code < 0) {
+            return new int[0];
+        }
+        ByteBuffer index = section(STUDENT_ROWS_SECTION);
+        int from = index.getInt(code * 4);
+        int to = index.getInt((code + 1) * 4);
+        int rowsStart = (getStudentCount() + 1) * 4;
+        int[] rows = new int[to - from];
+        for (int i = 0; i < rows.length; i++) {
+            rows[i] = index.getInt(rowsStart + (from + i) * 4);
+        }
+        return rows;
+    }
+
+    /**
+     * Gets the rows of one course using the course row index.
+     * @param courseId The course ID
+     * @return Row indexes in ascending order, empty if the course has no rows
+     * @throws IOException if the section cannot be mapped
+     */
+    public int[] getCourseRows(String courseId) throws IOException {
+        int code = findCourseCode(courseId);
+        if (code < 0) {
+            return new int[0];
+        }
+        ByteBuffer index = section(COURSE_ROWS_SECTION);
+        int from = index.getInt(code * 4);
+        int[] rows = new int[index.getInt((code + 1) * 4) - from];
+        for (int i = 0; i < rows.length; i++) {
+            rows[i] = from + i;
+        }
+        return rows;
+    }
+
+    /**
+     * Gets the statistics of one block of a column.
+     * @param column A column with statistics
+     * @param block The block index
+     * @return The block statistics
+     * @throws IOException if the section cannot be mapped
+     */
+    public BlockStats getBlockStats(Column column, int block) throws IOException {
+        if (!column.hasStats) {
+            throw new IllegalArgumentException("Column has no block statistics: " + column);
+        }
+        ByteBuffer stats = section(STATS_SECTION_BASE + column.sectionId);
+        int offset = block * STATS_ENTRY_BYTES;
+        return new BlockStats(stats.getDouble(offset), stats.getDouble(offset + 8), stats.getLong(offset + 16));
+    }
+
+    /**
+     * Materializes one row as an Enrollment.
+     * @param row The row index
+     * @return The enrollment
+     * @throws IOException if a section cannot be mapped
+     */
+    public Enrollment readEnrollment(int row) throws IOException {
+        Enrollment enrollment = new Enrollment(getEnrollmentId(row),
+                getStudentId(getStudentCodes().get(row)), getCourseId(getCourseCodes().get(row)));
+        int enrolled = getEnrollmentDays().get(row);
+        enrollment.setEnrollmentDate(enrolled != NULL_DAY ? LocalDate.ofEpochDay(enrolled) : null);
+        int completed = getCompletionDays().get(row);
+        enrollment.setCompletionDate(completed != NULL_DAY ? LocalDate.ofEpochDay(completed) : null);
+        enrollment.setNumericGrade(getNumericGrades().get(row));
+        byte letter = getLetterGrades().get(row);
+        enrollment.setLetterGrade(letter != NULL_GRADE ? Grade.values()[letter] : null);
+        byte flags = getFlags().get(row);
+        enrollment.setCompleted(isCompleted(flags));
+        enrollment.setActive(isActive(flags));
+        return enrollment;
+    }
+
+    /**
+     * Summarizes enrollment counts and average grades per course.
+     * Reads only the course, letter-grade and numeric-grade columns, and
+     * skips grade reads for blocks that contain no graded rows.
+     * @return Summaries in course ID order
+     * @throws IOException if a section cannot be mapped
+     */
+    public List<CourseSummary> summarizeCourses() throws IOException {
+        int courseCount = getCourseCount();
+        long[] enrolled = new long[courseCount];
+        long[] graded = new long[courseCount];
+        double[] gradeSums = new double[courseCount];
+
+        IntBuffer courses = getCourseCodes();
+        ByteBuffer letters = getLetterGrades();
+        DoubleBuffer grades = null;
+        for (int b = 0; b < getBlockCount(); b++) {
+            int start = b * blockSize;
+            int end = Math.min(rowCount, start + blockSize);
+            for (int i = start; i < end; i++) {
+                enrolled[courses.get(i)]++;
+            }
+            if (getBlockStats(Column.LETTER_GRADE, b).getNonNullCount() == 0) {
+                continue;
+            }
+            if (grades == null) {
+                grades = getNumericGrades();
+            }
+            for (int i = start; i < end; i++) {
+                if (letters.get(i) != NULL_GRADE) {
+                    int course = courses.get(i);
+                    graded[course]++;
+                    gradeSums[course] += grades.get(i);
+                }
+            }
+        }
+
+        List<CourseSummary> summaries = new ArrayList<>(courseCount);
+        for (int c = 0; c < courseCount; c++) {
+            summaries.add(new CourseSummary(getCourseId(c), enrolled[c], graded[c],
+                    graded[c] > 0 ? gradeSums[c] / graded[c] : 0.0));
+        }
+        return summaries;
+    }
+
+    private synchronized ByteBuffer section(int sectionId) throws IOException {
+        ByteBuffer buffer = mappedSections.get(sectionId);
+        if (buffer == null) {
+            long[] entry = directory.get(sectionId);
+            if (entry == null) {
+                throw new IOException("Columnar file has no section " + sectionId);
+            }
+            buffer = channel.map(FileChannel.MapMode.READ_ONLY, entry[0], entry[1]).order(ByteOrder.LITTLE_ENDIAN);
+            mappedSections.put(sectionId, buffer);
+        }
+        // Views carry their own position, so callers can read concurrently
+        return buffer.duplicate().order(ByteOrder.LITTLE_ENDIAN);
+    }
+
+    /**
+     * String sections hold: int count, int[count + 1] byte offsets, UTF-8 bytes.
+     */
+    private static String readString(ByteBuffer section, int index) {
+        int count = section.getInt(0);
+        if (index < 0 || index >= count) {
+            throw new IndexOutOfBoundsException("String index " + index + " out of " + count);
+        }
+        int dataStart = 4 + (count + 1) * 4;
+        int from = section.getInt(4 + index * 4);
+        int to = section.getInt(8 + index * 4);
+        byte[] bytes = new byte[to - from];
+        ByteBuffer view = section.duplicate();
+        view.position(dataStart + from);
+        view.get(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    private static int findCode(ByteBuffer dictionary, String id) {
+        int low = 0;
+        int high = dictionary.getInt(0) - 1;
+        while (low <= high) {
+            int mid = (low + high) >>> 1;
+            int cmp = readString(dictionary, mid).compareTo(id);
+            if (cmp < 0) {
+                low = mid + 1;
+            } else if (cmp > 0) {
+                high = mid - 1;
+            } else {
+                return mid;
+            }
+        }
+        return -1;
+    }
+
+    @Override
+    public void close() throws IOException {
+        synchronized (this) {
+            mappedSections.clear();
+        }
+        channel.close();
+    }
+
+    /**
+     * Min/max/non-null statistics of one block of a column.
+     * Min and max are NaN when the block has no non-null values.
+     */
+    public static class BlockStats {
+        private final double min;
+        private final double max;
+        private final long nonNullCount;
+
+        public BlockStats(double min, double max, long nonNullCount) {
+            this.min = min;
+            this.max = max;
+            this.nonNullCount = nonNullCount;
+        }
+
+        public double getMin() { return min; }
+        public double getMax() { return max; }
+        public long getNonNullCount() { return nonNullCount; }
+
+        /**
+         * Checks whether the block may contain a value in a range.
+         * @param low Inclusive lower bound
+         * @param high Inclusive upper bound
+         * @return false if the block certainly has no value in range
+         */
+        public boolean mayContain(double low, double high) {
+            return nonNullCount > 0 && max >= low && min <= high;
+        }
+    }
+
+    /**
+     * Per-course enrollment and grade summary.
+     */
+    public static class CourseSummary {
+        private final String courseId;
+        private final long enrollmentCount;
+        private final long gradedCount;
+        private final double averageGrade;
+
+        public CourseSummary(String courseId, long enrollmentCount, long gradedCount, double averageGrade) {
+            this.courseId = courseId;
+            this.enrollmentCount = enrollmentCount;
+            this.gradedCount = gradedCount;
+            this.averageGrade = averageGrade;
+        }
+
+        public String getCourseId() { return courseId; }
+        public long getEnrollmentCount() { return enrollmentCount; }
+        public long getGradedCount() { return gradedCount; }
+        public double getAverageGrade() { return averageGrade; }
+    }
+
+    /**
+     * Streams sections to a file channel through one reused direct buffer
+     * and fills in the section directory at the end.
+     */
+    private static class SectionWriter {
+        private final FileChannel channel;
+        private final ByteBuffer buffer;
+        private final Map<Integer, long[]> directory;
+        private final int sectionCapacity;
+        private long position;
+        private long[] current;
+
+        SectionWriter(FileChannel channel, int sectionCapacity) throws IOException {
+            this.channel = channel;
+            this.buffer = ByteBuffer.allocateDirect(WRITE_BUFFER_SIZE).order(ByteOrder.LITTLE_ENDIAN);
+            this.directory = new LinkedHashMap<>();
+            this.sectionCapacity = sectionCapacity;
+            this.position = HEADER_INTS * 4 + (long) sectionCapacity * DIRECTORY_ENTRY_BYTES;
+            channel.position(position);
+        }
+
+        void beginSection(int sectionId) throws IOException {
+            endSection();
+            if (directory.size() == sectionCapacity) {
+                throw new IllegalStateException("Section directory overflow");
+            }
+            while (position % 8 != 0) {
+                put((byte) 0);
+            }
+            current = new long[] {position, 0};
+            directory.put(sectionId, current);
+        }
+
+        private void endSection() {
+            if (current != null) {
+                current[1] = position - current[0];
+            }
+        }
+
+        private void ensure(int bytes) throws IOException {
+            if (buffer.remaining() < bytes) {
+                flush();
+            }
+        }
+
+        void put(byte value) throws IOException {
+            ensure(1);
+            buffer.put(value);
+            position++;
+        }
+
+        void putInt(int value) throws IOException {
+            ensure(4);
+            buffer.putInt(value);
+            position += 4;
+        }
+
+        void putLong(long value) throws IOException {
+            ensure(8);
+            buffer.putLong(value);
+            position += 8;
+        }
+
+        void putDouble(double value) throws IOException {
+            ensure(8);
+            buffer.putDouble(value);
+            position += 8;
+        }
+
+        void putStrings(int count, IntFunction<String> source) throws IOException {
+            byte[][] encoded = new byte[count][];
+            putInt(count);
+            int offset = 0;
+            putInt(offset);
+            for (int i = 0; i < count; i++) {
+                encoded[i] = source.apply(i).getBytes(StandardCharsets.UTF_8);
+                offset += encoded[i].length;
+                putInt(offset);
+            }
+            for (byte[] bytes : encoded) {
+                int written = 0;
+                while (written < bytes.length) {
+                    ensure(1);
+                    int chunk = Math.min(buffer.remaining(), bytes.length - written);
+                    buffer.put(bytes, written, chunk);
+                    written += chunk;
+                    position += chunk;
+                }
+            }
+        }
+
+        private void flush() throws IOException {
+            buffer.flip();
+            while (buffer.hasRemaining()) {
+                channel.write(buffer);
+            }
+            buffer.clear();
+        }
+
+        void finish(int rowCount, int blockSize) throws IOException {
+            endSection();
+            flush();
+            ByteBuffer header = ByteBuffer.allocate(HEADER_INTS * 4 + sectionCapacity * DIRECTORY_ENTRY_BYTES)
+                    .order(ByteOrder.LITTLE_ENDIAN);
+            header.putInt(MAGIC).putInt(VERSION).putInt(rowCount).putInt(blockSize).putInt(directory.size());
+            for (Map.Entry<Integer, long[]> entry : directory.entrySet()) {
+                header.putInt(entry.getKey()).putLong(entry.getValue()[0]).putLong(entry.getValue()[1]);
+            }
+            header.rewind();
+            channel.write(header, 0);
+        }
+    }
+}